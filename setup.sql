@@ -468,4 +468,38 @@ select * from payment_daily_statistics;
 
 -- 데이터 삭제
 delete from payment_daily_statistics where  id > 0;
-delete from payment_source_v2 where  id > 0;
\ No newline at end of file
+delete from payment_source_v2 where  id > 0;
+
+
+/********************************************* Part 3 > 일일 결제 통계 키 조회 *********************************************/
+-- (사업자번호, 결제일자)로 금액만 조회할 때 테이블을 읽지 않도록 하는 커버링 인덱스
+CREATE INDEX idx_payment_daily_statistics_key_amount
+    ON payment_daily_statistics (business_registration_number, payment_date, amount);
+
+
+
+/********************************************* Part 3 > 일일 결제 통계 증분 집계 *********************************************/
+-- 증분 집계가 마지막으로 반영한 payment_source_v2의 (updated_at, id) 위치
+CREATE TABLE payment_statistics_watermark
+(
+    name            VARCHAR(100) NOT NULL PRIMARY KEY,
+    last_updated_at DATETIME(6)  NOT NULL,
+    last_id         BIGINT       NOT NULL,
+    updated_at      DATETIME(6)  NOT NULL
+);
+
+-- 결제 원천 데이터 한 건이 일일 결제 통계에 마지막으로 반영된 값 (금액이 정정되면 이전 값을 빼기 위해 사용)
+CREATE TABLE payment_statistics_ledger
+(
+    source_id                    BIGINT         NOT NULL PRIMARY KEY,
+    corp_name                    VARCHAR(100)   NOT NULL,
+    business_registration_number VARCHAR(100)   NOT NULL,
+    payment_date                 DATE           NOT NULL,
+    amount                       DECIMAL(38, 2) NOT NULL
+);
+
+-- 워터마크 이후 변경분만 인덱스 범위로 읽기 위한 인덱스
+CREATE INDEX idx_payment_source_v2_updated_at_id ON payment_source_v2 (updated_at, id);
+
+-- 일일 결제 통계 Reader가 결제 일시 구간을 범위 스캔하기 위한 인덱스
+CREATE INDEX idx_payment_source_v2_payment_date_time ON payment_source_v2 (payment_date_time);
@@ -0,0 +1,229 @@
+package com.example.springbatch.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * {@link HttpPageItemReader}와 {@link RxHttpPageItemReader}가 공유하는 페이지 상태 관리입니다.
+ * <p>
+ * 두 리더는 요청을 보내는 방식(동기 RestTemplate, 비동기 HttpClient)만 다르고, 다음 규칙은 이 클래스에서 함께 관리합니다.
+ * <ul>
+ *     <li>실패한 페이지는 ignoreErrors 설정에 따라 건너뛰거나 Step을 실패시키며, 건너뛴 페이지 번호는 dead letter 목록으로 ExecutionContext에 저장합니다.</li>
+ *     <li>연속으로 건너뛴 페이지가 maxConsecutiveSkippedPages를 넘으면 상대 서버가 응답하지 않는 것으로 보고 Step을 실패시킵니다.</li>
+ *     <li>현재 페이지 위치와 페이지 내 위치를 ExecutionContext에 저장하고, 재시작 시 복원한 값을 하위 클래스의 jumpToItem()에 넘깁니다.</li>
+ *     <li>4xx 응답(429 제외)은 재시도하지 않으며 서킷 브레이커의 실패로도 세지 않습니다.</li>
+ * </ul>
+ * 페이지 위치는 하위 클래스가 요청하는 순서의 위치이며, 로그와 dead letter에는 {@link #pageNumber(int)}로 바꾼 실제 페이지 번호를 남깁니다.
+ *
+ * @param <T> API 응답의 content 필드에 포함된 개별 아이템의 DTO 타입입니다.
+ */
+@Slf4j
+public abstract class AbstractHttpPageItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+    // ExecutionContext에 저장될 재시작 정보의 키
+    private static final String PAGE_KEY = "page";
+    private static final String ITEM_INDEX_KEY = "item.index";
+    private static final String DEAD_LETTER_PAGES_KEY = "dead.letter.pages";
+
+    // API 호출 중 오류가 발생한 페이지를 건너뛸지 여부 (false이면 Step을 실패시킵니다.)
+    private final boolean ignoreErrors;
+
+    // ignoreErrors일 때 연속으로 건너뛸 수 있는 최대 페이지 수
+    private final int maxConsecutiveSkippedPages;
+    private int consecutiveSkippedPages = 0;
+
+    // 재시도 후에도 실패하여 건너뛴 페이지 번호 목록
+    private final List<Integer> deadLetterPages = new ArrayList<>();
+
+    // 연속 실패 시 요청을 잠시 멈추는 서킷 브레이커 (null이면 사용하지 않음)
+    protected final HttpCircuitBreaker circuitBreaker;
+
+    // 호스트별 동시 요청 수 제한 (null이면 제한하지 않음)
+    protected final HttpHostConcurrencyLimiter hostLimiter;
+
+    // 재시작 시 ExecutionContext에서 복원한 페이지 위치와 페이지 내 위치 (-1이면 복원할 값 없음)
+    protected int restoredPage = -1;
+    protected int restoredItemIndex = 0;
+
+    protected AbstractHttpPageItemReader(AbstractHttpPageItemReaderBuilder<T, ?> builder) {
+        this.ignoreErrors = builder.ignoreErrors;
+        this.maxConsecutiveSkippedPages = builder.maxConsecutiveSkippedPages;
+        this.circuitBreaker = builder.circuitBreaker;
+        this.hostLimiter = builder.maxConcurrentRequestsPerHost > 0
+                ? builder.hostLimiterRegistry.forUrl(builder.baseUrl, builder.maxConcurrentRequestsPerHost)
+                : null;
+    }
+
+    /**
+     * 현재 버퍼에 아직 반환하지 않은 아이템이 남아 있는지 여부입니다.
+     */
+    protected abstract boolean hasRemainingItems();
+
+    /**
+     * 현재 버퍼에 담긴 페이지의 위치입니다. 남은 아이템이 있을 때 재시작 지점으로 저장됩니다.
+     */
+    protected abstract int currentPagePosition();
+
+    /**
+     * 다음으로 요청할 페이지의 위치입니다. 현재 페이지를 모두 읽었을 때 재시작 지점으로 저장됩니다.
+     */
+    protected abstract int nextPagePosition();
+
+    /**
+     * 현재 페이지에서 다음에 반환할 아이템의 위치입니다. 남은 아이템이 있을 때 재시작 지점으로 저장됩니다.
+     */
+    protected abstract int itemIndexInPage();
+
+    /**
+     * 페이지 위치를 요청할 페이지 번호로 바꿉니다. 기본은 위치가 곧 페이지 번호입니다.
+     */
+    protected int pageNumber(int position) {
+        return position;
+    }
+
+    /**
+     * 재시작 정보가 있을 때 하위 클래스의 추가 상태(예: 커서)를 복원합니다.
+     */
+    protected void restoreCheckpoint(ExecutionContext executionContext) {
+    }
+
+    /**
+     * 재시작 정보를 저장할 때 하위 클래스의 추가 상태(예: 커서)를 저장합니다.
+     *
+     * @param hasRemainingItems 현재 페이지에 남은 아이템이 있는지 여부
+     */
+    protected void saveCheckpoint(ExecutionContext executionContext, boolean hasRemainingItems) {
+    }
+
+    /**
+     * 실패한 페이지를 처리합니다.
+     * ignoreErrors가 꺼져 있거나 skippable이 false이거나 요청이 인터럽트로 취소되었으면 예외를 던져 Step을 실패시키고,
+     * 그렇지 않으면 페이지 번호를 dead letter 목록에 남기고 건너뜁니다.
+     * 인터럽트로 취소된 요청은 상대 서버의 실패가 아니므로 건너뛰지 않고 Step을 중단합니다.
+     *
+     * @param failedPage 실패한 페이지 위치
+     * @param ex         발생한 예외
+     * @param skippable  이 페이지를 건너뛰어도 다음 페이지를 요청할 수 있는지 여부
+     */
+    protected void skipFailedPage(int failedPage, Throwable ex, boolean skippable) {
+        if (ex instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        int pageNumber = pageNumber(failedPage);
+        if (!ignoreErrors || !skippable || Thread.currentThread().isInterrupted() || ex instanceof CancellationException) {
+            log.error("API call for page {} failed.", pageNumber, ex);
+            throw new RuntimeException("Failed to fetch page " + pageNumber, ex);
+        }
+        log.error("API call for page {} failed and will be skipped. Reason: {}", pageNumber, ex.getMessage());
+        deadLetterPages.add(pageNumber);
+        if (++consecutiveSkippedPages > maxConsecutiveSkippedPages) {
+            throw new RuntimeException("Skipped " + consecutiveSkippedPages + " consecutive pages up to page " + pageNumber + ", giving up", ex);
+        }
+    }
+
+    /**
+     * 페이지를 정상적으로 받았을 때 호출하여 연속으로 건너뛴 페이지 수를 초기화합니다.
+     */
+    protected void onPageFetched() {
+        this.consecutiveSkippedPages = 0;
+    }
+
+    /**
+     * 4xx 응답은 다시 보내도 결과가 같으므로 재시도하지 않으며, 429(Too Many Requests)만 예외적으로 재시도합니다.
+     */
+    protected static boolean isRetryable(Throwable ex) {
+        return !(ex instanceof HttpClientErrorException clientError)
+                || clientError.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    /**
+     * 요청 결과를 서킷 브레이커에 기록합니다.
+     * 4xx 응답은 상대 서버가 정상적으로 응답한 것이므로 실패로 세지 않습니다. (429 제외)
+     *
+     * @param failure 요청이 실패했으면 그 예외, 성공했으면 null
+     */
+    protected void recordOutcome(Throwable failure) {
+        if (circuitBreaker == null) {
+            return;
+        }
+        if (failure != null && isRetryable(failure)) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    /**
+     * 재시도 후에도 실패하여 건너뛴 페이지 번호 목록을 반환합니다.
+     */
+    public List<Integer> getDeadLetterPages() {
+        return List.copyOf(deadLetterPages);
+    }
+
+    /**
+     * 재시작 정보를 복원한 뒤 ItemStream을 엽니다.
+     * 부모 클래스의 open()이 doOpen()으로 상태를 초기화한 다음 jumpToItem()을 호출하므로, 저장된 값은 그 전에 꺼내 둡니다.
+     */
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        String pageKey = getExecutionContextKey(PAGE_KEY);
+        if (isSaveState() && executionContext.containsKey(pageKey)) {
+            this.restoredPage = executionContext.getInt(pageKey);
+            this.restoredItemIndex = executionContext.getInt(getExecutionContextKey(ITEM_INDEX_KEY), 0);
+            restoreCheckpoint(executionContext);
+        } else {
+            this.restoredPage = -1;
+            this.restoredItemIndex = 0;
+        }
+        this.consecutiveSkippedPages = 0;
+        this.deadLetterPages.clear();
+        String deadLetterPagesKey = getExecutionContextKey(DEAD_LETTER_PAGES_KEY);
+        if (isSaveState() && executionContext.containsKey(deadLetterPagesKey)) {
+            Arrays.stream(StringUtils.commaDelimitedListToStringArray(executionContext.getString(deadLetterPagesKey)))
+                    .map(Integer::valueOf)
+                    .forEach(deadLetterPages::add);
+        }
+        super.open(executionContext);
+    }
+
+    /**
+     * 읽은 아이템 수와 함께 재시작 시 다시 요청할 페이지 위치와 페이지 내 위치를 저장합니다.
+     * 현재 페이지를 모두 읽었다면 다음 페이지부터 시작하도록 저장하여 재시작 시 처리한 페이지를 다시 요청하지 않도록 합니다.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (!isSaveState()) {
+            return;
+        }
+        boolean hasRemainingItems = hasRemainingItems();
+        executionContext.putInt(getExecutionContextKey(PAGE_KEY), hasRemainingItems ? currentPagePosition() : nextPagePosition());
+        executionContext.putInt(getExecutionContextKey(ITEM_INDEX_KEY), hasRemainingItems ? itemIndexInPage() : 0);
+        saveCheckpoint(executionContext, hasRemainingItems);
+        if (!deadLetterPages.isEmpty()) {
+            executionContext.putString(getExecutionContextKey(DEAD_LETTER_PAGES_KEY), StringUtils.collectionToCommaDelimitedString(deadLetterPages));
+        }
+    }
+
+    /**
+     * 건너뛴 페이지가 있으면 로그로 남긴 뒤 ItemStream을 닫습니다.
+     */
+    @Override
+    public void close() throws ItemStreamException {
+        if (!deadLetterPages.isEmpty()) {
+            log.warn("Pages {} could not be fetched and were skipped. They are kept in the ExecutionContext for replay.", deadLetterPages);
+        }
+        super.close();
+    }
+
+}
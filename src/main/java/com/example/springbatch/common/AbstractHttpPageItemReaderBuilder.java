@@ -0,0 +1,138 @@
+package com.example.springbatch.common;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * {@link HttpPageItemReaderBuilder}와 {@link RxHttpPageItemReaderBuilder}가 공통으로 사용하는 설정입니다.
+ * 요청 대상, 오류 처리(재시도, 서킷 브레이커, 건너뛴 페이지), 호스트별 동시 요청 수 제한을 설정합니다.
+ *
+ * @param <T> 아이템 타입
+ * @param <B> 빌더 자신의 타입
+ */
+public abstract class AbstractHttpPageItemReaderBuilder<T, B extends AbstractHttpPageItemReaderBuilder<T, B>> {
+    protected String baseUrl;
+    protected int size = 10;
+    protected ParameterizedTypeReference<PageResponse<T>> responseType;
+    protected boolean ignoreErrors = false; // 기본값은 false
+    protected int retryMaxAttempts = 1; // 기본값은 재시도 없음
+    protected Duration retryInitialBackoff = Duration.ofMillis(200);
+    protected Duration retryMaxBackoff = Duration.ofSeconds(10);
+    protected HttpCircuitBreaker circuitBreaker;
+    protected int maxConsecutiveSkippedPages = 10;
+    protected int maxConcurrentRequestsPerHost = 0; // 기본값은 제한 없음
+    protected HttpHostConcurrencyLimiter.Registry hostLimiterRegistry = HttpHostConcurrencyLimiter.shared();
+
+    @SuppressWarnings("unchecked")
+    private B self() {
+        return (B) this;
+    }
+
+    public B baseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+        return self();
+    }
+
+    public B size(int size) {
+        this.size = size;
+        return self();
+    }
+
+    public B responseType(ParameterizedTypeReference<PageResponse<T>> responseType) {
+        this.responseType = responseType;
+        return self();
+    }
+
+    /**
+     * API 호출 중 오류 발생 시 예외를 무시할지 여부를 설정합니다.
+     *
+     * @param ignoreErrors true로 설정하면 오류 발생 시 해당 페이지만 건너뛰고 배치를 계속 진행합니다.
+     *                     false(기본값)로 설정하면 예외를 던져 배치를 실패시킵니다.
+     * @return 빌더 자신
+     */
+    public B ignoreErrors(boolean ignoreErrors) {
+        this.ignoreErrors = ignoreErrors;
+        return self();
+    }
+
+    /**
+     * 페이지 요청이 실패했을 때 지수 백오프로 재시도하도록 설정합니다.
+     * 대기 시간은 initialBackoff부터 2배씩 늘어나며(최대 maxBackoff), 매번 무작위 값을 곱해 요청이 한꺼번에 몰리지 않도록 합니다.
+     *
+     * @param maxAttempts    최초 요청을 포함한 최대 시도 횟수
+     * @param initialBackoff 첫 재시도 전 대기 시간
+     * @param maxBackoff     최대 대기 시간
+     * @return 빌더 자신
+     */
+    public B retry(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        this.retryMaxAttempts = maxAttempts;
+        this.retryInitialBackoff = initialBackoff;
+        this.retryMaxBackoff = maxBackoff;
+        return self();
+    }
+
+    /**
+     * 연속으로 failureThreshold번 실패하면 openDuration 동안 요청을 멈추는 서킷 브레이커를 설정합니다.
+     *
+     * @param failureThreshold 회로를 열기까지 허용할 연속 실패 횟수
+     * @param openDuration     회로가 열린 뒤 다시 요청하기까지 기다릴 시간
+     * @return 빌더 자신
+     */
+    public B circuitBreaker(int failureThreshold, Duration openDuration) {
+        this.circuitBreaker = new HttpCircuitBreaker(failureThreshold, openDuration);
+        return self();
+    }
+
+    /**
+     * ignoreErrors일 때 연속으로 건너뛸 수 있는 최대 페이지 수를 설정합니다. (기본값 10)
+     * 상대 서버가 계속 실패하면 마지막 페이지를 알 수 없어 무한히 다음 페이지를 요청하게 되므로, 이 수를 넘으면 Step을 실패시킵니다.
+     *
+     * @param maxConsecutiveSkippedPages 연속으로 건너뛸 수 있는 최대 페이지 수
+     * @return 빌더 자신
+     */
+    public B maxConsecutiveSkippedPages(int maxConsecutiveSkippedPages) {
+        this.maxConsecutiveSkippedPages = maxConsecutiveSkippedPages;
+        return self();
+    }
+
+    /**
+     * 같은 호스트로 동시에 보낼 수 있는 최대 요청 수를 설정합니다.
+     * 같은 호스트를 호출하는 모든 리더(파티션)가 제한을 공유하므로, 파티션을 늘려도 상대 서버의 부하는 이 값 이상으로 늘지 않습니다.
+     * 같은 레지스트리에서 같은 호스트에 다른 값을 설정한 리더가 있으면 build() 시 예외가 발생합니다.
+     *
+     * @param maxConcurrentRequestsPerHost 호스트별 최대 동시 요청 수
+     * @return 빌더 자신
+     */
+    public B maxConcurrentRequestsPerHost(int maxConcurrentRequestsPerHost) {
+        this.maxConcurrentRequestsPerHost = maxConcurrentRequestsPerHost;
+        return self();
+    }
+
+    /**
+     * 호스트별 리미터를 꺼낼 레지스트리를 설정합니다. (기본값: {@link HttpHostConcurrencyLimiter#shared()})
+     * 공유 레지스트리와 제한을 분리해야 할 때(예: 테스트, 다른 제한 값을 쓰는 Job) 별도 레지스트리를 Bean으로 등록하여 넘깁니다.
+     *
+     * @param hostLimiterRegistry 호스트별 리미터 레지스트리
+     * @return 빌더 자신
+     */
+    public B hostLimiterRegistry(HttpHostConcurrencyLimiter.Registry hostLimiterRegistry) {
+        this.hostLimiterRegistry = hostLimiterRegistry;
+        return self();
+    }
+
+    /**
+     * 공통 설정 값을 검증합니다. 각 빌더의 build()에서 먼저 호출합니다.
+     */
+    protected void validate() {
+        Assert.notNull(baseUrl, "Base URL은 필수입니다.");
+        Assert.notNull(responseType, "응답 타입(responseType)은 필수입니다.");
+        Assert.isTrue(size > 0, "size는 0보다 커야 합니다.");
+        Assert.isTrue(retryMaxAttempts > 0, "retry 최대 시도 횟수는 0보다 커야 합니다.");
+        Assert.isTrue(maxConsecutiveSkippedPages > 0, "maxConsecutiveSkippedPages는 0보다 커야 합니다.");
+        Assert.isTrue(maxConcurrentRequestsPerHost >= 0, "maxConcurrentRequestsPerHost는 0 이상이어야 합니다.");
+        Assert.notNull(hostLimiterRegistry, "hostLimiterRegistry는 필수입니다.");
+    }
+
+}
@@ -32,4 +32,14 @@ public class ArgumentProperties {
      */
     private Set<LocalDate> targetPaymentDates;
 
+    /**
+     * 일별 통계 저장 방식 (recovery: 엔티티 단위 저장, upsert: INSERT ... ON DUPLICATE KEY UPDATE)
+     */
+    private String statisticsWriteMode = "recovery";
+
+    /**
+     * 일별 통계 Reader의 날짜 구간 조회 방식 (or: 구간 조건을 OR로 묶은 한 번의 조회, union: 구간별 조회를 UNION ALL로 연결)
+     */
+    private String statisticsRangeScan = "or";
+
 }
@@ -0,0 +1,128 @@
+package com.example.springbatch.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * 커넥션 풀 크기에 맞춰 파티션(또는 멀티 스레드 Step의 작업)의 동시 실행 수를 제한하는 컴포넌트입니다.
+ * <p>
+ * 파티션 하나는 JpaCursorItemReader의 커넥션과 chunk 트랜잭션의 커넥션을 함께 사용하므로(connectionsPerTask),
+ * 스레드 풀을 커넥션 풀보다 크게 잡으면 스레드들이 getConnection에서 대기하고 그 사이 BATCH_STEP_EXECUTION 갱신까지 타임아웃이 납니다.
+ * 이 컴포넌트는 (최대 커넥션 수 - JobRepository용 여유분) / connectionsPerTask 만큼만 작업을 동시에 실행하도록 세마포어로 제한합니다.
+ * <p>
+ * {@link TaskDecorator}로 TaskExecutor에 등록하면 각 작업이 시작되기 전에 허가를 받고 끝나면 반납합니다.
+ * 허가를 기다린 시간은 `batch.connection.governor.wait` Timer로, 사용 중인 허가 수와 커넥션 풀 상태는 Gauge로 기록합니다.
+ * 지표는 컨텍스트에 등록된 MeterRegistry에 기록하며, 등록된 MeterRegistry가 없으면 Spring Batch와 같이 전역 레지스트리({@link Metrics#globalRegistry})를 사용합니다.
+ */
+@Slf4j
+@Service
+public class ConnectionPoolGovernor implements TaskDecorator {
+
+    private final DataSource dataSource;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final Timer waitTimer;
+
+    /**
+     * @param dataSource          애플리케이션 DataSource
+     * @param reservedConnections JobRepository 메타데이터 갱신용으로 남겨 둘 커넥션 수
+     * @param connectionsPerTask  작업 하나가 동시에 사용하는 커넥션 수
+     * @param meterRegistryProvider 지표를 기록할 MeterRegistry (없으면 전역 레지스트리)
+     */
+    public ConnectionPoolGovernor(
+            DataSource dataSource,
+            @Value("${batch.governor.reserved-connections:2}") int reservedConnections,
+            @Value("${batch.governor.connections-per-task:2}") int connectionsPerTask,
+            ObjectProvider<MeterRegistry> meterRegistryProvider
+    ) {
+        this.dataSource = dataSource;
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        int poolSize = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : Runtime.getRuntime().availableProcessors();
+        this.maxConcurrency = Math.max(1, (poolSize - reservedConnections) / connectionsPerTask);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.waitTimer = Timer.builder("batch.connection.governor.wait")
+                .description("Time spent waiting for a connection-pool permit before running a task")
+                .register(meterRegistry);
+        Gauge.builder("batch.connection.governor.permits.in-use", this, governor -> governor.maxConcurrency - governor.permits.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("batch.connection.governor.pool.idle", this, governor -> governor.poolStat(HikariPoolMXBean::getIdleConnections))
+                .register(meterRegistry);
+        Gauge.builder("batch.connection.governor.pool.awaiting", this, governor -> governor.poolStat(HikariPoolMXBean::getThreadsAwaitingConnection))
+                .register(meterRegistry);
+        log.info("Connection pool governor allows {} concurrent tasks (pool {}, reserved {}, per task {})",
+                maxConcurrency, poolSize, reservedConnections, connectionsPerTask);
+    }
+
+    /**
+     * 동시에 실행할 수 있는 최대 작업 수. 파티션 워커 수나 스레드 풀 크기를 정할 때 사용합니다.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 지금 바로 사용할 수 있는 허가 수.
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * 커넥션 풀에서 현재 사용 가능한(idle) 커넥션 수. Hikari가 아니거나 풀이 아직 시작되지 않았으면 -1을 반환합니다.
+     */
+    public int getIdleConnections() {
+        return (int) poolStat(HikariPoolMXBean::getIdleConnections);
+    }
+
+    public void acquire() throws InterruptedException {
+        long startedAt = System.nanoTime();
+        permits.acquire();
+        waitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * 작업 실행 전후로 허가를 받고 반납하도록 감쌉니다.
+     */
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return () -> {
+            try {
+                acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a connection-pool permit", e);
+            }
+            try {
+                runnable.run();
+            } finally {
+                release();
+            }
+        };
+    }
+
+    private double poolStat(ToIntFunction<HikariPoolMXBean> stat) {
+        if (dataSource instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+            return stat.applyAsInt(hikari.getHikariPoolMXBean());
+        }
+        return -1;
+    }
+
+}
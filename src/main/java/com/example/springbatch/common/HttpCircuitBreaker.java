@@ -0,0 +1,121 @@
+package com.example.springbatch.common;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+/**
+ * 외부 API 호출에 사용하는 간단한 서킷 브레이커입니다.
+ * <p>
+ * 연속으로 failureThreshold번 실패하면 회로를 열고(OPEN), openDuration 동안은 요청을 보내지 않고 기다립니다.
+ * 대기 시간이 지나면 한 번의 시험 요청(HALF_OPEN)을 허용하여, 성공하면 회로를 닫고(CLOSED) 실패하면 다시 엽니다.
+ * 배치에서는 요청을 거절하는 것보다 상대 서버가 회복될 때까지 기다렸다가 이어서 읽는 편이 유리하므로,
+ * 회로가 열려 있는 동안 {@link #acquire()}는 예외를 던지지 않고 대기합니다.
+ * 스레드를 재울 수 없는 비동기 호출에서는 {@link #tryAcquire()}가 반환한 시간만큼 타이머로 기다린 뒤 다시 확인합니다.
+ * <p>
+ * prefetch 스레드들이 함께 사용할 수 있도록 모든 상태 변경은 동기화됩니다.
+ */
+@Slf4j
+public class HttpCircuitBreaker {
+
+    private enum State {CLOSED, OPEN, HALF_OPEN}
+
+    // HALF_OPEN 상태에서 시험 요청의 결과를 기다리는 비동기 호출이 다시 확인하기까지의 간격
+    private static final long HALF_OPEN_POLL_NANOS = 100_000_000L;
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openUntil = 0;
+
+    /**
+     * @param failureThreshold 회로를 열기까지 허용할 연속 실패 횟수
+     * @param openDuration     회로가 열린 뒤 시험 요청을 보내기까지 기다릴 시간
+     */
+    public HttpCircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    /**
+     * 요청을 보내도 되는 상태가 될 때까지 기다립니다.
+     * HALF_OPEN 상태에서는 시험 요청 하나만 통과시키고, 나머지 요청은 그 결과가 나올 때까지 기다립니다.
+     * 시험 요청을 받은 호출자는 {@link #onSuccess()}, {@link #onFailure()}, {@link #releaseTrial()} 중 하나를 반드시 호출해야 합니다.
+     *
+     * @return 시험 요청을 받았으면 true
+     */
+    public synchronized boolean acquire() throws InterruptedException {
+        while (true) {
+            if (state == State.CLOSED) {
+                return false;
+            }
+            if (state == State.OPEN) {
+                long remaining = openUntil - System.nanoTime();
+                if (remaining <= 0) {
+                    state = State.HALF_OPEN;
+                    log.info("Circuit half-open, sending a trial request");
+                    return true;
+                }
+                wait(Math.max(1, remaining / 1_000_000));
+            } else {
+                wait();
+            }
+        }
+    }
+
+    /**
+     * 기다리지 않고 요청을 보내도 되는지 확인합니다.
+     * {@link #acquire()}와 같은 규칙으로 OPEN에서 HALF_OPEN으로 전환하며, HALF_OPEN 상태에서는 시험 요청 하나만 통과시킵니다.
+     *
+     * @return 요청을 보내도 되면 0, 아니면 다시 확인하기까지 기다릴 시간(나노초)
+     */
+    public synchronized long tryAcquire() {
+        if (state == State.CLOSED) {
+            return 0;
+        }
+        if (state == State.OPEN) {
+            long remaining = openUntil - System.nanoTime();
+            if (remaining <= 0) {
+                state = State.HALF_OPEN;
+                log.info("Circuit half-open, sending a trial request");
+                return 0;
+            }
+            return remaining;
+        }
+        return HALF_OPEN_POLL_NANOS;
+    }
+
+    /**
+     * 시험 요청을 보내지 못하고 포기했을 때(예: 인터럽트) 호출합니다.
+     * 성공도 실패도 아니므로 회로를 다시 OPEN으로 돌리되 대기 시간 없이, 기다리던 다음 요청이 바로 시험 요청이 되도록 합니다.
+     */
+    public synchronized void releaseTrial() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openUntil = System.nanoTime();
+            notifyAll();
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Circuit closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        notifyAll();
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openUntil = System.nanoTime() + openDurationNanos;
+            log.warn("Circuit opened after {} consecutive failures, waiting {} ms", consecutiveFailures, openDurationNanos / 1_000_000);
+        }
+        notifyAll();
+    }
+
+}
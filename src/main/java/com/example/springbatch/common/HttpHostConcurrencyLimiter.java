@@ -0,0 +1,104 @@
+package com.example.springbatch.common;
+
+import org.springframework.util.Assert;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 호스트별로 동시에 보낼 수 있는 HTTP 요청 수를 제한하는 리미터입니다.
+ * <p>
+ * 같은 호스트를 호출하는 리더가 여러 파티션(스레드)에 나뉘어 있어도 같은 {@link Registry}에서 꺼낸 하나의 세마포어를 공유하므로,
+ * 파티션 수와 prefetch 수에 관계없이 상대 서버로 향하는 동시 요청 수는 maxConcurrentRequests를 넘지 않습니다.
+ * 호스트는 (host, port)로 구분하며, 포트를 생략한 URL은 scheme의 기본 포트(http 80, https 443)로 봅니다.
+ */
+public final class HttpHostConcurrencyLimiter {
+
+    private static final Registry SHARED = new Registry();
+
+    private final String host;
+    private final int maxConcurrentRequests;
+    private final Semaphore permits;
+
+    private HttpHostConcurrencyLimiter(String host, int maxConcurrentRequests) {
+        this.host = host;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+    }
+
+    /**
+     * 애플리케이션 전체가 공유하는 레지스트리를 반환합니다. 빌더에 레지스트리를 지정하지 않으면 이 레지스트리를 사용합니다.
+     */
+    public static Registry shared() {
+        return SHARED;
+    }
+
+    /**
+     * URL에서 리미터를 구분할 호스트 키(host:port)를 만듭니다. 포트가 없으면 scheme의 기본 포트를 사용합니다.
+     */
+    static String hostKey(String url) {
+        URI uri = URI.create(url);
+        Assert.notNull(uri.getHost(), () -> "URL has no host: " + url);
+        int port = uri.getPort();
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+    public void acquire() throws InterruptedException {
+        permits.acquire();
+    }
+
+    /**
+     * 기다리지 않고 허가를 얻습니다. 스레드를 막을 수 없는 비동기 호출에서 사용하며, 얻지 못하면 잠시 뒤 다시 시도합니다.
+     *
+     * @return 허가를 얻었으면 true
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * 호스트별 리미터를 보관하는 레지스트리입니다.
+     * 같은 레지스트리에서 같은 호스트로 꺼낸 리미터는 하나의 세마포어를 공유합니다.
+     * 같은 호스트에 서로 다른 제한 값을 요청하면 어느 값이 적용될지 알 수 없으므로 예외를 던집니다.
+     * 테스트나 별도의 제한이 필요한 Job은 새 레지스트리를 만들어 빌더에 넘기면 공유 레지스트리와 분리됩니다.
+     */
+    public static final class Registry {
+
+        private final Map<String, HttpHostConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+        /**
+         * URL의 호스트에 대한 리미터를 반환합니다. 없으면 새로 생성합니다.
+         *
+         * @param url                   요청할 URL
+         * @param maxConcurrentRequests 호스트별 최대 동시 요청 수
+         * @return 호스트별 리미터
+         * @throws IllegalStateException 같은 호스트에 다른 제한 값이 이미 등록되어 있는 경우
+         */
+        public HttpHostConcurrencyLimiter forUrl(String url, int maxConcurrentRequests) {
+            String host = hostKey(url);
+            HttpHostConcurrencyLimiter limiter = limiters.computeIfAbsent(host, key -> new HttpHostConcurrencyLimiter(key, maxConcurrentRequests));
+            Assert.state(limiter.maxConcurrentRequests == maxConcurrentRequests,
+                    () -> "Conflicting concurrency limits for " + host + ": " + limiter.maxConcurrentRequests + " is already registered, but " + maxConcurrentRequests + " was requested");
+            return limiter;
+        }
+    }
+
+}
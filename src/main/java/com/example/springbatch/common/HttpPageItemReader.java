@@ -1,27 +1,67 @@
 package com.example.springbatch.common;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpMessageConverterExtractor;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * HTTP를 통해 외부 API로부터 페이징 처리된 데이터를 읽어오는 Spring Batch ItemReader 입니다.
  * <p>
- * 이 클래스는 {@link AbstractItemCountingItemStreamItemReader}를 상속받아,
+ * 이 클래스는 {@link AbstractHttpPageItemReader}를 통해 {@link org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader}를 상속받아,
  * Spring Batch가 재시작(restart) 시 상태를 올바르게 관리할 수 있도록 아이템 개수를 자동으로 카운팅합니다.
+ * 또한 현재 페이지 번호와 페이지 내 위치를 ExecutionContext에 저장하여, 재시작 시 이미 처리한 페이지를 다시 요청하지 않고
+ * 중단된 페이지 하나만 요청해서 이어서 읽습니다.
  * RestTemplate을 사용하여 지정된 URL로 GET 요청을 보내고, 페이징된 응답을 처리합니다.
+ * <p>
+ * prefetch가 1 이상이면 현재 페이지를 처리하는 동안 다음 페이지 요청들을 최대 prefetch개까지 미리 보내 둡니다.
+ * <p>
+ * 페이지 요청은 설정에 따라 지수 백오프(jitter 포함)로 재시도되고, 서킷 브레이커가 열려 있으면 상대 서버가 회복될 때까지 기다립니다.
+ * 재시도 후에도 실패하여 ignoreErrors로 건너뛴 페이지 번호는 dead letter 목록으로 ExecutionContext에 저장되고 Step 종료 시 로그로 남습니다.
+ * 이 목록을 빌더의 {@link HttpPageItemReaderBuilder#replayPages}로 넘긴 리더는 해당 페이지만 다시 요청합니다.
+ * 건너뛴 페이지와 재시작 정보의 관리 규칙은 {@link RxHttpPageItemReader}와 같으며 {@link AbstractHttpPageItemReader}에 있습니다.
+ * <p>
+ * cursorPaging 모드에서는 페이지 번호 대신 응답의 nextCursor를 다음 요청의 cursor 파라미터로 전달하며,
+ * 현재 페이지를 요청할 때 사용한 커서를 ExecutionContext에 저장하여 재시작 시 그 페이지부터 이어서 읽습니다.
+ * <p>
+ * pageRange가 설정되면 [startPage, endPage) 구간의 페이지만 요청하므로, {@link HttpPageRangePartitioner}가 나눈 구간마다
+ * 리더를 하나씩 두어 병렬로 읽을 수 있습니다. 이때 호스트별 동시 요청 수는 {@link HttpHostConcurrencyLimiter}로 제한합니다.
+ * <p>
+ * streaming 모드에서는 응답을 {@link PageResponse}로 한 번에 역직렬화하지 않고 {@link StreamingPageResponse}로 content 배열을
+ * 토큰 단위로 읽어 아이템을 하나씩 반환하므로, 페이지 크기를 크게 잡아도 페이지 전체가 메모리에 올라가지 않습니다.
+ * 응답은 요청한 페이지 순서대로 소비되며, 마지막 페이지(isLast 또는 빈 페이지)를 만나면 아직 진행 중인 요청은 취소합니다.
  *
  * @param <T> API 응답의 content 필드에 포함된 개별 아이템의 DTO(Data Transfer Object) 타입입니다.
  */
 
 @Slf4j
-public class HttpPageItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+public class HttpPageItemReader<T> extends AbstractHttpPageItemReader<T> {
 
 
     // 요청을 보낼 기본 URL
@@ -49,11 +89,6 @@ public class HttpPageItemReader<T> extends AbstractItemCountingItemStreamItemRea
      */
     private final ParameterizedTypeReference<PageResponse<T>> responseType;
 
-    // API 호출 중 오류가 발생했을 때 해당 오류를 무시하고 계속 진행할지 여부를 결정하는 플래그
-    // - true: 오류가 발생해도 Step을 실패시키지 않고, null을 반환하여 해당 페이지만 건너뜁니다.
-    // - false: 오류가 발생하면 예외를 던져 Step을 즉시 실패시킵니다. (기본값)
-    private final boolean ignoreErrors;
-
     // 현재 페이지에서 가져온 아이템들을 임시로 저장하는 리스트 (버퍼 역할)
     private List<T> items;
 
@@ -66,6 +101,56 @@ public class HttpPageItemReader<T> extends AbstractItemCountingItemStreamItemRea
     // API 응답에서 마지막 페이지인지 여부를 저장하는 플래그
     private boolean lastPage = false;
 
+    // 동시에 미리 보내 둘 최대 페이지 요청 수 (0이면 한 페이지씩 순차 요청)
+    private final int prefetch;
+
+    // 미리 보낸 페이지 요청을 실행할 스레드 풀 (외부에서 주입되지 않으면 open 시 prefetch 크기로 생성)
+    private final ExecutorService externalPrefetchExecutor;
+    private ExecutorService prefetchExecutor;
+
+    // 미리 보낸 페이지 요청들 (head가 page 번호의 응답)
+    private final Deque<PrefetchedPage<T>> inFlightPages = new ArrayDeque<>();
+
+    // 다음으로 미리 요청할 페이지 번호
+    private int nextRequestPage = 0;
+
+    // 응답을 토큰 단위로 읽으며 아이템을 하나씩 꺼낼지 여부
+    private final boolean streaming;
+
+    // streaming 모드에서 응답 본문을 읽을 ObjectMapper와 content 아이템 타입
+    private final ObjectMapper objectMapper;
+    private final JavaType itemType;
+
+    // streaming 모드에서 현재 읽고 있는 페이지 응답 (열려 있는 HTTP 응답)
+    private StreamingPageResponse<T> streamingPage;
+
+    // 페이지 요청 재시도 (maxAttempts가 1이면 재시도하지 않음)
+    private final RetryTemplate retryTemplate;
+
+    // 페이지 번호 대신 응답의 nextCursor를 따라가며 요청할지 여부
+    private final boolean cursorPaging;
+
+    // 다음 요청에 사용할 커서 (null이면 첫 페이지)
+    private String cursor;
+
+    // 현재 버퍼(items 또는 streamingPage)를 요청할 때 사용한 커서
+    private String bufferedCursor;
+
+    // 재시작 시 ExecutionContext에서 복원한 커서와 종료 여부
+    private String restoredCursor;
+    private boolean restoredCursorEnd;
+
+    // 요청할 페이지 구간 [startPage, endPage)
+    private final int startPage;
+    private final int endPage;
+
+    // 다시 요청할 페이지 번호 목록 (null이면 페이지 번호를 순서대로 요청). 설정되면 page는 이 목록의 위치입니다.
+    private final int[] replayPages;
+
+    // ExecutionContext에 저장될 재시작 정보의 키
+    private static final String CURSOR_KEY = "cursor";
+    private static final String CURSOR_END_KEY = "cursor.end";
+
     /**
      * 빌더 패턴을 통해 HttpPageItemReader의 인스턴스를 생성합니다.
      * 필수 파라미터들이 빌더를 통해 안전하게 주입됩니다.
@@ -73,11 +158,26 @@ public class HttpPageItemReader<T> extends AbstractItemCountingItemStreamItemRea
      * @param builder 필요한 모든 설정값이 담긴 HttpPageItemReaderBuilder 객체
      */
     HttpPageItemReader(HttpPageItemReaderBuilder<T> builder) {
+        super(builder);
         this.baseUrl = builder.baseUrl;
         this.restTemplate = builder.restTemplate;
         this.size = builder.size;
         this.responseType = builder.responseType;
-        this.ignoreErrors = builder.ignoreErrors;
+        this.prefetch = builder.prefetch;
+        this.externalPrefetchExecutor = builder.prefetchExecutor;
+        this.streaming = builder.streaming;
+        this.cursorPaging = builder.cursorPaging;
+        this.replayPages = builder.replayPages == null ? null : builder.replayPages.stream().mapToInt(Integer::intValue).toArray();
+        this.startPage = replayPages == null ? builder.startPage : 0;
+        this.endPage = replayPages == null ? builder.endPage : replayPages.length;
+        this.retryTemplate = createRetryTemplate(builder);
+        this.objectMapper = builder.objectMapper;
+        this.itemType = builder.streaming
+                ? objectMapper.getTypeFactory().constructType(((ParameterizedType) responseType.getType()).getActualTypeArguments()[0])
+                : null;
+        // ExecutionContext에 저장될 이 스트림의 이름을 설정합니다.
+        // Spring Batch가 이 이름을 키로 사용하여 상태(예: 읽은 아이템 개수, 페이지 번호)를 저장합니다.
+        setName(HttpPageItemReader.class.getSimpleName());
     }
 
     /**
@@ -89,59 +189,57 @@ public class HttpPageItemReader<T> extends AbstractItemCountingItemStreamItemRea
      */
     @Override
     protected T doRead() throws Exception {
+        if (streaming) {
+            return doReadStreaming();
+        }
         // 아이템 버퍼가 비어있으면 새로운 페이지를 가져온다.
         // 이 로직을 반복문으로 감싸서, 오류 발생 시 다음 페이지를 계속 시도할 수 있도록 한다.
         while (items == null || currentItemIndex >= items.size()) {
-            // 이미 마지막 페이지까지 모두 처리했다면, 더 이상 읽을 데이터가 없으므로 null을 반환한다.
-            if (lastPage) {
+            // 이미 마지막 페이지(또는 담당 구간의 끝)까지 모두 처리했다면, 더 이상 읽을 데이터가 없으므로 null을 반환한다.
+            if (lastPage || page >= endPage) {
+                cancelPrefetchedPages();
                 return null;
             }
 
-            // API 요청을 위한 URI를 생성한다. (e.g., http://localhost:8080/api/members?page=0&size=10)
-            UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(baseUrl)
-                    .queryParam("page", page)
-                    .queryParam("size", size);
-
             PageResponse<T> pageResponse;
             try {
-                // 3. RestTemplate을 사용하여 API를 호출한다.
-                ResponseEntity<PageResponse<T>> response = restTemplate.exchange(
-                        uriBuilder.toUriString(),
-                        HttpMethod.GET,
-                        null, // 요청 본문(body)은 없음
-                        responseType
-                );
-                pageResponse = response.getBody();
-
+                // 3. API를 호출한다. prefetch 모드이면 미리 보낸 요청의 응답을 순서대로 꺼낸다.
+                pageResponse = prefetch > 0 ? takePrefetchedPage() : fetchPage(page);
             } catch (Exception ex) {
                 // API 호출 중 예외가 발생했을 때의 처리
-                if (ignoreErrors) {
-                    // 오류 무시 옵션이 켜져 있으면, 경고 로그를 남기고 현재 페이지를 건너뛴다.
-                    log.error("API call for page {} failed and will be skipped. Reason: {}", page, ex.getMessage());
-                    this.page++; // 다음 페이지 번호로 이동
-                    continue;    // while문의 다음 반복을 실행하여 다음 페이지를 가져오도록 시도
-                } else {
-                    // 오류 무시 옵션이 꺼져 있으면, 예외를 던져 Job을 즉시 실패시킨다.
-                    log.error("API call for page {} failed.", page, ex);
-                    throw new RuntimeException("Failed to fetch page " + page, ex);
-                }
+                // 오류 무시 옵션이 켜져 있으면 현재 페이지를 dead letter로 남기고 건너뛰며, 꺼져 있으면 예외를 던져 Job을 즉시 실패시킨다.
+                skipFailedPage(page, ex, !cursorPaging);
+                this.page++; // 다음 페이지 번호로 이동
+                continue;    // while문의 다음 반복을 실행하여 다음 페이지를 가져오도록 시도
             }
 
             // 정상적으로 API를 호출한 후, 다음 요청을 위해 페이지 번호를 1 증가시킨다.
             this.page++;
+            onPageFetched();
+            if (cursorPaging) {
+                // 커서 모드에서는 응답의 nextCursor가 다음 요청의 커서가 된다.
+                this.bufferedCursor = cursor;
+                this.cursor = pageResponse == null ? null : pageResponse.getNextCursor();
+            }
 
             // 4. 응답 본문이 비어있는지 확인한다.
             if (pageResponse == null || pageResponse.getContent() == null || pageResponse.getContent().isEmpty()) {
                 // 응답이 비어있으면 마지막 페이지로 간주하고 읽기를 종료한다.
-                this.lastPage = true;
+                this.lastPage = isLastPage(true, false);
+                if (lastPage) {
+                    cancelPrefetchedPages();
+                }
                 // 현재 페이지가 비었으므로, while문을 다시 실행하여 lastPage 조건을 확인하고 종료하도록 한다.
                 continue;
             }
 
             // 5. 가져온 데이터를 내부 버퍼(items)에 저장하고 상태를 업데이트한다.
             this.items = pageResponse.getContent();
-            this.lastPage = pageResponse.isLast();
+            this.lastPage = isLastPage(false, pageResponse.isLast());
             this.currentItemIndex = 0;
+            if (lastPage) {
+                cancelPrefetchedPages();
+            }
         }
 
         // 6. 버퍼에서 다음 아이템을 하나씩 꺼내 반환한다.
@@ -150,19 +248,422 @@ public class HttpPageItemReader<T> extends AbstractItemCountingItemStreamItemRea
         return nextItem;
     }
 
+    /**
+     * streaming 모드에서 다음 아이템을 읽습니다.
+     * 열려 있는 페이지 응답에서 아이템을 하나씩 꺼내고, 다 읽으면 응답을 닫은 뒤 다음 페이지를 요청합니다.
+     * 오류 처리는 {@link #doRead()}와 동일하게 ignoreErrors 설정을 따르며, 페이지 중간에 오류가 나면 그 페이지의 나머지 아이템을 건너뜁니다.
+     *
+     * @return 다음 아이템 객체. 더 이상 읽을 아이템이 없으면 null을 반환합니다.
+     */
+    private T doReadStreaming() throws Exception {
+        while (true) {
+            if (streamingPage == null) {
+                if (lastPage || page >= endPage) {
+                    return null;
+                }
+                try {
+                    this.streamingPage = openStreamingPage(page);
+                } catch (Exception ex) {
+                    skipFailedPage(page, ex, !cursorPaging);
+                    this.page++;
+                    continue;
+                }
+                this.page++;
+                onPageFetched();
+                this.currentItemIndex = 0;
+                this.bufferedCursor = cursor;
+            }
+
+            T nextItem;
+            try {
+                nextItem = streamingPage.next();
+            } catch (IOException ex) {
+                closeStreamingPage();
+                // 페이지 중간에서 실패하면 나머지 아이템을 건너뛰고, 페이지 번호를 dead letter로 남긴다.
+                skipFailedPage(page - 1, ex, !cursorPaging);
+                continue;
+            }
+            if (nextItem != null) {
+                currentItemIndex++;
+                return nextItem;
+            }
+
+            // 빈 페이지이거나 last가 true이면(커서 모드에서는 다음 커서가 없으면) 읽기를 종료한다.
+            if (cursorPaging) {
+                this.cursor = streamingPage.getNextCursor();
+            }
+            this.lastPage = isLastPage(currentItemIndex == 0, streamingPage.isLast());
+            closeStreamingPage();
+        }
+    }
+
+    /**
+     * 응답을 받은 페이지가 마지막 페이지인지 판단합니다.
+     * 빈 페이지이거나 last가 true이면(커서 모드에서는 다음 커서가 없으면) 마지막 페이지입니다.
+     * dead letter 페이지를 다시 요청하는 중이면 페이지들이 서로 이어지지 않으므로, 지정한 페이지를 모두 요청할 때까지 계속 읽습니다.
+     */
+    private boolean isLastPage(boolean empty, boolean last) {
+        return replayPages == null && (empty || last || (cursorPaging && cursor == null));
+    }
+
+    /**
+     * 페이지 위치를 요청할 페이지 번호로 바꿉니다. dead letter 페이지를 다시 요청하는 중이 아니면 위치가 곧 페이지 번호입니다.
+     */
+    @Override
+    protected int pageNumber(int page) {
+        return replayPages == null ? page : replayPages[page];
+    }
+
+    /**
+     * 재시도와 서킷 브레이커를 적용하여 페이지 요청을 실행합니다.
+     * 서킷 브레이커가 열려 있으면 시험 요청이 허용될 때까지 기다린 뒤 요청합니다.
+     * 호스트별 동시 요청 수 제한은 요청 한 번(재시도 대기 시간 제외)에만 적용되며, streaming 모드에서는 응답 헤더를 받을 때까지만 적용됩니다.
+     *
+     * @param page     요청할 페이지 번호
+     * @param callback 실제 요청
+     * @return 요청 결과
+     */
+    private <R, E extends Exception> R executeWithRetry(int page, RetryCallback<R, E> callback) throws E {
+        return retryTemplate.execute(context -> {
+            boolean trial = false;
+            if (circuitBreaker != null) {
+                try {
+                    trial = circuitBreaker.acquire();
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted while waiting for the circuit breaker");
+                }
+            }
+            // 시험 요청을 받은 뒤 결과를 기록하지 못하고 끝나면(인터럽트) 다른 요청이 시험 요청을 보낼 수 있도록 돌려줍니다.
+            boolean recorded = false;
+            try {
+                if (context.getRetryCount() > 0) {
+                    log.warn("Retrying page {} (attempt {}). Reason: {}", page, context.getRetryCount() + 1, context.getLastThrowable().getMessage());
+                }
+                if (hostLimiter != null) {
+                    try {
+                        hostLimiter.acquire();
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Interrupted while waiting for a request permit to " + hostLimiter.getHost());
+                    }
+                }
+                try {
+                    R result = callback.doWithRetry(context);
+                    recordOutcome(null);
+                    recorded = true;
+                    return result;
+                } catch (Exception ex) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        // 요청이 취소된 것이므로 상대 서버의 실패로 기록하지 않고, 재시도하지 않습니다.
+                        CancellationException cancelled = new CancellationException("Request for page " + page + " was interrupted");
+                        cancelled.initCause(ex);
+                        throw cancelled;
+                    }
+                    recordOutcome(ex);
+                    recorded = true;
+                    throw ex;
+                } finally {
+                    if (hostLimiter != null) {
+                        hostLimiter.release();
+                    }
+                }
+            } finally {
+                if (trial && !recorded) {
+                    circuitBreaker.releaseTrial();
+                }
+            }
+        });
+    }
+
+    /**
+     * 빌더 설정으로 페이지 요청용 RetryTemplate을 생성합니다.
+     * 4xx 응답은 재시도하지 않고({@link #isRetryable}), 인터럽트로 취소된 요청도 재시도하지 않습니다.
+     * 백오프 간격에는 무작위 값을 곱하여 여러 스레드가 동시에 재시도하지 않도록 합니다.
+     */
+    private static RetryTemplate createRetryTemplate(HttpPageItemReaderBuilder<?> builder) {
+        RetryTemplate retryTemplate = new RetryTemplate();
+        retryTemplate.setRetryPolicy(new SimpleRetryPolicy(builder.retryMaxAttempts, Map.of(
+                Exception.class, true,
+                HttpClientErrorException.class, false,
+                HttpClientErrorException.TooManyRequests.class, true,
+                CancellationException.class, false
+        ), true));
+        ExponentialRandomBackOffPolicy backOffPolicy = new ExponentialRandomBackOffPolicy();
+        backOffPolicy.setInitialInterval(builder.retryInitialBackoff.toMillis());
+        backOffPolicy.setMaxInterval(builder.retryMaxBackoff.toMillis());
+        backOffPolicy.setMultiplier(2.0);
+        retryTemplate.setBackOffPolicy(backOffPolicy);
+        return retryTemplate;
+    }
+
+    /**
+     * 지정한 페이지를 요청하고, 응답 본문을 열어 둔 채로 {@link StreamingPageResponse}를 생성합니다.
+     * RestTemplate의 요청 팩토리와 에러 핸들러를 그대로 사용하므로 일반 요청과 같은 커넥션 설정과 오류 판정을 따릅니다.
+     *
+     * @param page 조회할 페이지 번호
+     * @return 열려 있는 페이지 응답
+     */
+    private StreamingPageResponse<T> openStreamingPage(int page) throws IOException {
+        return executeWithRetry(page, context -> requestStreamingPage(page));
+    }
+
+    private StreamingPageResponse<T> requestStreamingPage(int page) throws IOException {
+        URI uri = URI.create(pageUri(page));
+        ClientHttpRequest request = restTemplate.getRequestFactory().createRequest(uri, HttpMethod.GET);
+        request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+        ClientHttpResponse response = request.execute();
+        try {
+            if (restTemplate.getErrorHandler().hasError(response)) {
+                restTemplate.getErrorHandler().handleError(uri, HttpMethod.GET, response);
+            }
+            return new StreamingPageResponse<>(response, objectMapper, itemType);
+        } catch (IOException | RuntimeException ex) {
+            response.close();
+            throw ex;
+        }
+    }
+
+    private void closeStreamingPage() {
+        if (streamingPage == null) {
+            return;
+        }
+        try {
+            streamingPage.close();
+        } catch (IOException ex) {
+            log.warn("Failed to close page response. Reason: {}", ex.getMessage());
+        }
+        this.streamingPage = null;
+    }
+
+    /**
+     * API 요청을 위한 URI를 생성한다. (e.g., http://localhost:8080/api/members?page=0&size=10)
+     * 커서 모드에서는 페이지 번호 대신 현재 커서를 전달한다. (e.g., http://localhost:8080/api/members/cursor?size=10&cursor=aWQ6MTA)
+     */
+    private String pageUri(int page) {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(baseUrl);
+        if (!cursorPaging) {
+            uriBuilder.queryParam("page", pageNumber(page));
+        }
+        uriBuilder.queryParam("size", size);
+        if (cursorPaging && cursor != null) {
+            uriBuilder.queryParam("cursor", cursor);
+        }
+        return uriBuilder.toUriString();
+    }
+
+    /**
+     * 지정한 페이지를 API로 조회합니다.
+     *
+     * @param page 조회할 페이지 번호
+     * @return 페이지 응답 (본문이 없으면 null)
+     */
+    private PageResponse<T> fetchPage(int page) {
+        return fetchPage(page, null);
+    }
+
+    /**
+     * 지정한 페이지를 API로 조회합니다.
+     * prefetch 요청이면 응답을 받는 즉시 prefetchedPage에 등록하여, 요청을 취소할 때 본문을 읽는 중이라도 응답을 닫아 중단할 수 있도록 합니다.
+     *
+     * @param page           조회할 페이지 번호
+     * @param prefetchedPage 이 요청을 취소할 수 있는 prefetch 요청 (순차 요청이면 null)
+     * @return 페이지 응답 (본문이 없으면 null)
+     */
+    private PageResponse<T> fetchPage(int page, PrefetchedPage<T> prefetchedPage) {
+        HttpMessageConverterExtractor<PageResponse<T>> bodyExtractor =
+                new HttpMessageConverterExtractor<>(responseType.getType(), restTemplate.getMessageConverters());
+        return executeWithRetry(page, context -> restTemplate.execute(
+                pageUri(page),
+                HttpMethod.GET,
+                restTemplate.acceptHeaderRequestCallback(PageResponse.class),
+                response -> {
+                    if (prefetchedPage != null) {
+                        prefetchedPage.attach(response);
+                    }
+                    return bodyExtractor.extractData(response);
+                }
+        ));
+    }
+
+    /**
+     * 진행 중인 요청이 prefetch개가 되도록 다음 페이지들을 미리 요청한 뒤, 현재 페이지(page)의 응답을 기다려 반환합니다.
+     * 요청 중 발생한 예외는 원래 예외로 풀어서 던지므로, 순차 요청과 동일하게 ignoreErrors 처리를 받습니다.
+     *
+     * @return 현재 페이지의 응답
+     */
+    private PageResponse<T> takePrefetchedPage() throws Exception {
+        while (inFlightPages.size() < prefetch && nextRequestPage < endPage) {
+            int requestPage = nextRequestPage++;
+            PrefetchedPage<T> prefetchedPage = new PrefetchedPage<>();
+            prefetchedPage.future = prefetchExecutor.submit(() -> fetchPage(requestPage, prefetchedPage));
+            inFlightPages.addLast(prefetchedPage);
+        }
+        try {
+            return inFlightPages.pollFirst().future.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof Exception cause ? cause : ex;
+        }
+    }
+
+    /**
+     * 마지막 페이지 이후로 미리 보낸 요청들을 취소합니다. 이미 응답을 받은 요청의 결과는 버려집니다.
+     * 요청 스레드를 인터럽트하여 재시도 대기와 동시 요청 제한 대기를 멈추고, 본문을 읽는 중인 응답은 닫아서 중단합니다.
+     */
+    private void cancelPrefetchedPages() {
+        inFlightPages.forEach(PrefetchedPage::cancel);
+        inFlightPages.clear();
+    }
+
+    /**
+     * 미리 보낸 페이지 요청 하나입니다.
+     * {@link Future#cancel(boolean)}은 요청 스레드를 인터럽트할 뿐 소켓에서 응답을 기다리는 요청은 멈추지 못하므로,
+     * 응답을 받은 뒤에는 응답을 닫아 본문 읽기를 중단합니다.
+     */
+    private static class PrefetchedPage<T> {
+
+        private Future<PageResponse<T>> future;
+        private ClientHttpResponse response;
+        private boolean cancelled = false;
+
+        private synchronized void attach(ClientHttpResponse response) {
+            if (cancelled) {
+                response.close();
+                throw new IllegalStateException("Prefetched page request was cancelled");
+            }
+            this.response = response;
+        }
+
+        private synchronized void cancel() {
+            this.cancelled = true;
+            future.cancel(true);
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
     /**
      * ItemStream이 열릴 때(보통 Step 시작 시) 호출됩니다.
      * 리더의 상태를 초기화하여 재시작 시에도 일관된 동작을 보장합니다.
      */
     @Override
     protected void doOpen() {
-        this.page = 0;
+        this.page = startPage;
         this.currentItemIndex = 0;
         this.items = null;
         this.lastPage = false;
-        // ExecutionContext에 저장될 이 스트림의 이름을 설정합니다.
-        // Spring Batch가 이 이름을 키로 사용하여 상태(예: 읽은 아이템 개수)를 저장합니다.
-        setName(HttpPageItemReader.class.getSimpleName());
+        this.nextRequestPage = startPage;
+        this.cursor = null;
+        this.bufferedCursor = null;
+        if (prefetch > 0) {
+            this.prefetchExecutor = externalPrefetchExecutor != null
+                    ? externalPrefetchExecutor
+                    : Executors.newFixedThreadPool(prefetch, runnable -> {
+                        Thread thread = new Thread(runnable, "http-page-prefetch");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+
+    /**
+     * 커서 모드의 재시작 정보를 복원합니다.
+     * 부모 클래스의 open()이 doOpen()으로 상태를 초기화하기 전에 호출되므로, 복원한 커서는 jumpToItem()에서 적용합니다.
+     */
+    @Override
+    protected void restoreCheckpoint(ExecutionContext executionContext) {
+        this.restoredCursor = (String) executionContext.get(getExecutionContextKey(CURSOR_KEY));
+        this.restoredCursorEnd = executionContext.containsKey(getExecutionContextKey(CURSOR_END_KEY));
+    }
+
+    /**
+     * 재시작 시 이미 읽은 아이템 수(itemIndex)만큼 건너뜁니다.
+     * 기본 구현은 doRead()를 itemIndex번 호출하여 처리한 페이지를 모두 다시 요청하므로,
+     * 저장된 페이지 번호가 있으면 그 페이지 하나만 요청하고 저장된 위치로 바로 이동합니다.
+     *
+     * @param itemIndex 이미 읽은 아이템 수
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        if (restoredPage < 0) {
+            super.jumpToItem(itemIndex);
+            return;
+        }
+        log.info("Resuming from page {} at item index {}", restoredPage, restoredItemIndex);
+        this.page = restoredPage;
+        if (cursorPaging) {
+            this.cursor = restoredCursor;
+            if (restoredCursorEnd) {
+                // 마지막 페이지까지 모두 처리한 뒤 저장된 상태이므로 더 요청할 페이지가 없다.
+                this.lastPage = true;
+                return;
+            }
+        }
+        if (streaming) {
+            this.streamingPage = openStreamingPage(page);
+            this.page++;
+            this.bufferedCursor = cursor;
+            // 이미 처리한 아이템은 역직렬화만 하고 버립니다.
+            while (currentItemIndex < restoredItemIndex && streamingPage.next() != null) {
+                currentItemIndex++;
+            }
+            return;
+        }
+        PageResponse<T> pageResponse = fetchPage(page);
+        this.page++;
+        this.nextRequestPage = page;
+        if (cursorPaging) {
+            this.bufferedCursor = cursor;
+            this.cursor = pageResponse == null ? null : pageResponse.getNextCursor();
+        }
+        if (pageResponse == null || pageResponse.getContent() == null || pageResponse.getContent().isEmpty()) {
+            this.lastPage = isLastPage(true, false);
+            return;
+        }
+        this.items = pageResponse.getContent();
+        this.lastPage = isLastPage(false, pageResponse.isLast());
+        this.currentItemIndex = restoredItemIndex;
+    }
+
+    @Override
+    protected boolean hasRemainingItems() {
+        return streamingPage != null || (items != null && currentItemIndex < items.size());
+    }
+
+    @Override
+    protected int currentPagePosition() {
+        return page - 1;
+    }
+
+    @Override
+    protected int nextPagePosition() {
+        return page;
+    }
+
+    @Override
+    protected int itemIndexInPage() {
+        return currentItemIndex;
+    }
+
+    /**
+     * 커서 모드에서는 페이지 위치와 함께 재시작 시 요청할 커서를 저장합니다.
+     * 남은 아이템이 있으면 현재 페이지를 요청한 커서를, 없으면 다음 페이지 커서를 저장합니다.
+     */
+    @Override
+    protected void saveCheckpoint(ExecutionContext executionContext, boolean hasRemainingItems) {
+        if (!cursorPaging) {
+            return;
+        }
+        String checkpointCursor = hasRemainingItems ? bufferedCursor : cursor;
+        if (checkpointCursor != null) {
+            executionContext.putString(getExecutionContextKey(CURSOR_KEY), checkpointCursor);
+        } else {
+            executionContext.remove(getExecutionContextKey(CURSOR_KEY));
+        }
+        if (lastPage && !hasRemainingItems) {
+            executionContext.putString(getExecutionContextKey(CURSOR_END_KEY), "true");
+        }
     }
 
     /**
@@ -171,10 +672,18 @@ public class HttpPageItemReader<T> extends AbstractItemCountingItemStreamItemRea
      */
     @Override
     protected void doClose() throws Exception {
+        cancelPrefetchedPages();
+        closeStreamingPage();
+        if (prefetchExecutor != null && prefetchExecutor != externalPrefetchExecutor) {
+            prefetchExecutor.shutdownNow();
+        }
+        this.prefetchExecutor = null;
         this.items = null;
         this.page = 0;
         this.currentItemIndex = 0;
         this.lastPage = false;
+        this.cursor = null;
+        this.bufferedCursor = null;
     }
 
 }
@@ -1,58 +1,141 @@
 package com.example.springbatch.common;
 
-import org.springframework.core.ParameterizedTypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.util.Assert;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
 /**
  * HttpPageItemReader를 생성하기 위한 빌더 클래스.
+ * 요청 대상과 오류 처리 설정은 {@link AbstractHttpPageItemReaderBuilder}를 따릅니다.
  *
  * @param <T> 아이템 타입
  */
-public class HttpPageItemReaderBuilder<T> {
-    protected String baseUrl;
+public class HttpPageItemReaderBuilder<T> extends AbstractHttpPageItemReaderBuilder<T, HttpPageItemReaderBuilder<T>> {
     protected RestTemplate restTemplate;
-    protected int size = 10;
-    protected ParameterizedTypeReference<PageResponse<T>> responseType;
-    protected boolean ignoreErrors = false; // 기본값은 false
+    protected int prefetch = 0; // 기본값은 순차 요청
+    protected ExecutorService prefetchExecutor;
+    protected boolean streaming = false; // 기본값은 페이지 단위 역직렬화
+    protected ObjectMapper objectMapper;
+    protected boolean cursorPaging = false; // 기본값은 페이지 번호 기반 요청
+    protected int startPage = 0;
+    protected int endPage = Integer.MAX_VALUE;
+    protected List<Integer> replayPages; // 기본값은 페이지 번호 순서대로 요청
 
-    public HttpPageItemReaderBuilder<T> baseUrl(String baseUrl) {
-        this.baseUrl = baseUrl;
+    public HttpPageItemReaderBuilder<T> restTemplate(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
         return this;
     }
 
-    public HttpPageItemReaderBuilder<T> restTemplate(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    /**
+     * 현재 페이지를 처리하는 동안 미리 보내 둘 다음 페이지 요청 수를 설정합니다.
+     * 응답 지연이 긴 API에서 페이지마다 왕복 시간을 기다리지 않도록 합니다.
+     * 마지막 페이지 이후로 최대 prefetch개의 요청이 추가로 전송될 수 있습니다.
+     *
+     * @param prefetch 미리 보낼 페이지 요청 수 (0이면 순차 요청)
+     * @return 빌더 자신
+     */
+    public HttpPageItemReaderBuilder<T> prefetch(int prefetch) {
+        this.prefetch = prefetch;
+        return this;
+    }
+
+    /**
+     * 미리 보낸 페이지 요청을 실행할 스레드 풀을 설정합니다.
+     * 설정하지 않으면 리더가 prefetch 크기의 스레드 풀을 만들어 사용하고 close 시 종료합니다.
+     * 외부에서 주입한 스레드 풀은 리더가 종료하지 않지만, 리더가 닫히거나 마지막 페이지에 도달하면 남은 요청은 인터럽트하여 취소합니다.
+     *
+     * @param prefetchExecutor 페이지 요청용 스레드 풀
+     * @return 빌더 자신
+     */
+    public HttpPageItemReaderBuilder<T> prefetchExecutor(ExecutorService prefetchExecutor) {
+        this.prefetchExecutor = prefetchExecutor;
+        return this;
+    }
+
+    /**
+     * 응답 본문을 토큰 단위로 읽어 content 배열의 아이템을 하나씩 반환하는 streaming 모드를 설정합니다.
+     * 페이지 전체를 리스트로 역직렬화하지 않으므로 size를 수천~수만 단위로 늘려도 힙 사용량이 늘지 않습니다.
+     * prefetch와 함께 사용할 수 없습니다.
+     *
+     * @param streaming true로 설정하면 streaming 모드로 읽습니다.
+     * @return 빌더 자신
+     */
+    public HttpPageItemReaderBuilder<T> streaming(boolean streaming) {
+        this.streaming = streaming;
         return this;
     }
 
-    public HttpPageItemReaderBuilder<T> size(int size) { // size -> pageSize로 변경
-        this.size = size;
+    /**
+     * streaming 모드에서 응답 본문을 읽을 ObjectMapper를 설정합니다.
+     * 설정하지 않으면 Spring 기본 설정(Jackson2ObjectMapperBuilder)으로 생성한 ObjectMapper를 사용합니다.
+     *
+     * @param objectMapper 응답 역직렬화에 사용할 ObjectMapper
+     * @return 빌더 자신
+     */
+    public HttpPageItemReaderBuilder<T> objectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
         return this;
     }
 
-    public HttpPageItemReaderBuilder<T> responseType(ParameterizedTypeReference<PageResponse<T>> responseType) {
-        this.responseType = responseType;
+    /**
+     * 페이지 번호 대신 응답의 nextCursor를 따라가며 요청하는 커서 모드를 설정합니다.
+     * 첫 요청은 cursor 없이 보내고, 이후에는 직전 응답의 nextCursor를 cursor 파라미터로 전달합니다. nextCursor가 없으면 마지막 페이지입니다.
+     * 다음 페이지 요청이 직전 응답에 의존하므로 prefetch와 함께 사용할 수 없으며, 실패한 페이지를 건너뛸 수 없어 ignoreErrors가 적용되지 않습니다.
+     *
+     * @param cursorPaging true로 설정하면 커서 모드로 요청합니다.
+     * @return 빌더 자신
+     */
+    public HttpPageItemReaderBuilder<T> cursorPaging(boolean cursorPaging) {
+        this.cursorPaging = cursorPaging;
+        return this;
+    }
+
+    /**
+     * 요청할 페이지 구간 [startPage, endPage)를 설정합니다.
+     * {@link HttpPageRangePartitioner}가 StepExecutionContext에 담아준 startPage, endPage를 그대로 넘기면 파티션별로 구간이 나뉜 리더가 됩니다.
+     *
+     * @param startPage 시작 페이지 (포함)
+     * @param endPage   종료 페이지 (미포함)
+     * @return 빌더 자신
+     */
+    public HttpPageItemReaderBuilder<T> pageRange(int startPage, int endPage) {
+        this.startPage = startPage;
+        this.endPage = endPage;
         return this;
     }
 
     /**
-     * API 호출 중 오류 발생 시 예외를 무시할지 여부를 설정합니다.
+     * 지정한 페이지 번호만 순서대로 다시 요청하도록 설정합니다.
+     * 이전 실행에서 건너뛴 dead letter 페이지(ExecutionContext의 `dead.letter.pages` 또는 Step 종료 로그)를 넘겨 해당 페이지만 재처리할 때 사용합니다.
+     * 페이지가 서로 이어지지 않으므로 빈 페이지나 last 응답을 받아도 지정한 페이지를 모두 요청하며, 다시 실패한 페이지는 새 dead letter 목록에 남습니다.
      *
-     * @param ignoreErrors true로 설정하면 오류 발생 시 해당 페이지만 건너뛰고 배치를 계속 진행합니다.
-     *                     false(기본값)로 설정하면 예외를 던져 배치를 실패시킵니다.
+     * @param replayPages 다시 요청할 페이지 번호 목록
      * @return 빌더 자신
      */
-    public HttpPageItemReaderBuilder<T> ignoreErrors(boolean ignoreErrors) {
-        this.ignoreErrors = ignoreErrors;
+    public HttpPageItemReaderBuilder<T> replayPages(Collection<Integer> replayPages) {
+        this.replayPages = List.copyOf(replayPages);
         return this;
     }
 
     public HttpPageItemReader<T> build() {
-        Assert.notNull(baseUrl, "Base URL은 필수입니다.");
+        validate();
         Assert.notNull(restTemplate, "RestTemplate은 필수입니다.");
-        Assert.notNull(responseType, "응답 타입(responseType)은 필수입니다.");
-        Assert.isTrue(size > 0, "size는 0보다 커야 합니다.");
+        Assert.isTrue(prefetch >= 0, "prefetch는 0 이상이어야 합니다.");
+        Assert.isTrue(!streaming || prefetch == 0, "streaming 모드는 prefetch와 함께 사용할 수 없습니다.");
+        Assert.isTrue(!cursorPaging || prefetch == 0, "커서 모드는 prefetch와 함께 사용할 수 없습니다.");
+        Assert.isTrue(startPage >= 0 && startPage <= endPage, "pageRange는 0 <= startPage <= endPage 이어야 합니다.");
+        Assert.isTrue(!cursorPaging || (startPage == 0 && endPage == Integer.MAX_VALUE), "커서 모드는 pageRange와 함께 사용할 수 없습니다.");
+        Assert.isTrue(replayPages == null || replayPages.stream().allMatch(replayPage -> replayPage >= 0), "replayPages는 0 이상이어야 합니다.");
+        Assert.isTrue(replayPages == null || !cursorPaging, "커서 모드는 replayPages와 함께 사용할 수 없습니다.");
+        Assert.isTrue(replayPages == null || (startPage == 0 && endPage == Integer.MAX_VALUE), "replayPages는 pageRange와 함께 사용할 수 없습니다.");
+        if (streaming && objectMapper == null) {
+            this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        }
 
         return new HttpPageItemReader<>(this);
     }
@@ -0,0 +1,77 @@
+package com.example.springbatch.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 페이지 번호 범위를 기준으로 파티션을 생성하는 Partitioner 구현체입니다.
+ * 첫 페이지(page=0)를 한 번 요청하여 전체 페이지 수(totalPages)를 알아낸 뒤, 이를 gridSize개의 연속된 [startPage, endPage) 구간으로 나눕니다.
+ * 생성된 각 파티션은 `startPage`, `endPage`라는 키로 구간을 StepExecutionContext에 저장하며,
+ * 워커 스텝의 {@link HttpPageItemReader}는 이 값을 pageRange로 받아 자신의 구간만 요청합니다.
+ */
+@Slf4j
+public class HttpPageRangePartitioner implements Partitioner {
+
+    // 파티션 번호를 식별하기 위한 키
+    private static final String PARTITION_KEY = "partition";
+    // StepExecutionContext에 저장될 시작 페이지(포함)의 키
+    private static final String EXECUTION_CONTEXT_KEY_START_PAGE = "startPage";
+    // StepExecutionContext에 저장될 종료 페이지(미포함)의 키
+    private static final String EXECUTION_CONTEXT_KEY_END_PAGE = "endPage";
+
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    private final int size;
+
+    /**
+     * HttpPageRangePartitioner 생성자
+     *
+     * @param restTemplate 첫 페이지 요청에 사용할 RestTemplate
+     * @param baseUrl      요청할 API의 기본 URL
+     * @param size         페이지 크기 (워커 리더의 size와 같아야 합니다.)
+     */
+    public HttpPageRangePartitioner(RestTemplate restTemplate, String baseUrl, int size) {
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl;
+        this.size = size;
+    }
+
+    /**
+     * gridSize개 이하의 파티션을 생성합니다.
+     * 전체 페이지 수가 gridSize보다 적으면 페이지 수만큼의 파티션을 생성합니다.
+     *
+     * @param gridSize 파티션의 개수
+     * @return 각 파티션의 이름과 ExecutionContext를 담은 Map
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        String uri = UriComponentsBuilder.fromHttpUrl(baseUrl)
+                .queryParam("page", 0)
+                .queryParam("size", size)
+                .toUriString();
+        // 전체 페이지 수만 필요하므로 content 타입은 지정하지 않습니다.
+        PageResponse<?> firstPage = restTemplate.getForObject(uri, PageResponse.class);
+        int totalPages = firstPage == null ? 0 : firstPage.getTotalPages();
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        int partitionCount = Math.max(1, Math.min(gridSize, totalPages));
+        for (int i = 0; i < partitionCount; i++) {
+            int startPage = (int) ((long) totalPages * i / partitionCount);
+            int endPage = (int) ((long) totalPages * (i + 1) / partitionCount);
+            ExecutionContext context = new ExecutionContext();
+            context.putInt(EXECUTION_CONTEXT_KEY_START_PAGE, startPage);
+            context.putInt(EXECUTION_CONTEXT_KEY_END_PAGE, endPage);
+            partitions.put(PARTITION_KEY + i, context);
+
+            log.info("Created partition {} with pages [{}, {}) of {}", PARTITION_KEY + i, startPage, endPage, totalPages);
+        }
+        return partitions;
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.example.springbatch.common;
+
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * long 키마다 long 합계를 누적하는 open addressing(선형 탐사) 해시 테이블입니다.
+ * <p>
+ * HashMap&lt;Long, BigDecimal&gt;은 항목마다 Entry, Long, BigDecimal 객체를 만들어 항목 하나에 100바이트 가까이 사용하지만,
+ * 이 테이블은 키와 합계를 두 개의 long 배열에 그대로 저장하므로 항목 하나에 16바이트(부하율 0.5 기준 32바이트)만 사용하고 GC 대상 객체도 만들지 않습니다.
+ * <p>
+ * 0은 빈 슬롯을 나타내므로 키로 사용할 수 없습니다. 합계가 long 범위를 넘으면 {@link ArithmeticException}을 던집니다.
+ * 크기는 생성할 때 고정되며, 사용하는 쪽에서 {@link #isFull()}을 확인하여 내용을 비우거나(spill) 다른 테이블로 옮겨야 합니다.
+ */
+class LongSumHashTable {
+
+    private static final long EMPTY = 0L;
+
+    private final long[] keys;
+    private final long[] sums;
+    private final int mask;
+    private final int maxSize;
+    private int size = 0;
+
+    /**
+     * @param capacity 슬롯 수 (2의 거듭제곱으로 올림). 항목 수가 슬롯 수의 절반을 넘으면 가득 찬 것으로 봅니다.
+     */
+    LongSumHashTable(int capacity) {
+        Assert.isTrue(capacity >= 2 && capacity <= (1 << 30), "capacity must be between 2 and 2^30.");
+        int slots = Integer.highestOneBit(capacity - 1) << 1;
+        this.keys = new long[slots];
+        this.sums = new long[slots];
+        this.mask = slots - 1;
+        this.maxSize = slots / 2;
+    }
+
+    /**
+     * key의 합계에 amount를 더합니다.
+     */
+    void add(long key, long amount) {
+        Assert.isTrue(key != EMPTY, "key must not be 0.");
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                sums[slot] = Math.addExact(sums[slot], amount);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        Assert.state(size < maxSize, "LongSumHashTable is full.");
+        keys[slot] = key;
+        sums[slot] = amount;
+        size++;
+    }
+
+    /**
+     * key가 이미 있거나 빈자리가 있으면 합계에 amount를 더하고 true를 반환합니다.
+     * 가득 찬 테이블에 없는 key이면 아무것도 하지 않고 false를 반환하므로, 사용하는 쪽에서 테이블을 비운 뒤 다시 더합니다.
+     * 가득 찬 테이블에서도 이미 있는 key에는 계속 더할 수 있습니다.
+     */
+    boolean tryAdd(long key, long amount) {
+        Assert.isTrue(key != EMPTY, "key must not be 0.");
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                sums[slot] = Math.addExact(sums[slot], amount);
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size >= maxSize) {
+            return false;
+        }
+        keys[slot] = key;
+        sums[slot] = amount;
+        size++;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size >= maxSize;
+    }
+
+    /**
+     * 저장된 키를 오름차순으로 정렬하여 반환합니다. 합계는 {@link #get(long)}으로 조회합니다.
+     */
+    long[] sortedKeys() {
+        long[] result = new long[size];
+        int index = 0;
+        for (long key : keys) {
+            if (key != EMPTY) {
+                result[index++] = key;
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * key의 합계를 반환합니다. 없는 키이면 0을 반환합니다.
+     */
+    long get(long key) {
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return sums[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0L;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(sums, 0L);
+        size = 0;
+    }
+
+    /**
+     * key가 처음 탐사할 슬롯을 반환합니다. (테스트에서 같은 슬롯에 충돌하는 키를 고를 수 있도록 package-private)
+     */
+    int slotOf(long key) {
+        // 상위 비트(사업자 id)와 하위 비트(날짜)가 고르게 섞이도록 murmur3의 fmix64를 사용합니다.
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+
+}
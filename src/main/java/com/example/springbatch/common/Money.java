@@ -0,0 +1,105 @@
+package com.example.springbatch.common;
+
+import org.springframework.util.Assert;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 소수점 2자리(DECIMAL(38, 2)) 금액을 최소 단위(원 단위 x 100)의 long으로 표현하는 불변 값 타입입니다.
+ * <p>
+ * BigDecimal은 더하기 한 번에 객체를 새로 만들고 scale을 맞추는 비용이 들며, equals가 scale까지 비교하므로
+ * 400.0과 400.00을 다른 값으로 판단합니다. Money는 항상 같은 scale의 long으로 저장하므로 합산과 비교가 long 연산이고,
+ * equals도 금액만 비교합니다. 연산 결과가 long 범위를 넘으면 {@link ArithmeticException}을 던집니다.
+ * <p>
+ * BigDecimal과의 변환은 DB와 주고받는 경계에서만 사용합니다.
+ * <ul>
+ *     <li>JPA: {@link com.example.springbatch.common.entity.MoneyConverter}가 DECIMAL 컬럼과 변환합니다.</li>
+ *     <li>JDBC 조회: {@link #valueOf(BigDecimal)}가 있으므로 BeanPropertyRowMapper(DefaultConversionService)가 BigDecimal 컬럼을 Money로 변환합니다.</li>
+ *     <li>JDBC 저장: 파라미터로 {@link #toBigDecimal()}을 전달합니다.</li>
+ * </ul>
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    // 최소 단위 자릿수 (DECIMAL(38, 2))
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0L);
+
+    private static final long MINOR_UNITS_PER_MAJOR_UNIT = 100L;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    /**
+     * 최소 단위 금액으로 Money를 생성합니다. (예: 12345 -> 123.45)
+     */
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0L ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * 원 단위 금액으로 Money를 생성합니다. (예: 400 -> 400.00)
+     */
+    public static Money of(long amount) {
+        return ofMinorUnits(Math.multiplyExact(amount, MINOR_UNITS_PER_MAJOR_UNIT));
+    }
+
+    /**
+     * BigDecimal 금액으로 Money를 생성합니다. scale은 무관하며(400.0 == 400.00), 소수점 3자리 이하에 0이 아닌 값이 있거나 long 범위를 넘으면 {@link ArithmeticException}을 던집니다.
+     */
+    public static Money valueOf(BigDecimal amount) {
+        return ofMinorUnits(toMinorUnits(amount));
+    }
+
+    /**
+     * BigDecimal 금액을 Money 객체 없이 최소 단위 long으로 변환합니다. 집계처럼 금액을 바로 long으로 누적하는 곳에서 사용합니다.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        Assert.notNull(amount, "amount must not be null.");
+        return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Money other && minorUnits == other.minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+}
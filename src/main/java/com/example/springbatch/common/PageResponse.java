@@ -14,5 +14,7 @@ public class PageResponse<T> {
     private long totalElements;
     private boolean first;
     private boolean last;
+    // 커서 기반 API에서 다음 페이지를 요청할 때 사용할 커서 (마지막 페이지이거나 페이지 번호 기반 API이면 null)
+    private String nextCursor;
 
 }
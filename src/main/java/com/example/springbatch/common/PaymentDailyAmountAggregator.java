@@ -0,0 +1,269 @@
+package com.example.springbatch.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * 결제 원천 데이터를 (사업자번호, 결제일자)별로 합산하는 JVM 내 해시 집계기입니다.
+ * <p>
+ * DB의 GROUP BY 대신 배치 노드에서 합산하기 위한 것으로, 사업자번호는 정수 id로 바꾸고 결제일자는 epoch day로 바꿔
+ * `(사업자 id << 32) | epoch day` 하나의 long 키로 만들며, 금액은 {@link Money}와 같은 최소 단위(원 단위 x 100)의 long으로 누적합니다.
+ * 합산은 {@link LongSumHashTable}에서 객체 생성 없이 이루어지고, 합계가 long 범위를 넘으면 {@link ArithmeticException}을 던집니다.
+ * <p>
+ * 서로 다른 키의 수가 메모리 예산(memoryBudgetBytes)을 넘으면 테이블의 내용을 키 순서로 정렬해 임시 파일로 내보내고(spill) 테이블을 비웁니다.
+ * 입력이 끝나면 남은 테이블과 임시 파일들을 키 순서로 병합하면서 같은 키의 합계를 더해 결과를 만듭니다.
+ * 사업자번호 사전(사업자번호, 상호명)은 메모리에 유지하므로, 메모리 예산은 서로 다른 (사업자, 날짜) 조합의 수에만 적용됩니다.
+ * <p>
+ * 임시 파일은 {@link #close()}에서 삭제합니다.
+ */
+@Slf4j
+public class PaymentDailyAmountAggregator implements Closeable {
+
+    // 슬롯 하나가 사용하는 메모리 (키 8바이트 + 합계 8바이트)
+    private static final int BYTES_PER_SLOT = 16;
+
+    private final LongSumHashTable table;
+    private final Path spillDirectory;
+    private final List<Path> spillFiles = new ArrayList<>();
+
+    private final Map<String, Integer> businessIds = new HashMap<>();
+    private final List<String> businessRegistrationNumbers = new ArrayList<>();
+    private final List<String> corpNames = new ArrayList<>();
+
+    private long rows = 0;
+    private boolean finished = false;
+    private MergingIterator mergingIterator;
+
+    /**
+     * @param memoryBudgetBytes 해시 테이블에 사용할 최대 메모리. 넘으면 임시 파일로 내보냅니다.
+     * @param spillDirectory    임시 파일을 만들 디렉터리
+     */
+    public PaymentDailyAmountAggregator(long memoryBudgetBytes, Path spillDirectory) {
+        Assert.isTrue(memoryBudgetBytes >= BYTES_PER_SLOT * 2L, "memoryBudgetBytes is too small.");
+        this.table = new LongSumHashTable((int) Math.min(1L << 30, Long.highestOneBit(memoryBudgetBytes / BYTES_PER_SLOT)));
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * 결제 한 건을 합산합니다.
+     * 테이블이 가득 차도 이미 있는 키는 그대로 더하고, 새 키가 들어갈 자리가 없을 때만 테이블을 내보냅니다.
+     */
+    public void add(String corpName, String businessRegistrationNumber, LocalDate paymentDate, BigDecimal amount) {
+        Assert.state(!finished, "Aggregation already finished.");
+        long key = toKey(businessIdOf(businessRegistrationNumber, corpName), paymentDate);
+        long minorUnits = Money.toMinorUnits(amount);
+        if (!table.tryAdd(key, minorUnits)) {
+            spill();
+            table.add(key, minorUnits);
+        }
+        rows++;
+    }
+
+    /**
+     * 입력을 마치고 (사업자번호, 결제일자)별 합계를 키 순서(사업자번호가 처음 등장한 순서, 결제일자)로 반환합니다.
+     * 한 번만 호출할 수 있습니다.
+     */
+    public Iterator<PaymentStatisticsDailySum> results() {
+        Assert.state(!finished, "Aggregation already finished.");
+        finished = true;
+        log.info("Aggregated {} rows into {} keys in memory with {} spill files", rows, table.size(), spillFiles.size());
+        if (spillFiles.isEmpty()) {
+            long[] keys = table.sortedKeys();
+            return new Iterator<>() {
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < keys.length;
+                }
+
+                @Override
+                public PaymentStatisticsDailySum next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    long key = keys[index++];
+                    return toDailySum(key, table.get(key));
+                }
+            };
+        }
+        // 남은 테이블도 파일로 내보낸 뒤 모든 파일을 병합합니다.
+        if (table.size() > 0) {
+            spill();
+        }
+        mergingIterator = new MergingIterator();
+        return mergingIterator;
+    }
+
+    @Override
+    public void close() {
+        if (mergingIterator != null) {
+            mergingIterator.close();
+        }
+        for (Path spillFile : spillFiles) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                log.warn("Cannot delete spill file {}", spillFile, e);
+            }
+        }
+        spillFiles.clear();
+    }
+
+    private int businessIdOf(String businessRegistrationNumber, String corpName) {
+        Integer id = businessIds.get(businessRegistrationNumber);
+        if (id == null) {
+            // 0은 빈 슬롯이므로 id는 1부터 시작합니다.
+            id = businessRegistrationNumbers.size() + 1;
+            businessIds.put(businessRegistrationNumber, id);
+            businessRegistrationNumbers.add(businessRegistrationNumber);
+            corpNames.add(corpName);
+        } else {
+            // 같은 사업자번호의 상호명이 바뀌었다면 마지막에 읽은 상호명을 사용합니다.
+            corpNames.set(id - 1, corpName);
+        }
+        return id;
+    }
+
+    private static long toKey(int businessId, LocalDate paymentDate) {
+        return ((long) businessId << 32) | (paymentDate.toEpochDay() & 0xFFFFFFFFL);
+    }
+
+    private PaymentStatisticsDailySum toDailySum(long key, long minorUnits) {
+        int businessId = (int) (key >>> 32);
+        PaymentStatisticsDailySum dailySum = new PaymentStatisticsDailySum();
+        dailySum.setBusinessRegistrationNumber(businessRegistrationNumbers.get(businessId - 1));
+        dailySum.setCorpName(corpNames.get(businessId - 1));
+        dailySum.setPaymentDate(LocalDate.ofEpochDay((int) key));
+        dailySum.setTotalAmount(Money.ofMinorUnits(minorUnits));
+        return dailySum;
+    }
+
+    /**
+     * 테이블의 내용을 키 순서로 임시 파일에 쓰고 테이블을 비웁니다.
+     */
+    private void spill() {
+        try {
+            Path spillFile = Files.createTempFile(spillDirectory, "payment-daily-amount-", ".spill");
+            spillFiles.add(spillFile);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile), 1 << 16))) {
+                for (long key : table.sortedKeys()) {
+                    out.writeLong(key);
+                    out.writeLong(table.get(key));
+                }
+            }
+            log.info("Spilled {} keys to {}", table.size(), spillFile);
+            table.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill aggregation table", e);
+        }
+    }
+
+    /**
+     * 키 순서로 정렬된 임시 파일 하나를 차례로 읽는 커서입니다.
+     */
+    private static class SpillCursor {
+
+        private final DataInputStream in;
+        private long key;
+        private long sum;
+
+        private SpillCursor(Path spillFile) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile), 1 << 16));
+        }
+
+        /**
+         * 다음 항목으로 이동합니다. 파일 끝이면 파일을 닫고 false를 반환합니다.
+         */
+        private boolean advance() throws IOException {
+            try {
+                key = in.readLong();
+                sum = in.readLong();
+                return true;
+            } catch (EOFException e) {
+                in.close();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 임시 파일들을 키 순서로 병합하면서 같은 키의 합계를 더하는 Iterator입니다.
+     */
+    private class MergingIterator implements Iterator<PaymentStatisticsDailySum> {
+
+        private final PriorityQueue<SpillCursor> cursors = new PriorityQueue<>(Comparator.comparingLong(cursor -> cursor.key));
+
+        private MergingIterator() {
+            try {
+                for (Path spillFile : spillFiles) {
+                    SpillCursor cursor = new SpillCursor(spillFile);
+                    if (cursor.advance()) {
+                        cursors.add(cursor);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open spill files", e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public PaymentStatisticsDailySum next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long key = cursors.peek().key;
+            long sum = 0L;
+            try {
+                while (!cursors.isEmpty() && cursors.peek().key == key) {
+                    SpillCursor cursor = cursors.poll();
+                    sum = Math.addExact(sum, cursor.sum);
+                    if (cursor.advance()) {
+                        cursors.add(cursor);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read spill file", e);
+            }
+            return toDailySum(key, sum);
+        }
+
+        private void close() {
+            for (SpillCursor cursor : cursors) {
+                try {
+                    cursor.in.close();
+                } catch (IOException e) {
+                    log.warn("Cannot close spill file", e);
+                }
+            }
+            cursors.clear();
+        }
+    }
+
+}
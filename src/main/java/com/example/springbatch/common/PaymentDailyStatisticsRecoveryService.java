@@ -34,13 +34,23 @@ public class PaymentDailyStatisticsRecoveryService {
                 .map(PaymentStatisticsDailySum::toUniqueKey)
                 .collect(Collectors.toList());
 
-        // 2. 추출된 고유 키 리스트를 사용하여 DB에서 이미 존재하는 모든 데이터를 한 번의 쿼리로 조회합니다.
-        List<PaymentDailyStatistics> existingEntities = paymentDailyStatisticsRepository.findBy(uniqueKeys);
+        // 2. 추출된 고유 키 리스트로 기존 금액만 먼저 조회합니다.
+        //    (사업자번호, 결제일자, 금액) 커버링 인덱스만 읽고 엔티티를 영속성 컨텍스트에 올리지 않으므로,
+        //    재실행처럼 대부분의 금액이 그대로인 chunk에서는 엔티티를 거의 조회하지 않습니다.
+        Map<PaymentDailyStatisticsUniqueKey, Money> existingAmounts = paymentDailyStatisticsRepository.findAmountsBy(uniqueKeys);
 
-        // 3. 조회된 기존 엔티티 리스트를 Map으로 변환합니다.
+        // 3. 금액이 달라진 키의 엔티티만 조회하여 Map으로 변환합니다.
         //    Key는 고유 키(PaymentDailyStatisticsUniqueKey), Value는 엔티티(PaymentDailyStatistics)입니다.
         //    Map을 사용하면 이후 단계에서 각 DTO에 해당하는 기존 엔티티를 O(1) 시간 복잡도로 빠르게 찾을 수 있습니다.
-        Map<PaymentDailyStatisticsUniqueKey, PaymentDailyStatistics> existingEntitiesMap = existingEntities.stream()
+        //    Money는 scale과 무관하게 금액만 비교하므로 400.0과 400.00을 변경으로 판단하지 않습니다.
+        List<PaymentDailyStatisticsUniqueKey> changedKeys = targets.stream()
+                .filter(target -> {
+                    Money existingAmount = existingAmounts.get(target.toUniqueKey());
+                    return existingAmount != null && !existingAmount.equals(target.getTotalAmount());
+                })
+                .map(PaymentStatisticsDailySum::toUniqueKey)
+                .collect(Collectors.toList());
+        Map<PaymentDailyStatisticsUniqueKey, PaymentDailyStatistics> changedEntitiesMap = paymentDailyStatisticsRepository.findBy(changedKeys).stream()
                 .collect(Collectors.toMap(
                         PaymentDailyStatistics::toUniqueKey,
                         entity -> entity
@@ -52,20 +62,20 @@ public class PaymentDailyStatisticsRecoveryService {
         // 5. Reader가 읽어온 모든 DTO(targets)를 하나씩 순회하며 신규/업데이트 대상을 판별합니다.
         for (PaymentStatisticsDailySum target : targets) {
             PaymentDailyStatisticsUniqueKey uniqueKey = target.toUniqueKey();
-            // 3번에서 만든 Map을 사용하여 현재 DTO에 해당하는 기존 엔티티가 있는지 확인합니다.
-            PaymentDailyStatistics existingEntity = existingEntitiesMap.get(uniqueKey);
+            // 2번에서 조회한 금액으로 현재 DTO에 해당하는 기존 데이터가 있는지 확인합니다.
+            Money existingAmount = existingAmounts.get(uniqueKey);
 
-            if (existingEntity != null) {
-                // 5-1. [업데이트] 기존 엔티티가 존재하는 경우
+            if (existingAmount != null) {
+                // 5-1. [업데이트] 기존 데이터가 존재하는 경우
                 //      DB에 저장된 금액과 새로 계산된 금액이 다른지 비교합니다.
-                if (!existingEntity.getAmount().equals(target.getTotalAmount())) {
-                    // 금액이 다르면, 기존 엔티티의 금액을 새로운 값으로 업데이트합니다.
+                if (!existingAmount.equals(target.getTotalAmount())) {
+                    // 금액이 다르면, 3번에서 조회한 기존 엔티티의 금액을 새로운 값으로 업데이트합니다.
                     // 이 변경 사항은 트랜잭션이 커밋될 때 JPA의 Dirty Checking에 의해 자동으로 UPDATE 쿼리가 실행됩니다.
                     System.out.println("기존 데이터와 amount 불일치(변경 대상): 사업자번호=" + target.getBusinessRegistrationNumber() +
                             ", 결제일자=" + target.getPaymentDate() +
-                            ", 기존 amount=" + existingEntity.getAmount() +
+                            ", 기존 amount=" + existingAmount +
                             ", 새 amount=" + target.getTotalAmount());
-                    existingEntity.updateAmount(target.getTotalAmount());
+                    changedEntitiesMap.get(uniqueKey).updateAmount(target.getTotalAmount());
                 } else {
                     // 금액이 같으면, 아무 작업도 하지 않습니다.
                     System.out.println("기존 데이터와 amount 일치 (변경 없음): 사업자번호=" + target.getBusinessRegistrationNumber() +
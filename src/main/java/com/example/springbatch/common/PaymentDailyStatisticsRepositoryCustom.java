@@ -4,6 +4,7 @@ import com.example.springbatch.common.entity.PaymentDailyStatistics;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 public interface PaymentDailyStatisticsRepositoryCustom {
 
@@ -11,6 +12,8 @@ public interface PaymentDailyStatisticsRepositoryCustom {
 
     List<PaymentDailyStatistics> findBy(List<PaymentDailyStatisticsUniqueKey> keys);
 
+    Map<PaymentDailyStatisticsUniqueKey, Money> findAmountsBy(List<PaymentDailyStatisticsUniqueKey> keys);
+
     List<PaymentDailyStatistics> findByPaymentDate(LocalDate paymentDate);
 
 }
@@ -1,12 +1,18 @@
 package com.example.springbatch.common;
 
 import com.example.springbatch.common.entity.PaymentDailyStatistics;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.example.springbatch.common.entity.QPaymentDailyStatistics.paymentDailyStatistics;
 
@@ -25,26 +31,47 @@ public class PaymentDailyStatisticsRepositoryImpl extends QuerydslCustomReposito
                 .execute();
     }
 
+    /**
+     * (사업자번호, 결제일자) 쌍이 정확히 일치하는 통계만 조회합니다.
+     * 사업자번호 IN (...) AND 결제일자 IN (...)으로 조회하면 요청하지 않은 조합(사업자번호 x 결제일자)까지 모두 조회되므로,
+     * 키마다 (사업자번호 = ? AND 결제일자 = ?) 조건을 만들어 OR로 묶습니다. MySQL은 이를 유니크 인덱스의 범위 스캔으로 처리합니다.
+     */
     @Override
     public List<PaymentDailyStatistics> findBy(List<PaymentDailyStatisticsUniqueKey> keys) {
         if (keys == null || keys.isEmpty()) {
             return Collections.emptyList();
         }
 
-        List<String> businessRegistrationNumbers = keys.stream()
-                .map(PaymentDailyStatisticsUniqueKey::getBusinessRegistrationNumber)
-                .toList();
-
-        List<LocalDate> paymentDates = keys.stream()
-                .map(PaymentDailyStatisticsUniqueKey::getPaymentDate)
-                .toList();
-
         return selectFrom(paymentDailyStatistics)
-                .where(paymentDailyStatistics.businessRegistrationNumber.in(businessRegistrationNumbers))
-                .where(paymentDailyStatistics.paymentDate.in(paymentDates))
+                .where(matchesAnyKey(keys))
                 .fetch();
     }
 
+    /**
+     * (사업자번호, 결제일자) 쌍이 정확히 일치하는 통계의 금액만 조회합니다.
+     * 엔티티를 영속성 컨텍스트에 올리지 않고, 조회 결과를 스트림으로 읽으면서 바로 Map으로 모읍니다.
+     * 조회 컬럼이 (사업자번호, 결제일자, 금액)뿐이므로 커버링 인덱스(idx_payment_daily_statistics_key_amount)만으로 처리됩니다.
+     */
+    @Override
+    public Map<PaymentDailyStatisticsUniqueKey, Money> findAmountsBy(List<PaymentDailyStatisticsUniqueKey> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        try (Stream<Tuple> rows = select(paymentDailyStatistics.businessRegistrationNumber, paymentDailyStatistics.paymentDate, paymentDailyStatistics.amount)
+                .from(paymentDailyStatistics)
+                .where(matchesAnyKey(keys))
+                .stream()) {
+            return rows.collect(Collectors.toMap(
+                    row -> new PaymentDailyStatisticsUniqueKey(
+                            row.get(paymentDailyStatistics.businessRegistrationNumber),
+                            row.get(paymentDailyStatistics.paymentDate)
+                    ),
+                    row -> row.get(paymentDailyStatistics.amount)
+            ));
+        }
+    }
+
     @Override
     public List<PaymentDailyStatistics> findByPaymentDate(LocalDate paymentDate) {
         return selectFrom(paymentDailyStatistics)
@@ -52,4 +79,13 @@ public class PaymentDailyStatisticsRepositoryImpl extends QuerydslCustomReposito
                 .fetch();
     }
 
+    private BooleanBuilder matchesAnyKey(List<PaymentDailyStatisticsUniqueKey> keys) {
+        BooleanBuilder builder = new BooleanBuilder();
+        for (PaymentDailyStatisticsUniqueKey key : new LinkedHashSet<>(keys)) {
+            builder.or(paymentDailyStatistics.businessRegistrationNumber.eq(key.getBusinessRegistrationNumber())
+                    .and(paymentDailyStatistics.paymentDate.eq(key.getPaymentDate())));
+        }
+        return builder;
+    }
+
 }
@@ -0,0 +1,103 @@
+package com.example.springbatch.common;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PaymentDailyStatisticsRecoveryService}와 같은 결과를 엔티티 단위가 아닌 SQL 한 문장으로 저장하는 서비스입니다.
+ * <p>
+ * RecoveryService는 기존 엔티티를 조회한 뒤 변경된 엔티티마다 Dirty Checking으로 UPDATE를 한 번씩, 신규 엔티티마다 INSERT를 한 번씩 실행합니다.
+ * (IDENTITY 전략이라 Hibernate가 INSERT를 배치로 묶지 못합니다) 그래서 chunk 하나에 최대 2N개의 문장이 실행됩니다.
+ * 이 서비스는 기존 값을 조회하지 않고 chunk의 모든 대상을 유니크 키(사업자번호, 결제일자) 기준의 multi-row
+ * `INSERT ... ON DUPLICATE KEY UPDATE` 한 문장으로 저장합니다.
+ * <p>
+ * 건수는 그 한 문장의 영향받은 행 수로 계산합니다. Connector/J의 기본 설정(useAffectedRows=false)에서 MySQL은
+ * 신규 행과 값이 같은 행을 1, 값이 바뀐 행을 2로 계산하므로, `영향받은 행 수 - 대상 건수`가 금액을 변경한 건수입니다.
+ * 신규와 변경 없음은 같은 값으로 보고되어 구분하지 않습니다.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class PaymentDailyStatisticsUpsertService {
+
+    private static final String UPSERT_SQL_PREFIX = """
+            INSERT INTO payment_daily_statistics
+                (corp_name, business_registration_number, amount, payment_date, created_at, updated_at)
+            VALUES
+            """;
+    private static final String UPSERT_SQL_VALUES = "(?, ?, ?, ?, NOW(), NOW())";
+    // updated_at은 amount보다 먼저 갱신해야 변경 전 amount와 비교할 수 있습니다. (MySQL은 SET 절을 왼쪽부터 평가)
+    private static final String UPSERT_SQL_SUFFIX = """
+
+            ON DUPLICATE KEY UPDATE
+                updated_at = IF(amount <=> VALUES(amount), updated_at, NOW()),
+                amount = VALUES(amount)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 일일 결제 합산 데이터(targets)를 신규이면 INSERT, 금액이 바뀌었으면 UPDATE 합니다.
+     *
+     * @param targets Reader가 조회한 일일 결제 합산 DTO 리스트
+     * @return 저장 대상 건수와 금액을 변경한 건수
+     */
+    @Transactional
+    public Result upsert(List<PaymentStatisticsDailySum> targets) {
+        if (targets.isEmpty()) {
+            return new Result(0, 0);
+        }
+
+        // 같은 키가 여러 번 들어오면 마지막 값을 사용합니다.
+        Map<PaymentDailyStatisticsUniqueKey, PaymentStatisticsDailySum> distinctTargets = new LinkedHashMap<>();
+        targets.forEach(target -> distinctTargets.put(target.toUniqueKey(), target));
+
+        int rows = distinctTargets.size();
+        int affectedRows = jdbcTemplate.update(upsertSql(rows), upsertParameters(distinctTargets.values()));
+        int updated = affectedRows - rows;
+        if (updated < 0 || updated > rows) {
+            throw new IllegalStateException("Upsert of " + rows + " rows affected " + affectedRows
+                    + " rows; the JDBC URL must not set useAffectedRows=true");
+        }
+
+        Result result = new Result(rows, updated);
+        log.info("일일 결제 통계 저장: {}", result);
+        return result;
+    }
+
+    private String upsertSql(int rows) {
+        return UPSERT_SQL_PREFIX + String.join(",\n", Collections.nCopies(rows, UPSERT_SQL_VALUES)) + UPSERT_SQL_SUFFIX;
+    }
+
+    private Object[] upsertParameters(Collection<PaymentStatisticsDailySum> targets) {
+        List<Object> parameters = new ArrayList<>();
+        for (PaymentStatisticsDailySum target : targets) {
+            parameters.add(target.getCorpName());
+            parameters.add(target.getBusinessRegistrationNumber());
+            parameters.add(target.getTotalAmount().toBigDecimal());
+            parameters.add(Date.valueOf(target.getPaymentDate()));
+        }
+        return parameters.toArray();
+    }
+
+    /**
+     * upsert 결과 건수
+     *
+     * @param written 저장한 건수 (키가 중복된 대상은 한 건으로 셉니다)
+     * @param updated 기존 금액을 변경한 건수 (나머지는 신규 저장이거나 금액이 같아 변경하지 않은 건입니다)
+     */
+    public record Result(int written, int updated) {
+    }
+
+}
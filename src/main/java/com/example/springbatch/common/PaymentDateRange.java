@@ -0,0 +1,68 @@
+package com.example.springbatch.common;
+
+import org.springframework.util.Assert;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 연속된 결제 일자 구간 [startDate, endDate]입니다.
+ * <p>
+ * 재처리 대상 날짜가 수백 개일 때 날짜마다 조건을 만들어 OR로 묶으면 MySQL 옵티마이저가 인덱스 범위 스캔을 포기하고 전체 스캔을 선택할 수 있습니다.
+ * {@link #coalesce(Collection)}로 이웃한 날짜를 하나의 구간으로 합치면 조건의 수가 연속 구간의 수로 줄어듭니다.
+ *
+ * @param startDate 구간 시작일 (포함)
+ * @param endDate   구간 종료일 (포함)
+ */
+public record PaymentDateRange(LocalDate startDate, LocalDate endDate) {
+
+    public PaymentDateRange {
+        Assert.isTrue(!startDate.isAfter(endDate), "startDate must not be after endDate.");
+    }
+
+    /**
+     * 날짜 목록을 정렬한 뒤 하루 간격으로 이어지는 날짜들을 하나의 구간으로 합칩니다.
+     *
+     * @param dates 결제 일자 목록 (중복 허용)
+     * @return 시작일 오름차순으로 정렬된 서로 겹치지 않는 구간 목록
+     */
+    public static List<PaymentDateRange> coalesce(Collection<LocalDate> dates) {
+        List<LocalDate> sorted = dates.stream().distinct().sorted().toList();
+        List<PaymentDateRange> ranges = new ArrayList<>();
+        LocalDate start = null;
+        LocalDate end = null;
+        for (LocalDate date : sorted) {
+            if (start != null && date.equals(end.plusDays(1))) {
+                end = date;
+                continue;
+            }
+            if (start != null) {
+                ranges.add(new PaymentDateRange(start, end));
+            }
+            start = date;
+            end = date;
+        }
+        if (start != null) {
+            ranges.add(new PaymentDateRange(start, end));
+        }
+        return ranges;
+    }
+
+    /**
+     * 구간 시작 시각 (포함). `payment_date_time >= ?` 조건에 바인딩합니다.
+     */
+    public LocalDateTime startDateTime() {
+        return startDate.atStartOfDay();
+    }
+
+    /**
+     * 구간 종료일 다음 날의 시작 시각 (미포함). `payment_date_time < ?` 조건에 바인딩합니다.
+     */
+    public LocalDateTime endDateTimeExclusive() {
+        return endDate.plusDays(1).atStartOfDay();
+    }
+
+}
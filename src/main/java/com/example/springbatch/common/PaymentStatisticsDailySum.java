@@ -5,7 +5,6 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
 /**
@@ -16,7 +15,8 @@ import java.time.LocalDate;
 @NoArgsConstructor
 public class PaymentStatisticsDailySum {
 
-    private BigDecimal totalAmount;
+    // SUM(amount) 조회 결과는 BeanPropertyRowMapper가 Money.valueOf(BigDecimal)로 변환합니다.
+    private Money totalAmount;
     private String corpName;
     private String businessRegistrationNumber;
     private LocalDate paymentDate;
@@ -0,0 +1,357 @@
+package com.example.springbatch.common;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 논블로킹 HTTP 클라이언트({@link HttpClient#sendAsync})와 RxJava {@link Flowable}로 페이징된 API를 읽는 ItemReader 입니다.
+ * <p>
+ * {@link HttpPageItemReader}는 요청마다 응답이 올 때까지 스레드 하나를 붙잡고 있지만, 이 리더는 요청을 비동기로 보내고
+ * 응답은 HttpClient의 이벤트 루프에서 받으므로 응답을 기다리는 동안 스레드를 점유하지 않습니다.
+ * <p>
+ * 페이지 요청은 concatMapEager로 최대 window개까지 동시에 보내지만, 결과는 페이지 순서대로 전달됩니다.
+ * Step의 chunk 루프가 read()로 아이템을 꺼내는 속도에 맞춰 다음 페이지를 요청하므로(backpressure),
+ * 메모리에 올라가는 아이템은 최대 (window + 1) * size 개로 제한됩니다.
+ * 마지막 페이지(isLast 또는 빈 페이지)를 받거나 리더를 닫으면 구독이 해제되고, 진행 중인 요청은 CompletableFuture를 취소하여 HTTP 교환도 중단합니다.
+ * <p>
+ * 건너뛴 페이지(dead letter) 처리와 재시작 정보는 {@link AbstractHttpPageItemReader}에서 {@link HttpPageItemReader}와 함께 관리하며,
+ * 요청 경로는 스레드를 막지 않도록 다음과 같이 구현합니다.
+ * <ul>
+ *     <li>실패한 요청은 지수 백오프(jitter 포함)로 재시도하며, 4xx 응답은 429를 제외하고 재시도하지 않습니다. 대기는 스레드를 재우지 않고 타이머로 합니다.</li>
+ *     <li>{@link HttpCircuitBreaker}가 열려 있으면 요청을 보내지 않고 타이머로 기다린 뒤 다시 확인합니다.</li>
+ *     <li>maxConcurrentRequestsPerHost가 설정되면 {@link HttpPageItemReader}와 같은 {@link HttpHostConcurrencyLimiter}를 공유합니다.
+ *     허가를 얻지 못하면 스레드를 막지 않고 타이머로 기다린 뒤 다시 확인하며, 허가는 응답을 받거나 요청이 취소되면 반납합니다.</li>
+ * </ul>
+ *
+ * @param <T> API 응답의 content 필드에 포함된 개별 아이템의 DTO 타입입니다.
+ */
+@Slf4j
+public class RxHttpPageItemReader<T> extends AbstractHttpPageItemReader<T> {
+
+    // 호스트별 동시 요청 수 제한에 걸렸을 때 다시 확인하기까지의 간격
+    private static final long HOST_PERMIT_POLL_MILLIS = 10;
+
+    // 요청을 보낼 기본 URL
+    private final String baseUrl;
+
+    // 논블로킹 HTTP 클라이언트
+    private final HttpClient httpClient;
+
+    // 한 번의 API 호출로 가져올 데이터의 개수 (페이지 크기)
+    private final int size;
+
+    // 응답 본문을 PageResponse<T>로 역직렬화하기 위한 ObjectMapper와 타입
+    private final ObjectMapper objectMapper;
+    private final JavaType responseType;
+
+    // 동시에 진행할 최대 페이지 요청 수
+    private final int window;
+
+    // 요청 타임아웃
+    private final Duration requestTimeout;
+
+    // 페이지 요청 재시도 설정 (maxAttempts가 1이면 재시도하지 않음)
+    private final int retryMaxAttempts;
+    private final long retryInitialBackoffMillis;
+    private final long retryMaxBackoffMillis;
+
+    // 구독 중인 페이지 스트림 (close 시 닫아서 진행 중인 요청을 취소합니다.)
+    private Stream<FetchedPage<T>> pageStream;
+    private Iterator<FetchedPage<T>> pageIterator;
+
+    // 현재 읽고 있는 페이지와 페이지 내 다음 아이템의 위치
+    private FetchedPage<T> currentPage;
+    private int currentItemIndex = 0;
+
+    // 다음으로 받을 페이지 번호 (현재 페이지가 있으면 현재 페이지 + 1)
+    private int nextPage = 0;
+
+    // 마지막 페이지를 받았는지 여부
+    private boolean lastPage = false;
+
+    RxHttpPageItemReader(RxHttpPageItemReaderBuilder<T> builder) {
+        super(builder);
+        this.baseUrl = builder.baseUrl;
+        this.httpClient = builder.httpClient;
+        this.size = builder.size;
+        this.objectMapper = builder.objectMapper;
+        this.responseType = objectMapper.getTypeFactory().constructType(builder.responseType.getType());
+        this.window = builder.window;
+        this.requestTimeout = builder.requestTimeout;
+        this.retryMaxAttempts = builder.retryMaxAttempts;
+        this.retryInitialBackoffMillis = builder.retryInitialBackoff.toMillis();
+        this.retryMaxBackoffMillis = builder.retryMaxBackoff.toMillis();
+        setName(RxHttpPageItemReader.class.getSimpleName());
+    }
+
+    /**
+     * 현재 페이지에서 다음 아이템을 꺼내고, 다 읽었으면 페이지 스트림에서 다음 페이지를 기다려 받습니다.
+     * 실패한 페이지는 {@link #skipFailedPage(int, Throwable, boolean)}에서 ignoreErrors 설정에 따라 건너뛰거나 Step을 실패시킵니다.
+     */
+    @Override
+    protected T doRead() {
+        while (currentPage == null || currentItemIndex >= currentPage.items().size()) {
+            if (lastPage) {
+                closePageStream();
+                return null;
+            }
+            if (pageIterator == null) {
+                openPageStream(nextPage);
+            }
+            FetchedPage<T> fetched = pageIterator.next();
+            this.nextPage = fetched.page() + 1;
+            if (fetched.failure() != null) {
+                this.currentPage = null;
+                skipFailedPage(fetched.page(), fetched.failure(), true);
+                continue;
+            }
+            onPageFetched();
+            this.currentPage = fetched;
+            this.currentItemIndex = 0;
+            this.lastPage = fetched.last();
+        }
+        return currentPage.items().get(currentItemIndex++);
+    }
+
+    /**
+     * startPage부터의 페이지 번호 스트림을 비동기 요청 스트림으로 바꾸고, 페이지 순서대로 꺼낼 수 있는 blocking iterator를 엽니다.
+     * 실패한 페이지도 스트림을 끝내지 않고 failure를 담은 페이지로 전달되므로, 건너뛸지 여부는 Step 스레드에서 판단합니다.
+     *
+     * @param startPage 처음 요청할 페이지 번호
+     */
+    private void openPageStream(int startPage) {
+        Flowable<FetchedPage<T>> pages = Flowable.range(startPage, Integer.MAX_VALUE - startPage)
+                .concatMapEager(page -> fetchPage(page).toFlowable(), window, 1)
+                .takeUntil(FetchedPage::last);
+        this.pageStream = pages.blockingStream(1);
+        this.pageIterator = pageStream.iterator();
+    }
+
+    private void closePageStream() {
+        if (pageStream != null) {
+            pageStream.close();
+        }
+        this.pageStream = null;
+        this.pageIterator = null;
+    }
+
+    /**
+     * 한 페이지를 재시도를 포함하여 비동기로 요청합니다.
+     * 재시도 후에도 실패하면 스트림을 끝내지 않도록 failure를 담은 페이지로 바꿉니다.
+     *
+     * @param page 요청할 페이지 번호
+     * @return 페이지 응답
+     */
+    private Single<FetchedPage<T>> fetchPage(int page) {
+        return requestWithRetry(page, 1)
+                .onErrorReturn(ex -> new FetchedPage<>(page, List.of(), false, ex));
+    }
+
+    /**
+     * 서킷 브레이커를 통과한 뒤 페이지를 요청하고, 실패하면 백오프 후 다시 요청합니다.
+     *
+     * @param page    요청할 페이지 번호
+     * @param attempt 현재 시도 횟수 (1부터 시작)
+     * @return 페이지 응답
+     */
+    private Single<FetchedPage<T>> requestWithRetry(int page, int attempt) {
+        return awaitCircuit()
+                .andThen(limitedRequest(page))
+                .doOnSuccess(ignored -> recordOutcome(null))
+                .doOnError(this::recordOutcome)
+                .onErrorResumeNext(ex -> {
+                    if (attempt >= retryMaxAttempts || !isRetryable(ex)) {
+                        return Single.error(ex);
+                    }
+                    long backoffMillis = backoffMillis(attempt);
+                    log.warn("Retrying page {} (attempt {}) in {} ms. Reason: {}", page, attempt + 1, backoffMillis, ex.getMessage());
+                    return Single.timer(backoffMillis, TimeUnit.MILLISECONDS)
+                            .flatMap(ignored -> requestWithRetry(page, attempt + 1));
+                });
+    }
+
+    /**
+     * 서킷 브레이커가 요청을 허용할 때까지 타이머로 기다립니다. 서킷 브레이커가 없으면 바로 완료됩니다.
+     */
+    private Completable awaitCircuit() {
+        if (circuitBreaker == null) {
+            return Completable.complete();
+        }
+        return Completable.defer(() -> {
+            long waitNanos = circuitBreaker.tryAcquire();
+            return waitNanos == 0
+                    ? Completable.complete()
+                    : Completable.timer(waitNanos, TimeUnit.NANOSECONDS).andThen(awaitCircuit());
+        });
+    }
+
+    /**
+     * 호스트별 동시 요청 수 제한의 허가를 얻은 뒤 페이지를 요청합니다. 제한이 없으면 바로 요청합니다.
+     * 허가를 얻지 못하면 스레드를 막지 않고 타이머로 기다린 뒤 다시 확인하며,
+     * 허가를 얻은 요청은 응답을 받거나 실패하거나 구독이 해제되면(doFinally) 허가를 반납합니다.
+     *
+     * @param page 요청할 페이지 번호
+     * @return 페이지 응답
+     */
+    private Single<FetchedPage<T>> limitedRequest(int page) {
+        if (hostLimiter == null) {
+            return Single.defer(() -> request(page));
+        }
+        return Single.defer(() -> hostLimiter.tryAcquire()
+                ? request(page).doFinally(hostLimiter::release)
+                : Single.timer(HOST_PERMIT_POLL_MILLIS, TimeUnit.MILLISECONDS).flatMap(ignored -> limitedRequest(page)));
+    }
+
+    /**
+     * attempt번째 실패 후의 대기 시간을 계산합니다. initialBackoff부터 2배씩 늘어나며(최대 maxBackoff), 요청이 한꺼번에 몰리지 않도록 1~2배의 무작위 값을 곱합니다.
+     */
+    private long backoffMillis(int attempt) {
+        long interval = Math.min(retryMaxBackoffMillis, retryInitialBackoffMillis << Math.min(attempt - 1, 30));
+        return Math.min(retryMaxBackoffMillis, (long) (interval * (1 + ThreadLocalRandom.current().nextDouble())));
+    }
+
+    /**
+     * 한 페이지를 비동기로 요청합니다.
+     * 구독이 해제되면(리더 종료, 마지막 페이지 이후의 요청) sendAsync가 반환한 CompletableFuture를 취소하여 진행 중인 HTTP 교환을 중단합니다.
+     *
+     * @param page 요청할 페이지 번호
+     * @return 페이지 응답
+     */
+    private Single<FetchedPage<T>> request(int page) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(baseUrl)
+                .queryParam("page", page)
+                .queryParam("size", size)
+                .build()
+                .toUri();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Accept", "application/json")
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+
+        return Single.create(emitter -> {
+            CompletableFuture<HttpResponse<byte[]>> future = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            emitter.setCancellable(() -> future.cancel(true));
+            future.whenComplete((response, ex) -> {
+                if (ex != null) {
+                    emitter.tryOnError(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                    return;
+                }
+                try {
+                    emitter.onSuccess(toFetchedPage(page, response));
+                } catch (RuntimeException parseFailure) {
+                    emitter.tryOnError(parseFailure);
+                }
+            });
+        });
+    }
+
+    private FetchedPage<T> toFetchedPage(int page, HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status >= 500) {
+            throw new HttpServerErrorException(HttpStatusCode.valueOf(status), "API call for page " + page + " failed");
+        }
+        if (status >= 400) {
+            throw new HttpClientErrorException(HttpStatusCode.valueOf(status), "API call for page " + page + " failed");
+        }
+        try {
+            PageResponse<T> pageResponse = objectMapper.readValue(response.body(), responseType);
+            if (pageResponse == null || pageResponse.getContent() == null || pageResponse.getContent().isEmpty()) {
+                // 응답이 비어있으면 마지막 페이지로 간주한다.
+                return new FetchedPage<>(page, List.of(), true, null);
+            }
+            return new FetchedPage<>(page, pageResponse.getContent(), pageResponse.isLast(), null);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to parse page " + page, ex);
+        }
+    }
+
+    @Override
+    protected void doOpen() {
+        this.currentPage = null;
+        this.currentItemIndex = 0;
+        this.nextPage = 0;
+        this.lastPage = false;
+    }
+
+    /**
+     * 재시작 시 이미 읽은 아이템 수(itemIndex)만큼 건너뜁니다.
+     * 기본 구현은 doRead()를 itemIndex번 호출하여 처리한 페이지를 모두 다시 요청하므로,
+     * 저장된 페이지 번호가 있으면 그 페이지부터 스트림을 열고 저장된 위치까지만 건너뜁니다.
+     *
+     * @param itemIndex 이미 읽은 아이템 수
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        if (restoredPage < 0) {
+            super.jumpToItem(itemIndex);
+            return;
+        }
+        log.info("Resuming from page {} at item index {}", restoredPage, restoredItemIndex);
+        this.nextPage = restoredPage;
+        for (int skipped = 0; skipped < restoredItemIndex && doRead() != null; skipped++) {
+            // 중단된 페이지에서 이미 처리한 아이템은 버립니다.
+        }
+    }
+
+    @Override
+    protected boolean hasRemainingItems() {
+        return currentPage != null && currentItemIndex < currentPage.items().size();
+    }
+
+    @Override
+    protected int currentPagePosition() {
+        return currentPage.page();
+    }
+
+    @Override
+    protected int nextPagePosition() {
+        return nextPage;
+    }
+
+    @Override
+    protected int itemIndexInPage() {
+        return currentItemIndex;
+    }
+
+    /**
+     * 스트림을 닫아 구독을 해제합니다. 아직 진행 중인 페이지 요청은 취소됩니다.
+     */
+    @Override
+    protected void doClose() {
+        closePageStream();
+        this.currentPage = null;
+        this.currentItemIndex = 0;
+        this.nextPage = 0;
+        this.lastPage = false;
+    }
+
+    /**
+     * 요청한 페이지의 번호, 아이템, 마지막 페이지 여부와 재시도 후에도 실패한 경우의 예외입니다.
+     */
+    private record FetchedPage<T>(int page, List<T> items, boolean last, Throwable failure) {
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.example.springbatch.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.Assert;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * RxHttpPageItemReader를 생성하기 위한 빌더 클래스.
+ * 요청 대상과 오류 처리 설정은 {@link AbstractHttpPageItemReaderBuilder}를 따르며, 재시도와 호스트별 동시 요청 수 제한의 대기는 스레드를 재우지 않고 RxJava 타이머로 합니다.
+ *
+ * @param <T> 아이템 타입
+ */
+public class RxHttpPageItemReaderBuilder<T> extends AbstractHttpPageItemReaderBuilder<T, RxHttpPageItemReaderBuilder<T>> {
+    protected HttpClient httpClient;
+    protected ObjectMapper objectMapper;
+    protected int window = 4; // 동시에 진행할 최대 페이지 요청 수
+    protected Duration requestTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 요청에 사용할 HttpClient를 설정합니다. 설정하지 않으면 기본 설정의 HttpClient를 생성합니다.
+     * 여러 리더가 하나의 HttpClient를 공유하면 커넥션 풀과 이벤트 루프 스레드도 함께 공유됩니다.
+     */
+    public RxHttpPageItemReaderBuilder<T> httpClient(HttpClient httpClient) {
+        this.httpClient = httpClient;
+        return this;
+    }
+
+    public RxHttpPageItemReaderBuilder<T> objectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        return this;
+    }
+
+    /**
+     * 동시에 진행할 최대 페이지 요청 수를 설정합니다. 메모리에 올라가는 아이템 수의 상한도 이 값으로 정해집니다.
+     *
+     * @param window 최대 동시 페이지 요청 수
+     * @return 빌더 자신
+     */
+    public RxHttpPageItemReaderBuilder<T> window(int window) {
+        this.window = window;
+        return this;
+    }
+
+    public RxHttpPageItemReaderBuilder<T> requestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+        return this;
+    }
+
+    public RxHttpPageItemReader<T> build() {
+        validate();
+        Assert.isTrue(window > 0, "window는 0보다 커야 합니다.");
+
+        if (httpClient == null) {
+            this.httpClient = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+        }
+        if (objectMapper == null) {
+            this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        }
+        return new RxHttpPageItemReader<>(this);
+    }
+
+}
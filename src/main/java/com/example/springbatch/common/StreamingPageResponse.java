@@ -0,0 +1,129 @@
+package com.example.springbatch.common;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * {@link PageResponse} 형태의 JSON 응답 본문을 한 번에 역직렬화하지 않고, 토큰 단위로 읽으면서 `content` 배열의 아이템을 하나씩 꺼내는 객체입니다.
+ * <p>
+ * 응답 본문 전체나 content 리스트 전체를 메모리에 올리지 않으므로, 페이지 크기를 크게 잡아도 힙 사용량은 아이템 하나 수준으로 유지됩니다.
+ * `last`, `totalPages`, `totalElements`, `nextCursor` 필드는 content 앞뒤 어디에 있어도 읽으며, content 뒤에 있는 필드는
+ * 모든 아이템을 꺼낸 뒤에 값을 알 수 있습니다.
+ * <p>
+ * HTTP 응답을 열어 둔 채로 읽으므로 다 읽은 뒤에는 반드시 {@link #close()}를 호출해야 합니다.
+ *
+ * @param <T> content 배열에 포함된 아이템 타입
+ */
+class StreamingPageResponse<T> implements Closeable {
+
+    private final ClientHttpResponse response;
+    private final JsonParser parser;
+    private final ObjectMapper objectMapper;
+    private final JavaType itemType;
+
+    private boolean inContent = false; // content 배열 안에 위치해 있는지 여부
+    private boolean finished = false; // 응답 본문을 끝까지 읽었는지 여부
+    private boolean last = false;
+    private int totalPages = -1;
+    private long totalElements = -1;
+    private String nextCursor;
+
+    StreamingPageResponse(ClientHttpResponse response, ObjectMapper objectMapper, JavaType itemType) throws IOException {
+        this.response = response;
+        this.objectMapper = objectMapper;
+        this.itemType = itemType;
+        this.parser = objectMapper.getFactory().createParser(response.getBody());
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            close();
+            throw new IOException("Page response must be a JSON object");
+        }
+        advanceToContent();
+    }
+
+    /**
+     * content 배열의 다음 아이템을 읽습니다.
+     *
+     * @return 다음 아이템. 더 이상 아이템이 없으면 null (이후에도 계속 null을 반환)
+     */
+    T next() throws IOException {
+        if (!inContent) {
+            return null;
+        }
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            inContent = false;
+            // content 뒤에 있는 나머지 필드(last 등)를 읽습니다.
+            advanceToContent();
+            return null;
+        }
+        return objectMapper.readValue(parser, itemType);
+    }
+
+    /**
+     * 마지막 페이지 여부. content 뒤에 last 필드가 있다면 {@link #next()}가 null을 반환한 뒤에 정확한 값을 알 수 있습니다.
+     */
+    boolean isLast() {
+        return last;
+    }
+
+    int getTotalPages() {
+        return totalPages;
+    }
+
+    long getTotalElements() {
+        return totalElements;
+    }
+
+    /**
+     * 다음 페이지 커서. {@link #isLast()}와 마찬가지로 content 뒤에 있다면 모든 아이템을 읽은 뒤에 알 수 있습니다.
+     */
+    String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * 다음 content 배열의 시작 위치 또는 응답 본문의 끝까지 필드를 읽습니다.
+     * 그 사이에 있는 last, totalPages, totalElements, nextCursor 값을 저장하고 나머지 필드는 건너뜁니다.
+     */
+    private void advanceToContent() throws IOException {
+        while (!finished) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_OBJECT) {
+                finished = true;
+                return;
+            }
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "content" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        inContent = true;
+                        return;
+                    }
+                    parser.skipChildren();
+                }
+                case "last" -> last = value == JsonToken.VALUE_TRUE;
+                case "totalPages" -> totalPages = parser.getValueAsInt(-1);
+                case "totalElements" -> totalElements = parser.getValueAsLong(-1);
+                case "nextCursor" -> nextCursor = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            parser.close();
+        } finally {
+            response.close();
+        }
+    }
+
+}
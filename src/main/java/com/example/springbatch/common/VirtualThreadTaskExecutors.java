@@ -0,0 +1,70 @@
+package com.example.springbatch.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.util.Assert;
+
+/**
+ * 외부 API 호출이나 DB I/O처럼 대부분의 시간을 대기하며 보내는 작업을 가상 스레드(Java 21+)에서 실행하기 위한 TaskExecutor를 생성합니다.
+ * <p>
+ * `OrderClient.getGrade`(150ms) 호출이나 파티션 하나의 DB I/O처럼 작업 하나가 스레드를 오래 붙잡는 경우에는
+ * 플랫폼 스레드 풀의 크기가 곧 동시 호출 수의 한계가 됩니다. 가상 스레드는 대기하는 동안 캐리어 스레드를 반납하므로 작업마다 새 스레드를 만들어도 부담이 적습니다.
+ * 대신 스레드 수로 동시성이 제한되지 않으므로, concurrencyLimit으로 동시에 실행되는 작업 수를 제한해 상대 서버나 커넥션 풀이 감당할 수 있는 수준으로 맞춥니다.
+ * 제한에 걸린 작업은 큐에 쌓이지 않고 {@link SimpleAsyncTaskExecutor#execute(Runnable)}를 호출한 스레드가 자리가 날 때까지 기다립니다.
+ * <p>
+ * 프로젝트의 기본 툴체인은 Java 17이므로, Java 21 미만에서 실행되면 같은 동시성 제한을 가진 플랫폼 스레드 Executor로 대체합니다.
+ */
+@Slf4j
+public final class VirtualThreadTaskExecutors {
+
+    private static final int VIRTUAL_THREAD_JAVA_VERSION = 21;
+
+    private VirtualThreadTaskExecutors() {
+    }
+
+    /**
+     * 현재 JVM에서 가상 스레드를 사용할 수 있는지 여부.
+     */
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= VIRTUAL_THREAD_JAVA_VERSION;
+    }
+
+    /**
+     * 작업마다 가상 스레드를 생성하고, 동시에 concurrencyLimit개까지만 실행하는 TaskExecutor를 생성합니다.
+     *
+     * @param threadNamePrefix 스레드 이름 접두사
+     * @param concurrencyLimit 동시에 실행할 최대 작업 수
+     * @return SimpleAsyncTaskExecutor
+     */
+    public static SimpleAsyncTaskExecutor create(String threadNamePrefix, int concurrencyLimit) {
+        return create(threadNamePrefix, concurrencyLimit, null);
+    }
+
+    /**
+     * 작업마다 가상 스레드를 생성하고, 동시에 concurrencyLimit개까지만 실행하는 TaskExecutor를 생성합니다.
+     *
+     * @param threadNamePrefix 스레드 이름 접두사
+     * @param concurrencyLimit 동시에 실행할 최대 작업 수
+     * @param taskDecorator    각 작업을 감쌀 TaskDecorator (예: {@link ConnectionPoolGovernor}), 없으면 null
+     * @return SimpleAsyncTaskExecutor
+     */
+    public static SimpleAsyncTaskExecutor create(String threadNamePrefix, int concurrencyLimit, TaskDecorator taskDecorator) {
+        Assert.isTrue(concurrencyLimit > 0, "concurrencyLimit must be greater than 0.");
+
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        if (isSupported()) {
+            taskExecutor.setVirtualThreads(true);
+        } else {
+            log.warn("Virtual threads require Java {}+, running on Java {}; falling back to platform threads",
+                    VIRTUAL_THREAD_JAVA_VERSION, Runtime.version().feature());
+            taskExecutor.setDaemon(true);
+        }
+        taskExecutor.setConcurrencyLimit(concurrencyLimit);
+        if (taskDecorator != null) {
+            taskExecutor.setTaskDecorator(taskDecorator);
+        }
+        return taskExecutor;
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.example.springbatch.common.entity;
+
+import com.example.springbatch.common.Money;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * {@link Money} 필드를 DECIMAL(38, 2) 컬럼과 변환하는 JPA 컨버터입니다.
+ * autoApply이므로 Money 타입 필드에는 별도로 @Convert를 선언하지 않아도 적용됩니다.
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money attribute) {
+        return attribute == null ? null : attribute.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal dbData) {
+        return dbData == null ? null : Money.valueOf(dbData);
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.example.springbatch.common.entity;
 
+import com.example.springbatch.common.Money;
 import com.example.springbatch.common.PaymentDailyStatisticsUniqueKey;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -8,7 +9,6 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -21,6 +21,13 @@ import java.time.LocalDateTime;
                                 "paymentDate"
                         }
                 )
+        },
+        indexes = {
+                // 키로 금액만 조회할 때(findAmountsBy) 테이블을 읽지 않도록 하는 커버링 인덱스
+                @Index(
+                        name = "idx_payment_daily_statistics_key_amount",
+                        columnList = "businessRegistrationNumber, paymentDate, amount"
+                )
         }
 )
 @Getter
@@ -40,9 +47,9 @@ public class PaymentDailyStatistics {
     @Column(nullable = false, length = 100, updatable = false)
     private String businessRegistrationNumber;
 
-    // 결제 금액
-    @Column(nullable = false)
-    private BigDecimal amount;
+    // 결제 금액 (MoneyConverter로 DECIMAL(38, 2) 컬럼과 변환)
+    @Column(nullable = false, precision = 38, scale = 2)
+    private Money amount;
 
     // 결제 일자
     @Column(nullable = false, updatable = false)
@@ -56,14 +63,14 @@ public class PaymentDailyStatistics {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
-    public PaymentDailyStatistics(String corpName, String businessRegistrationNumber, BigDecimal amount, LocalDate paymentDate) {
+    public PaymentDailyStatistics(String corpName, String businessRegistrationNumber, Money amount, LocalDate paymentDate) {
         this.corpName = corpName;
         this.businessRegistrationNumber = businessRegistrationNumber;
         this.amount = amount;
         this.paymentDate = paymentDate;
     }
 
-    public void updateAmount(BigDecimal amount) {
+    public void updateAmount(Money amount) {
         this.amount = amount;
     }
 
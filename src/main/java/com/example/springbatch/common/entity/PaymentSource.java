@@ -1,5 +1,6 @@
 package com.example.springbatch.common.entity;
 
+import com.example.springbatch.common.Money;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -33,9 +34,9 @@ public class PaymentSource {
     @Column(nullable = false)
     private BigDecimal discountAmount;
 
-    // 최종 금액
-    @Column(nullable = false)
-    private BigDecimal finalAmount;
+    // 최종 금액 (MoneyConverter로 DECIMAL(38, 2) 컬럼과 변환)
+    @Column(nullable = false, precision = 38, scale = 2)
+    private Money finalAmount;
 
     // 결제 일자
     @Column(nullable = false)
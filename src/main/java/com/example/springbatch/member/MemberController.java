@@ -4,10 +4,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -17,11 +22,23 @@ import java.util.stream.IntStream;
     -Dserver.port=8081
 
     스프링배치에서 외부 서비스를 호출한다는 가정이 필요하여 만든 컨트롤러 (외부 시스템에 해당)
+
+    - /api/v1/members/cursor
+      - offset 대신 마지막으로 내려준 회원 id를 커서로 사용하는 방식 (e.g. WHERE id > :lastId ORDER BY id LIMIT :size)
+      - 뒤쪽 페이지로 갈수록 offset만큼 건너뛰는 비용이 없으므로 페이지마다 응답 시간이 일정하다.
  */
 @RestController
 @RequestMapping("/api/v1/members")
 public class MemberController {
 
+    // 가상의 전체 회원 수 (1 ~ TOTAL_MEMBERS)
+    private static final int TOTAL_MEMBERS = 100;
+
+    // 커서 조회에서 허용하는 최대 페이지 크기
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    private static final String CURSOR_PREFIX = "id:";
+
     @GetMapping
     public Page<Member> getMembers(@PageableDefault(page = 0, size = 10) Pageable pageable) {
         if (pageable.getPageNumber() == 4) {
@@ -29,7 +46,7 @@ public class MemberController {
         }
 
         // 1~100까지 Member 생성
-        List<Member> allMembers = IntStream.rangeClosed(1, 100)
+        List<Member> allMembers = IntStream.rangeClosed(1, TOTAL_MEMBERS)
                 .mapToObj(i -> new Member((long) i, "Member " + i, "Member " + i + "@google.com"))
                 .collect(Collectors.toList());
 
@@ -42,4 +59,59 @@ public class MemberController {
         return new PageImpl<>(pagedMembers, pageable, allMembers.size());
     }
 
+    /**
+     * 커서 기반으로 회원 목록을 조회합니다.
+     * 커서는 마지막으로 내려준 회원 id를 인코딩한 불투명(opaque) 문자열이며, 클라이언트는 내용을 해석하지 않고 그대로 돌려보냅니다.
+     *
+     * @param cursor 이전 응답의 nextCursor (첫 페이지는 생략)
+     * @param size   페이지 크기 (1 ~ MAX_CURSOR_PAGE_SIZE)
+     * @return 회원 목록과 다음 커서
+     * @throws ResponseStatusException size가 범위를 벗어나거나 커서를 해석할 수 없으면 400 Bad Request
+     */
+    @GetMapping("/cursor")
+    public MemberCursorPage getMembersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        long lastId = cursor == null ? 0L : decodeCursor(cursor);
+
+        // 1~TOTAL_MEMBERS까지 Member 중 lastId 다음 회원부터 size만큼 조회 (seek)
+        List<Member> members = IntStream.rangeClosed(1, TOTAL_MEMBERS)
+                .filter(i -> i > lastId)
+                .limit(size)
+                .mapToObj(i -> new Member((long) i, "Member " + i, "Member " + i + "@google.com"))
+                .collect(Collectors.toList());
+
+        boolean last = members.size() < size || members.get(members.size() - 1).getId() >= TOTAL_MEMBERS;
+        String nextCursor = last ? null : encodeCursor(members.get(members.size() - 1).getId());
+        return new MemberCursorPage(members, size, last, nextCursor);
+    }
+
+    private String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 커서를 마지막 회원 id로 복원합니다. 이 서버가 발급한 형식이 아니면 400 Bad Request로 응답합니다.
+     */
+    private long decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            long lastId = Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+            if (lastId < 0) {
+                throw new IllegalArgumentException("Negative cursor id");
+            }
+            return lastId;
+        } catch (IllegalArgumentException ex) {
+            // Base64 디코딩 실패와 NumberFormatException도 IllegalArgumentException이다.
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed cursor: " + cursor, ex);
+        }
+    }
+
 }
\ No newline at end of file
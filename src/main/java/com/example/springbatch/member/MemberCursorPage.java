@@ -0,0 +1,24 @@
+package com.example.springbatch.member;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 커서 기반 회원 목록 응답입니다.
+ * 클라이언트는 nextCursor를 그대로 다음 요청의 cursor 파라미터로 전달하며, nextCursor가 null이면 마지막 페이지입니다.
+ */
+@Getter
+@AllArgsConstructor
+public class MemberCursorPage {
+
+    private List<Member> content;
+
+    private int size;
+
+    private boolean last;
+
+    private String nextCursor;
+
+}
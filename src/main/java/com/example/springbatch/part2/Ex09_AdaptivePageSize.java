@@ -0,0 +1,80 @@
+package com.example.springbatch.part2;
+
+import org.springframework.batch.item.ExecutionContext;
+
+import java.time.Duration;
+
+/**
+ * {@link Ex09_NoOffsetItemReader}의 페이지 크기(setMaxResults)를 정하는 정책입니다.
+ * <p>
+ * 고정 모드에서는 항상 같은 크기를 사용하고, 적응 모드에서는 직전 페이지의 조회 시간을 목표 시간과 비교하여
+ * [minPageSize, maxPageSize] 범위 안에서 다음 페이지 크기를 늘리거나 줄입니다.
+ * 한 번에 최대 2배까지만 늘리고 절반까지만 줄여서, 일시적인 지연 한 번에 페이지 크기가 크게 흔들리지 않도록 합니다.
+ * <p>
+ * 현재 페이지 크기는 ExecutionContext에 저장되므로 재시작 시 마지막으로 선택된 크기부터 다시 시작합니다.
+ * 페이지 크기는 prefetch 스레드에서 바뀌고 Step 스레드에서 저장되므로 volatile로 관리합니다.
+ */
+final class Ex09_AdaptivePageSize {
+
+    private static final double MAX_GROWTH = 2.0;
+    private static final double MAX_SHRINK = 0.5;
+
+    private final int minPageSize;
+    private final int maxPageSize;
+    private final long targetLatencyNanos; // 0이면 고정 모드
+    private final int initialPageSize;
+    private volatile int pageSize;
+
+    private Ex09_AdaptivePageSize(int initialPageSize, int minPageSize, int maxPageSize, long targetLatencyNanos) {
+        this.initialPageSize = initialPageSize;
+        this.minPageSize = minPageSize;
+        this.maxPageSize = maxPageSize;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.pageSize = initialPageSize;
+    }
+
+    static Ex09_AdaptivePageSize fixed(int pageSize) {
+        return new Ex09_AdaptivePageSize(pageSize, pageSize, pageSize, 0);
+    }
+
+    static Ex09_AdaptivePageSize adaptive(int initialPageSize, int minPageSize, int maxPageSize, Duration targetLatency) {
+        int initial = Math.max(minPageSize, Math.min(maxPageSize, initialPageSize));
+        return new Ex09_AdaptivePageSize(initial, minPageSize, maxPageSize, targetLatency.toNanos());
+    }
+
+    int current() {
+        return pageSize;
+    }
+
+    /**
+     * 조회 결과를 반영하여 다음 페이지 크기를 조정합니다.
+     * 요청한 크기보다 적게 조회된 페이지(마지막 페이지)는 조회 시간이 행 수를 대표하지 않으므로 반영하지 않습니다.
+     *
+     * @param requestedSize 요청한 페이지 크기
+     * @param fetchedSize   실제로 조회된 행 수
+     * @param elapsedNanos  조회에 걸린 시간
+     */
+    void record(int requestedSize, int fetchedSize, long elapsedNanos) {
+        if (targetLatencyNanos == 0 || fetchedSize < requestedSize) {
+            return;
+        }
+        double ratio = (double) targetLatencyNanos / Math.max(elapsedNanos, 1);
+        ratio = Math.max(MAX_SHRINK, Math.min(MAX_GROWTH, ratio));
+        this.pageSize = (int) Math.max(minPageSize, Math.min(maxPageSize, Math.round(requestedSize * ratio)));
+    }
+
+    void save(ExecutionContext executionContext, String key) {
+        if (targetLatencyNanos != 0) {
+            executionContext.putInt(key, pageSize);
+        }
+    }
+
+    void restore(ExecutionContext executionContext, String key) {
+        int restored = initialPageSize;
+        if (targetLatencyNanos != 0 && executionContext.containsKey(key)) {
+            restored = Math.max(minPageSize, Math.min(maxPageSize, executionContext.getInt(key)));
+        }
+        this.pageSize = restored;
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.example.springbatch.part2;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.util.Assert;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * id 범위를 기준으로 파티션을 생성하는 Partitioner 구현체입니다.
+ * 조회 조건에 해당하는 행의 최소/최대 id를 조회한 뒤, 이를 gridSize개의 연속된 [minId, maxId) 구간으로 나눕니다.
+ * 생성된 각 파티션은 `minId`, `maxId`라는 키로 구간을 StepExecutionContext에 저장하며,
+ * 워커 스텝의 {@link Ex09_NoOffsetItemReader}는 이 값을 keyRange로 받아 자신의 구간만 No-Offset 방식으로 읽습니다.
+ * <p>
+ * 날짜별 데이터 양의 편차가 커서 {@link Ex14_LocalDatePartitioner}로는 파티션 간 부하가 고르지 않을 때 사용합니다.
+ * equalCount가 true이면 id 분포를 샘플링한 분위수(quantile)를 경계로 사용하여, id가 듬성듬성한 경우에도 파티션별 행 수를 비슷하게 맞춥니다.
+ */
+@Slf4j
+public class Ex09_IdRangePartitioner implements Partitioner {
+
+    // 파티션 번호를 식별하기 위한 키
+    private static final String PARTITION_KEY = "partition";
+    // StepExecutionContext에 저장될 구간 하한(포함)의 키
+    private static final String EXECUTION_CONTEXT_KEY_MIN_ID = "minId";
+    // StepExecutionContext에 저장될 구간 상한(미포함)의 키
+    private static final String EXECUTION_CONTEXT_KEY_MAX_ID = "maxId";
+    // 경계 샘플링 쿼리에서 직전 경계 id를 바인딩할 파라미터 이름
+    private static final String PREVIOUS_BOUNDARY_PARAMETER = "idRangePreviousBoundary";
+    private static final Pattern WHERE = Pattern.compile("\\bWHERE\\b", Pattern.CASE_INSENSITIVE);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final String fromClause;
+    private final String idPath;
+    private final Map<String, Object> parameterValues;
+    private final boolean equalCount;
+
+    /**
+     * IdRangePartitioner 생성자
+     *
+     * @param entityManagerFactory JPA EntityManagerFactory
+     * @param fromClause           조회 대상 JPQL FROM/WHERE 절 (e.g. FROM PaymentSource ps WHERE ps.paymentDate = :paymentDate)
+     * @param idPath               구간을 나눌 id의 JPQL 경로 (e.g. ps.id)
+     * @param parameterValues      fromClause에 바인딩할 파라미터
+     * @param equalCount           true이면 행 수 기준, false이면 id 폭 기준으로 구간을 나눔
+     */
+    public Ex09_IdRangePartitioner(
+            EntityManagerFactory entityManagerFactory,
+            String fromClause,
+            String idPath,
+            Map<String, Object> parameterValues,
+            boolean equalCount
+    ) {
+        Assert.notNull(entityManagerFactory, "entityManagerFactory is required.");
+        Assert.hasText(fromClause, "fromClause is required.");
+        Assert.hasText(idPath, "idPath is required.");
+        this.entityManagerFactory = entityManagerFactory;
+        this.fromClause = fromClause;
+        this.idPath = idPath;
+        this.parameterValues = parameterValues != null ? parameterValues : Map.of();
+        this.equalCount = equalCount;
+    }
+
+    /**
+     * gridSize개 이하의 파티션을 생성합니다.
+     * 조회 대상이 없으면 빈 Map을, 행 수가 gridSize보다 적으면 행 수만큼의 파티션을 반환합니다.
+     *
+     * @param gridSize 파티션의 개수
+     * @return 각 파티션의 이름과 ExecutionContext를 담은 Map
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Assert.isTrue(gridSize > 0, "gridSize must be greater than 0.");
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            Object[] summary = bind(entityManager.createQuery(
+                    "SELECT MIN(" + idPath + "), MAX(" + idPath + "), COUNT(" + idPath + ") " + fromClause, Object[].class
+            )).getSingleResult();
+            if (summary[0] == null) {
+                log.info("No rows to partition for [{}]", fromClause);
+                return partitions;
+            }
+
+            long minId = ((Number) summary[0]).longValue();
+            long maxId = ((Number) summary[1]).longValue();
+            long count = ((Number) summary[2]).longValue();
+            long[] boundaries = equalCount
+                    ? countBoundaries(entityManager, minId, maxId, count, gridSize)
+                    : widthBoundaries(minId, maxId, count, gridSize);
+
+            for (int i = 0; i < boundaries.length - 1; i++) {
+                ExecutionContext context = new ExecutionContext();
+                context.putLong(EXECUTION_CONTEXT_KEY_MIN_ID, boundaries[i]);
+                context.putLong(EXECUTION_CONTEXT_KEY_MAX_ID, boundaries[i + 1]);
+                partitions.put(PARTITION_KEY + i, context);
+
+                log.info("Created partition {} with id range [{}, {})", PARTITION_KEY + i, boundaries[i], boundaries[i + 1]);
+            }
+        } finally {
+            entityManager.close();
+        }
+
+        return partitions;
+    }
+
+    /**
+     * [minId, maxId] 구간을 같은 폭으로 나눈 경계값을 계산합니다.
+     */
+    private long[] widthBoundaries(long minId, long maxId, long count, int gridSize) {
+        long span = maxId - minId + 1;
+        int size = (int) Math.min(gridSize, Math.min(span, count));
+        long[] boundaries = new long[size + 1];
+        for (int i = 0; i < size; i++) {
+            boundaries[i] = minId + span * i / size;
+        }
+        boundaries[size] = maxId + 1;
+        return boundaries;
+    }
+
+    /**
+     * 정렬된 id에서 count * i / gridSize 번째 값을 샘플링하여 행 수가 비슷한 구간의 경계값을 계산합니다.
+     * <p>
+     * 경계마다 처음부터 OFFSET으로 건너뛰면 경계 하나당 그 위치까지의 행을 모두 다시 읽으므로 전체 비용이 O(gridSize * count)가 됩니다.
+     * 대신 직전 경계 id 다음부터(`id > :직전 경계`) 두 경계 사이의 행 수만큼만 건너뛰어 다음 경계를 찾으므로,
+     * id 인덱스를 처음부터 끝까지 한 번 훑는 비용(O(count))과 gridSize - 1번의 쿼리로 모든 경계를 구합니다.
+     * 건너뛸 행 수(파티션 하나의 크기)가 Integer.MAX_VALUE를 넘으면 JPA의 setFirstResult로 표현할 수 없으므로 gridSize를 늘리도록 예외를 던집니다.
+     */
+    private long[] countBoundaries(EntityManager entityManager, long minId, long maxId, long count, int gridSize) {
+        int size = (int) Math.min(gridSize, count);
+        long[] boundaries = new long[size + 1];
+        boundaries[0] = minId;
+        boundaries[size] = maxId + 1;
+
+        TypedQuery<Long> nextBoundaryQuery = bind(entityManager.createQuery(
+                "SELECT " + idPath + " " + fromClauseAfterPreviousBoundary() + " ORDER BY " + idPath + " ASC", Long.class
+        ));
+        int filled = 1;
+        long previousPosition = 0; // 직전 경계(minId)의 정렬 순번
+        for (int i = 1; i < size; i++) {
+            long position = Math.multiplyExact(count, (long) i) / size;
+            long rowsBetween = position - previousPosition;
+            Assert.state(rowsBetween - 1 <= Integer.MAX_VALUE,
+                    () -> "Partition of " + rowsBetween + " rows exceeds the offset limit; increase gridSize.");
+            List<Long> sampled = nextBoundaryQuery
+                    .setParameter(PREVIOUS_BOUNDARY_PARAMETER, boundaries[filled - 1])
+                    .setFirstResult((int) (rowsBetween - 1))
+                    .setMaxResults(1)
+                    .getResultList();
+            if (sampled.isEmpty()) {
+                // 경계 계산 중 행이 삭제되어 남은 행이 없으면 지금까지의 경계만 사용합니다.
+                break;
+            }
+            // 같은 경계가 중복되면 빈 파티션이 생기므로 건너뜁니다.
+            if (sampled.get(0).longValue() > boundaries[filled - 1]) {
+                boundaries[filled++] = sampled.get(0).longValue();
+                previousPosition = position;
+            }
+        }
+        if (filled < size) {
+            long[] compacted = new long[filled + 1];
+            System.arraycopy(boundaries, 0, compacted, 0, filled);
+            compacted[filled] = maxId + 1;
+            return compacted;
+        }
+        return boundaries;
+    }
+
+    /**
+     * fromClause에 직전 경계 id보다 큰 행만 조회하는 조건을 추가합니다. 기존 WHERE 조건은 괄호로 감싸 AND로 연결합니다.
+     */
+    private String fromClauseAfterPreviousBoundary() {
+        String predicate = idPath + " > :" + PREVIOUS_BOUNDARY_PARAMETER;
+        Matcher where = WHERE.matcher(fromClause);
+        if (where.find()) {
+            return fromClause.substring(0, where.start()) + "WHERE " + predicate + " AND (" + fromClause.substring(where.end()).trim() + ")";
+        }
+        return fromClause + " WHERE " + predicate;
+    }
+
+    private <R> TypedQuery<R> bind(TypedQuery<R> query) {
+        parameterValues.forEach(query::setParameter);
+        return query;
+    }
+
+}
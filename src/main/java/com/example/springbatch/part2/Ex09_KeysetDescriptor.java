@@ -0,0 +1,323 @@
+package com.example.springbatch.part2;
+
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * No-Offset 페이징에서 seek 조건과 정렬 기준으로 사용할 (복합) 키를 정의하는 디스크립터입니다.
+ * <p>
+ * 예를 들어 {@code (payment_date_time, id)} 처럼 유일하지 않은 정렬 컬럼 뒤에 유일한 컬럼을 덧붙여 키를 구성하면,
+ * 튜플 비교 조건 {@code (a, b) < (:a, :b)}을 JPQL로 풀어쓴 조건을 생성하여 매 페이지를 커버링 인덱스의 range scan으로 조회할 수 있습니다.
+ * 마지막 컬럼은 반드시 유일해야 페이지 경계에서 데이터가 누락되거나 중복되지 않습니다.
+ *
+ * @param <T> 조회할 엔티티 타입
+ */
+public class Ex09_KeysetDescriptor<T> {
+
+    private static final String PARAMETER_PREFIX = "seekKey";
+    static final String RANGE_FROM_PARAMETER = "keyRangeFrom";
+    static final String RANGE_TO_PARAMETER = "keyRangeTo";
+
+    private final List<Column<T, ?>> columns;
+
+    private Ex09_KeysetDescriptor(List<Column<T, ?>> columns) {
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * 단일 Long 키(예: id)를 내림차순으로 seek 하는 디스크립터를 생성합니다.
+     *
+     * @param path      JPQL 경로 (e.g. ps.id)
+     * @param extractor 엔티티에서 키를 long으로 추출하는 함수
+     * @return 디스크립터
+     */
+    public static <T> Ex09_KeysetDescriptor<T> descending(String path, ToLongFunction<T> extractor) {
+        return Ex09_KeysetDescriptor.<T>builder()
+                .descending(path, extractor)
+                .build();
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public List<Column<T, ?>> getColumns() {
+        return columns;
+    }
+
+    /**
+     * 마지막으로 읽은 키보다 "뒤"에 있는 행만 조회하는 seek 조건을 생성합니다.
+     * <p>
+     * (a, b, c) 키의 내림차순 기준 예시:
+     * {@code a <= :k0 AND (a < :k0 OR (a = :k0 AND (b < :k1 OR (b = :k1 AND c < :k2))))}
+     * 선두 컬럼의 범위 조건({@code a <= :k0})을 별도로 두어 옵티마이저가 인덱스 range scan을 선택할 수 있도록 합니다.
+     *
+     * @return JPQL WHERE 절에 들어갈 조건식
+     */
+    public String seekPredicate() {
+        String predicate = columns.get(columns.size() - 1).compare(parameterName(columns.size() - 1));
+        for (int i = columns.size() - 2; i >= 0; i--) {
+            Column<T, ?> column = columns.get(i);
+            predicate = "(" + column.compare(parameterName(i))
+                    + " OR (" + column.path + " = :" + parameterName(i) + " AND " + predicate + "))";
+        }
+        if (columns.size() == 1) {
+            return predicate;
+        }
+        return columns.get(0).bound(parameterName(0)) + " AND " + predicate;
+    }
+
+    /**
+     * 선두 컬럼을 [from, to) 범위로 제한하는 조건을 생성합니다.
+     * 범위를 나누어 여러 리더가 병렬로 읽을 때 사용합니다. (e.g. {@code ps.id >= :keyRangeFrom AND ps.id < :keyRangeTo})
+     *
+     * @return JPQL WHERE 절에 들어갈 조건식
+     */
+    public String rangePredicate() {
+        String path = columns.get(0).path;
+        return path + " >= :" + RANGE_FROM_PARAMETER + " AND " + path + " < :" + RANGE_TO_PARAMETER;
+    }
+
+    /**
+     * seek 조건과 동일한 순서의 ORDER BY 절 내용을 생성합니다. (e.g. ps.paymentDateTime DESC, ps.id DESC)
+     */
+    public String orderByClause() {
+        return columns.stream()
+                .map(column -> column.path + (column.descending ? " DESC" : " ASC"))
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * 쿼리에 직접 작성된 ORDER BY 절의 내용이 키 정의와 같은 정렬인지 확인합니다.
+     * 정렬이 다르면 seek 조건과 읽는 순서가 어긋나 행이 누락되거나 중복되므로, 빌더에서 이 결과로 쿼리를 검증합니다.
+     * 공백과 ASC/DESC의 대소문자는 무시하며, 방향을 생략한 컬럼은 ASC로 봅니다.
+     * 한쪽에만 엔티티 별칭이 붙은 경로(ps.id와 id)는 같은 컬럼으로 봅니다.
+     *
+     * @param orderByClause ORDER BY 이후의 내용 (e.g. ps.id DESC)
+     * @return 키 정의와 같은 정렬이면 true
+     */
+    boolean matchesOrderBy(String orderByClause) {
+        String[] terms = orderByClause.split(",");
+        if (terms.length != columns.size()) {
+            return false;
+        }
+        for (int i = 0; i < terms.length; i++) {
+            String[] tokens = terms[i].trim().split("\\s+");
+            if (tokens.length > 2 || (tokens.length == 2 && !tokens[1].equalsIgnoreCase("ASC") && !tokens[1].equalsIgnoreCase("DESC"))) {
+                return false;
+            }
+            boolean descending = tokens.length == 2 && tokens[1].equalsIgnoreCase("DESC");
+            Column<T, ?> column = columns.get(i);
+            if (!samePath(tokens[0], column.path) || descending != column.descending) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 두 JPQL 경로가 같은 컬럼인지 확인합니다. 한쪽이 다른 쪽에 별칭 하나(`alias.`)만 붙인 경로이면 같다고 봅니다.
+     */
+    private static boolean samePath(String left, String right) {
+        if (left.equals(right)) {
+            return true;
+        }
+        String qualified = left.length() > right.length() ? left : right;
+        String unqualified = left.length() > right.length() ? right : left;
+        return qualified.endsWith("." + unqualified)
+                && qualified.indexOf('.') == qualified.length() - unqualified.length() - 1;
+    }
+
+    static String parameterName(int index) {
+        return PARAMETER_PREFIX + index;
+    }
+
+    /**
+     * 키를 구성하는 하나의 컬럼입니다.
+     *
+     * @param <T> 엔티티 타입
+     * @param <K> 컬럼 값 타입 (Long, Integer, String, LocalDate, LocalDateTime, BigDecimal)
+     */
+    public static final class Column<T, K extends Comparable<? super K>> {
+
+        private final String path;
+        private final Class<K> type;
+        private final Function<T, K> extractor;
+        // long 키를 Long 객체 없이 추출하는 함수 (ToLongFunction으로 등록한 컬럼만, 그 외에는 null)
+        private final ToLongFunction<T> longExtractor;
+        private final boolean descending;
+
+        private Column(String path, Class<K> type, Function<T, K> extractor, ToLongFunction<T> longExtractor, boolean descending) {
+            this.path = path;
+            this.type = type;
+            this.extractor = extractor;
+            this.longExtractor = longExtractor;
+            this.descending = descending;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public Class<K> getType() {
+            return type;
+        }
+
+        public Function<T, K> getExtractor() {
+            return extractor;
+        }
+
+        public boolean isDescending() {
+            return descending;
+        }
+
+        private String compare(String parameterName) {
+            return path + (descending ? " < :" : " > :") + parameterName;
+        }
+
+        private String bound(String parameterName) {
+            return path + (descending ? " <= :" : " >= :") + parameterName;
+        }
+
+        /**
+         * 컬럼 값을 long 하나로 표현하여 {@link Ex09_SeekKeyRing}의 long 배열에 저장할 수 있는지 여부입니다.
+         * Long, Integer, LocalDate(epoch day), LocalDateTime(epoch micros, MySQL DATETIME(6) 정밀도)을 지원합니다.
+         */
+        boolean isLongEncodable() {
+            return type == Long.class || type == Integer.class || type == LocalDate.class || type == LocalDateTime.class;
+        }
+
+        /**
+         * 아이템의 컬럼 값을 long으로 인코딩합니다. {@link #isLongEncodable()}인 컬럼에서만 사용합니다.
+         * ToLongFunction으로 등록한 컬럼은 박싱 없이 long을 그대로 꺼내고,
+         * Function으로 등록한 컬럼은 추출한 객체(엔티티의 Long, LocalDate 등)를 long으로 바꿉니다.
+         */
+        long encode(T item) {
+            if (longExtractor != null) {
+                return longExtractor.applyAsLong(item);
+            }
+            Object value = extractor.apply(item);
+            if (value instanceof Long longValue) {
+                return longValue;
+            } else if (value instanceof Integer intValue) {
+                return intValue;
+            } else if (value instanceof LocalDate date) {
+                return date.toEpochDay();
+            } else if (value instanceof LocalDateTime dateTime) {
+                return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+            }
+            throw new IllegalStateException("Keyset column is not long encodable: " + path);
+        }
+
+        /**
+         * long으로 인코딩된 값을 쿼리 파라미터로 바인딩할 원래 타입의 값으로 복원합니다.
+         * JPA 파라미터는 객체로만 바인딩할 수 있으므로 여기서는 값 객체(Long 등)를 만들며, 페이지를 조회할 때마다 한 번 호출됩니다.
+         */
+        Object decode(long value) {
+            if (type == Long.class) {
+                return value;
+            } else if (type == Integer.class) {
+                return (int) value;
+            } else if (type == LocalDate.class) {
+                return LocalDate.ofEpochDay(value);
+            } else if (type == LocalDateTime.class) {
+                return LocalDateTime.ofEpochSecond(Math.floorDiv(value, 1_000_000L), (int) Math.floorMod(value, 1_000_000L) * 1_000, ZoneOffset.UTC);
+            }
+            throw new IllegalStateException("Keyset column is not long encodable: " + path);
+        }
+
+        String formatEncoded(long value) {
+            return type == Long.class || type == Integer.class ? Long.toString(value) : decode(value).toString();
+        }
+
+        long parseEncoded(String value) {
+            if (type == Long.class || type == Integer.class) {
+                return Long.parseLong(value);
+            } else if (type == LocalDate.class) {
+                return LocalDate.parse(value).toEpochDay();
+            }
+            LocalDateTime dateTime = LocalDateTime.parse(value);
+            return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+        }
+
+        Object extract(T item) {
+            return extractor.apply(item);
+        }
+
+        Object parse(String value) {
+            if (type == Long.class) {
+                return Long.valueOf(value);
+            } else if (type == Integer.class) {
+                return Integer.valueOf(value);
+            } else if (type == String.class) {
+                return value;
+            } else if (type == LocalDate.class) {
+                return LocalDate.parse(value);
+            } else if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(value);
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(value);
+            }
+            throw new IllegalStateException("Unsupported keyset column type: " + type.getName());
+        }
+    }
+
+    /**
+     * 선두 컬럼부터 순서대로 키 컬럼을 추가하는 빌더입니다.
+     *
+     * @param <T> 엔티티 타입
+     */
+    public static final class Builder<T> {
+
+        private final List<Column<T, ?>> columns = new ArrayList<>();
+
+        public <K extends Comparable<? super K>> Builder<T> descending(String path, Class<K> type, Function<T, K> extractor) {
+            return column(path, type, extractor, null, true);
+        }
+
+        public <K extends Comparable<? super K>> Builder<T> ascending(String path, Class<K> type, Function<T, K> extractor) {
+            return column(path, type, extractor, null, false);
+        }
+
+        /**
+         * long 키(예: id) 컬럼을 내림차순으로 추가합니다. 키를 Long 객체 없이 꺼내 seek 키 버퍼에 저장합니다.
+         */
+        public Builder<T> descending(String path, ToLongFunction<T> extractor) {
+            Assert.notNull(extractor, "extractor is required.");
+            return column(path, Long.class, extractor::applyAsLong, extractor, true);
+        }
+
+        /**
+         * long 키(예: id) 컬럼을 오름차순으로 추가합니다. 키를 Long 객체 없이 꺼내 seek 키 버퍼에 저장합니다.
+         */
+        public Builder<T> ascending(String path, ToLongFunction<T> extractor) {
+            Assert.notNull(extractor, "extractor is required.");
+            return column(path, Long.class, extractor::applyAsLong, extractor, false);
+        }
+
+        private <K extends Comparable<? super K>> Builder<T> column(String path, Class<K> type, Function<T, K> extractor,
+                                                                    ToLongFunction<T> longExtractor, boolean descending) {
+            Assert.hasText(path, "path is required.");
+            Assert.notNull(type, "type is required.");
+            Assert.notNull(extractor, "extractor is required.");
+            columns.add(new Column<>(path, type, extractor, longExtractor, descending));
+            return this;
+        }
+
+        public Ex09_KeysetDescriptor<T> build() {
+            Assert.notEmpty(columns, "At least one keyset column is required.");
+            return new Ex09_KeysetDescriptor<>(new ArrayList<>(columns));
+        }
+    }
+
+}
@@ -1,37 +1,76 @@
 package com.example.springbatch.part2;
 
-import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.TypedQuery;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.util.Assert;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.function.Function;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * No-Offset 기법을 사용하여 페이징 처리를 하는 ItemReader 구현체.
- * 대용량 데이터 조회 시 성능 저하를 방지하기 위해 id 값을 기준으로 다음 페이지를 조회합니다.
+ * 대용량 데이터 조회 시 성능 저하를 방지하기 위해 마지막으로 읽은 키 값을 기준으로 다음 페이지를 조회합니다.
+ * 키는 {@link Ex09_KeysetDescriptor}로 정의하며, (payment_date_time, id)와 같은 복합 키도 사용할 수 있습니다.
+ * <p>
+ * prefetchPages가 1 이상이면 현재 페이지가 처리되는 동안 별도의 스레드(별도의 커넥션과 세션)에서
+ * 다음 페이지들을 미리 조회하여, 청크마다 DB 왕복 시간을 기다리지 않도록 합니다.
+ * 조회된 엔티티가 다른 스레드의 세션에 묶이지 않도록 prefetch는 STATELESS 모드나 프로젝션 조회에서만 허용합니다.
+ * <p>
+ * 조회 방식은 {@link Ex09_NoOffsetReadMode}로 선택하며, 어느 방식이든 읽은 행이 영속성 컨텍스트에 계속 쌓이지 않습니다.
+ * <p>
+ * 조회된 페이지는 복사하지 않고 인덱스 커서로 순회하며, 페이지 경계와 체크포인트의 seek 키는 {@link Ex09_SeekKeyRing}에
+ * 원시 타입으로 보관하여 행마다 노드나 박싱 객체를 할당하지 않습니다.
+ * <p>
+ * keyRange가 설정되면 선두 키 컬럼이 [from, to) 범위인 행만 읽으므로, {@link Ex09_IdRangePartitioner}가 나눈 범위마다
+ * 리더 인스턴스를 하나씩 두어 병렬로 읽을 수 있습니다.
+ * <p>
+ * 페이지 크기는 {@link Ex09_AdaptivePageSize}가 정하며, 적응 모드에서는 조회 시간에 따라 페이지마다 크기가 달라질 수 있습니다.
+ * 그래서 페이지 경계가 청크 중간에 올 수 있으므로, MANAGED 모드의 영속성 컨텍스트는 페이지를 조회할 때가 아니라 청크 경계({@link #update})에서 비웁니다.
  *
  * @param <T> 조회할 엔티티 타입
  */
 public class Ex09_NoOffsetItemReader<T> implements ItemStreamReader<T> {
 
     private final EntityManagerFactory entityManagerFactory;
-    private EntityManager entityManager;
+    private Ex09_NoOffsetReadMode.Session session; // Step 스레드에서 페이지 조회에 사용하는 세션
+    private final Ex09_NoOffsetReadMode readMode; // 페이지 조회 방식 (managed 엔티티 / StatelessSession)
     private final String queryString;
     private final Map<String, Object> parameterValues;
-    private final int chunkSize;
-    private final Function<T, Long> idExtractor; // 조회된 엔티티에서 ID를 추출하는 함수
-    private Long firstId; // 현재 페이지의 시작 ID
-    private final Queue<T> buffer = new LinkedList<>(); // 조회된 데이터를 임시 저장하는 버퍼
+    private final Ex09_AdaptivePageSize pageSize; // 페이지 크기 정책 (고정 또는 조회 시간 기반 적응)
+    private final Ex09_KeysetDescriptor<T> keyset; // seek 조건과 정렬에 사용할 키 정의
+    private Ex09_SeekKeyRing<T> seekKeys; // 페이지 순번별 마지막 행의 키 (다음 페이지 조회의 시작점)
+    private Ex09_SeekKeyRing<T> checkpoint; // 재시작 시 복원할 키 (마지막으로 read()에서 반환한 행 기준)
+    private long pageSequence; // 현재 페이지의 순번 (open 시점의 시작 키가 0번)
+    private String firstPageQuery; // 첫 페이지 조회 쿼리 (seek 조건 없음)
+    private String nextPageQuery; // 다음 페이지 조회 쿼리 (seek 조건 포함)
+    private List<T> page; // 현재 페이지 (조회 결과를 복사하지 않고 그대로 사용)
+    private int cursor; // 현재 페이지에서 다음에 읽을 아이템의 인덱스
     private boolean isEnd = false; // 모든 데이터를 다 읽었는지 여부
     private final Class<T> targetType; // 조회할 엔티티의 클래스 타입
     private final String name;
+    private final int prefetchPages; // 미리 조회해 둘 최대 페이지 수 (0이면 동기 조회)
+    private ExecutorService prefetchExecutor; // 다음 페이지를 미리 조회하는 스레드
+    private BlockingQueue<PrefetchedPage<T>> prefetchedPages; // 미리 조회된 페이지 큐
+    private final Object keyRangeFrom; // 선두 키 컬럼의 하한 (포함, null이면 범위 제한 없음)
+    private final Object keyRangeTo; // 선두 키 컬럼의 상한 (미포함)
+    private boolean releaseAtChunkBoundary; // 청크 경계에서 읽은 엔티티를 영속성 컨텍스트에서 제거할지 여부 (MANAGED 엔티티 동기 조회)
+    private final List<List<T>> consumedPages = new ArrayList<>(); // 마지막 청크 경계 이후 다 읽고 교체된 페이지들 (아직 제거하지 않은 부분)
+    private int releasedCursor; // 현재 페이지에서 영속성 컨텍스트에서 제거한 아이템 수
+
+    // 복합 키 지원 이전 버전이 단일 id 키를 저장하던 키 (`id < :firstId`로 seek)
+    private static final String LEGACY_CHECKPOINT_KEY = "firstId";
+    private static final Pattern WHERE = Pattern.compile("\\bWHERE\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORDER_BY = Pattern.compile("\\bORDER\\s+BY\\b", Pattern.CASE_INSENSITIVE);
 
     /**
      * NoOffsetItemReader 생성자.
@@ -39,126 +78,353 @@ public class Ex09_NoOffsetItemReader<T> implements ItemStreamReader<T> {
      * @param entityManagerFactory JPA EntityManagerFactory
      * @param queryString          조회 JPQL 쿼리
      * @param parameterValues      쿼리 파라미터
-     * @param chunkSize            페이지 사이즈
-     * @param idExtractor          엔티티에서 ID를 추출하는 함수
+     * @param pageSize             페이지 크기 정책
+     * @param keyset               seek 조건과 정렬에 사용할 키 정의
      * @param targetType           조회할 엔티티의 클래스 타입
+     * @param prefetchPages        미리 조회해 둘 최대 페이지 수 (0이면 동기 조회)
+     * @param readMode             페이지 조회 방식
+     * @param keyRangeFrom         선두 키 컬럼의 하한 (포함, null이면 범위 제한 없음)
+     * @param keyRangeTo           선두 키 컬럼의 상한 (미포함)
      */
     Ex09_NoOffsetItemReader(
             EntityManagerFactory entityManagerFactory,
             String queryString,
             Map<String, Object> parameterValues,
-            int chunkSize,
-            Function<T, Long> idExtractor,
+            Ex09_AdaptivePageSize pageSize,
+            Ex09_KeysetDescriptor<T> keyset,
             Class<T> targetType,
-            String name
+            String name,
+            int prefetchPages,
+            Ex09_NoOffsetReadMode readMode,
+            Object keyRangeFrom,
+            Object keyRangeTo
     ) {
         this.entityManagerFactory = entityManagerFactory;
         this.queryString = queryString;
         this.parameterValues = parameterValues;
-        this.chunkSize = chunkSize;
-        this.idExtractor = idExtractor;
+        this.pageSize = pageSize;
+        this.keyset = keyset;
         this.targetType = targetType;
         this.name = name;
+        this.prefetchPages = prefetchPages;
+        this.readMode = readMode;
+        this.keyRangeFrom = keyRangeFrom;
+        this.keyRangeTo = keyRangeTo;
     }
 
     /**
      * ItemStream을 엽니다. Job 실행 전에 호출됩니다.
-     * EntityManager를 생성하고, ExecutionContext에서 이전에 저장된 firstId를 복원합니다.
+     * 페이지 조회용 세션을 열고, ExecutionContext에서 이전에 저장된 seek 키를 복원합니다.
      *
      * @param executionContext Job 실행 컨텍스트
      * @throws ItemStreamException
      */
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
-        this.entityManager = entityManagerFactory.createEntityManager();
-        if (executionContext.containsKey("firstId")) {
-            // Job 재시작 시, 이전에 저장된 firstId를 가져와서 중단된 지점부터 다시 시작
-            this.firstId = executionContext.getLong("firstId");
-        } else {
-            // Job이 처음 시작될 때, 쿼리에서 가장 큰 ID 값을 가져와 firstId에 저장합니다.
-            // 이 ID는 다음 페이지 조회의 시작점이 됩니다.
-            TypedQuery<T> query = entityManager
-                    .createQuery(queryString, this.targetType)
-                    .setMaxResults(1);
-            parameterValues.forEach(query::setParameter);
-            List<T> results = query.getResultList();
-
-            if (results.isEmpty()) {
-                // 조회 결과가 없으면 firstId를 0으로 설정
-                this.firstId = 0L;
+        if (prefetchPages == 0) {
+            // prefetch 모드에서는 prefetch 스레드가 전용 세션을 열어서 사용합니다.
+            this.session = readMode.open(entityManagerFactory);
+        }
+        this.releaseAtChunkBoundary = prefetchPages == 0
+                && readMode == Ex09_NoOffsetReadMode.MANAGED
+                && Ex09_NoOffsetReadMode.isEntity(entityManagerFactory, targetType);
+        this.consumedPages.clear();
+        this.releasedCursor = 0;
+        String rangePredicate = keyRangeFrom != null ? keyset.rangePredicate() : null;
+        this.firstPageQuery = createQuery(rangePredicate);
+        this.nextPageQuery = createQuery(rangePredicate != null ? keyset.seekPredicate() + " AND " + rangePredicate : keyset.seekPredicate());
+        // Job 재시작 시, 이전에 저장된 seek 키를 가져와서 중단된 지점부터 다시 시작합니다.
+        // 저장된 키가 없으면(최초 실행) seek 조건 없이 첫 페이지부터 조회합니다.
+        // 미리 조회 중인 페이지 수 + 현재 페이지 + 다음 조회 시작 키만큼의 슬롯이 필요합니다.
+        this.seekKeys = new Ex09_SeekKeyRing<>(keyset, prefetchPages + 2);
+        this.checkpoint = new Ex09_SeekKeyRing<>(keyset, 1);
+        if (!this.checkpoint.restore(0, executionContext, getExecutionContextKey())) {
+            restoreLegacyCheckpoint(executionContext);
+        }
+        this.pageSize.restore(executionContext, getPageSizeKey());
+        this.pageSequence = 0;
+        this.seekKeys.copy(checkpoint, 0, seekKeys.slot(pageSequence));
+        this.page = null;
+        this.cursor = 0;
+        this.isEnd = false;
+    }
+
+    /**
+     * 복합 키 지원 이전 버전으로 실행되다 실패한 Step을 재시작하는 경우, 새 형식의 키가 없고 `firstId`만 저장되어 있습니다.
+     * 이전 버전은 단일 id 내림차순(`id < :firstId`)으로만 seek 했으므로, 키 정의가 같은 형태일 때만 그 값을 seek 키로 복원합니다.
+     */
+    private void restoreLegacyCheckpoint(ExecutionContext executionContext) {
+        if (!executionContext.containsKey(LEGACY_CHECKPOINT_KEY)) {
+            return;
+        }
+        List<Ex09_KeysetDescriptor.Column<T, ?>> columns = keyset.getColumns();
+        Assert.state(columns.size() == 1 && columns.get(0).isDescending() && columns.get(0).getType() == Long.class,
+                "Legacy checkpoint '" + LEGACY_CHECKPOINT_KEY + "' can only be restored with a single descending Long keyset.");
+        this.checkpoint.storeLong(0, executionContext.getLong(LEGACY_CHECKPOINT_KEY));
+    }
+
+    /**
+     * 쿼리에 직접 작성된 ORDER BY 절의 내용(ORDER BY 이후)을 반환합니다. 없으면 null을 반환합니다.
+     */
+    static String orderByOf(String queryString) {
+        Matcher orderBy = ORDER_BY.matcher(queryString);
+        return orderBy.find() ? queryString.substring(orderBy.end()).trim() : null;
+    }
+
+    /**
+     * 외부에서 받은 기본 쿼리(queryString)에 seek 조건(및 범위 조건)과 정렬 조건을 조립합니다.
+     * 기존 WHERE 조건은 괄호로 감싸 seek 조건과 AND로 연결하고, 정렬은 항상 키 정의의 ORDER BY 절을 사용합니다.
+     * (쿼리에 작성된 ORDER BY 절은 빌더에서 키 정의와 같은 정렬인지 검증합니다)
+     *
+     * @param seekPredicate 추가할 조건 (조건이 없으면 null)
+     * @return 조립된 JPQL 쿼리
+     */
+    private String createQuery(String seekPredicate) {
+        Matcher orderBy = ORDER_BY.matcher(queryString);
+        boolean hasOrderBy = orderBy.find();
+        String body = hasOrderBy ? queryString.substring(0, orderBy.start()).trim() : queryString.trim();
+        String orderByClause = "ORDER BY " + keyset.orderByClause();
+
+        if (seekPredicate != null) {
+            Matcher where = WHERE.matcher(body);
+            if (where.find()) {
+                body = body.substring(0, where.start()) + "WHERE " + seekPredicate + " AND (" + body.substring(where.end()).trim() + ")";
             } else {
-                // 가장 큰 ID + 1을 시작점으로 설정하여 모든 데이터를 포함하도록 함
-                this.firstId = idExtractor.apply(results.get(0)) + 1;
+                body = body + " WHERE " + seekPredicate;
             }
         }
+        return body + " " + orderByClause;
     }
 
     /**
      * 다음 아이템을 읽습니다.
-     * 버퍼가 비어있고 아직 읽을 데이터가 남아있으면 `fillBuffer()`를 호출하여 버퍼를 채웁니다.
+     * 현재 페이지를 모두 읽었고 아직 읽을 데이터가 남아있으면 `fillBuffer()`를 호출하여 다음 페이지를 가져옵니다.
      *
      * @return 다음 아이템 또는 null (더 이상 아이템이 없을 경우)
      */
     @Override
     public T read() {
-        if (buffer.isEmpty() && !isEnd) {
+        if ((page == null || cursor >= page.size()) && !isEnd) {
             fillBuffer();
         }
-        return buffer.poll();
+        if (page == null || cursor >= page.size()) {
+            return null;
+        }
+        return page.get(cursor++);
     }
 
     /**
-     * 데이터베이스에서 다음 페이지를 조회하여 버퍼를 채웁니다.
-     * No-Offset 기법을 사용하여 `id < :firstId` 조건을 추가하여 다음 페이지를 조회합니다.
+     * 다음 페이지를 버퍼에 채웁니다.
+     * prefetch 모드이면 미리 조회된 페이지를 큐에서 꺼내고, 아니면 현재 스레드에서 직접 조회합니다.
      */
     private void fillBuffer() {
-        // 외부에서 받은 기본 쿼리(queryString)에 No-Offset 조건을 동적으로 추가합니다.
-        // 사용자 쿼리에 WHERE 절이 있다는 전제 하에 AND로 연결합니다.
-        String queryWithNoOffset = queryString.replace("WHERE", "WHERE id < :firstId AND");
+        // 현재 페이지를 교체하기 전에 마지막으로 읽은 아이템의 키를 체크포인트로 남깁니다.
+        storeCheckpoint();
+        if (releaseAtChunkBoundary && page != null) {
+            // 다 읽은 페이지지만 마지막 아이템들은 아직 청크 처리 중일 수 있으므로 청크 경계까지 영속성 컨텍스트에 남겨둡니다.
+            consumedPages.add(page.subList(releasedCursor, page.size()));
+        }
+        this.releasedCursor = 0;
+        List<T> results = prefetchPages > 0 ? takePrefetchedPage() : fetchNextPage();
+        this.page = results;
+        this.cursor = 0;
+        this.pageSequence++;
+        if (results.isEmpty()) {
+            // 조회 결과가 없으면 더 이상 읽을 데이터가 없음을 표시
+            this.isEnd = true;
+        }
+    }
 
-        TypedQuery<T> query = entityManager
-                .createQuery(queryWithNoOffset, this.targetType) // 최종적으로 조립된 쿼리를 사용합니다.
-                .setMaxResults(this.chunkSize);
+    /**
+     * 현재 스레드에서 다음 페이지를 조회하고, 그 다음 페이지 조회를 위해 마지막 행의 키를 링에 저장합니다.
+     */
+    private List<T> fetchNextPage() {
+        List<T> results = fetchPage(session, seekKeys.slot(pageSequence));
+        if (!results.isEmpty()) {
+            seekKeys.store(seekKeys.slot(pageSequence + 1), results.get(results.size() - 1));
+        }
+        return results;
+    }
+
+    /**
+     * 데이터베이스에서 주어진 키 다음의 한 페이지를 조회합니다.
+     * No-Offset 기법을 사용하여 마지막으로 조회한 키보다 뒤에 있는 행만 조회합니다.
+     * 조회에 걸린 시간은 페이지 크기 정책에 반영되어 다음 페이지 크기를 정하는 데 사용됩니다.
+     *
+     * @param session  조회에 사용할 세션
+     * @param seekSlot 마지막으로 조회한 행의 키가 저장된 링 슬롯 (키가 없으면 첫 페이지)
+     * @return 조회된 페이지
+     */
+    private List<T> fetchPage(Ex09_NoOffsetReadMode.Session session, int seekSlot) {
+        boolean hasSeekKey = seekKeys.isPresent(seekSlot);
+        int maxResults = pageSize.current();
+        TypedQuery<T> query = session
+                .createQuery(hasSeekKey ? nextPageQuery : firstPageQuery, this.targetType)
+                .setMaxResults(maxResults);
 
         // 외부에서 주입된 파라미터 설정 (e.g., paymentDate)
         parameterValues.forEach(query::setParameter);
-        // 내부 상태인 firstId 파라미터 설정
-        query.setParameter("firstId", this.firstId);
-
+        // 범위 제한 파라미터 설정
+        if (keyRangeFrom != null) {
+            query.setParameter(Ex09_KeysetDescriptor.RANGE_FROM_PARAMETER, keyRangeFrom);
+            query.setParameter(Ex09_KeysetDescriptor.RANGE_TO_PARAMETER, keyRangeTo);
+        }
+        // 내부 상태인 seek 키 파라미터 설정
+        if (hasSeekKey) {
+            seekKeys.bind(seekSlot, query);
+        }
+        long startedAt = System.nanoTime();
         List<T> results = query.getResultList();
-        if (results.isEmpty()) {
-            // 조회 결과가 없으면 더 이상 읽을 데이터가 없음을 표시
-            this.isEnd = true;
-        } else {
-            // 조회된 데이터를 버퍼에 추가하고, 다음 페이지 조회를 위해 firstId를 업데이트
-            buffer.addAll(results);
-            this.firstId = idExtractor.apply(results.get(results.size() - 1));
+        pageSize.record(maxResults, results.size(), System.nanoTime() - startedAt);
+        return results;
+    }
+
+    /**
+     * 미리 조회된 다음 페이지를 꺼냅니다. 처음 호출될 때 prefetch 스레드를 시작합니다.
+     * prefetch 스레드에서 발생한 예외는 Step 스레드로 다시 던져집니다.
+     *
+     * @return 조회된 페이지 (비어있으면 마지막 페이지)
+     */
+    private List<T> takePrefetchedPage() {
+        if (prefetchExecutor == null) {
+            startPrefetch(pageSequence);
+        }
+        try {
+            PrefetchedPage<T> page = prefetchedPages.take();
+            if (page.failure() != null) {
+                throw page.failure();
+            }
+            return page.items();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the next page", e);
         }
     }
 
+    /**
+     * 별도의 스레드에서 다음 페이지들을 미리 조회합니다.
+     * 큐의 크기(prefetchPages)만큼만 앞서 조회하며, 큐가 가득 차면 Step 스레드가 페이지를 꺼낼 때까지 대기합니다.
+     * Step 스레드의 세션과 커넥션을 공유하지 않도록 스레드 전용 세션을 사용합니다.
+     * seek 키 링은 prefetch 스레드만 읽고 쓰며, 링의 크기는 큐에 쌓일 수 있는 페이지 수보다 크므로 사용 중인 슬롯을 덮어쓰지 않습니다.
+     *
+     * @param startSequence 조회를 시작할 키가 저장된 페이지 순번
+     */
+    private void startPrefetch(long startSequence) {
+        BlockingQueue<PrefetchedPage<T>> queue = new ArrayBlockingQueue<>(prefetchPages);
+        this.prefetchedPages = queue;
+        this.prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.prefetchExecutor.execute(() -> {
+            Ex09_NoOffsetReadMode.Session prefetchSession = readMode.open(entityManagerFactory);
+            try {
+                long sequence = startSequence;
+                while (!Thread.currentThread().isInterrupted()) {
+                    // prefetch는 STATELESS 모드나 프로젝션 조회에서만 사용하므로 Step 스레드가 처리 중인 엔티티에 영향이 없습니다.
+                    prefetchSession.clear();
+                    List<T> results = fetchPage(prefetchSession, seekKeys.slot(sequence));
+                    if (!results.isEmpty()) {
+                        seekKeys.store(seekKeys.slot(sequence + 1), results.get(results.size() - 1));
+                    }
+                    queue.put(new PrefetchedPage<>(results, null));
+                    if (results.isEmpty()) {
+                        break;
+                    }
+                    sequence++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                try {
+                    queue.put(new PrefetchedPage<>(null, e));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            } finally {
+                prefetchSession.close();
+            }
+        });
+    }
+
     /**
      * ItemStream의 상태를 업데이트합니다. Step 실행 중간에 주기적으로 호출됩니다.
-     * 현재 페이지의 마지막 ID를 `firstId`로 ExecutionContext에 저장하여 Job 실패 시 복구할 수 있도록 합니다.
+     * 마지막으로 read()에서 반환한 아이템의 키와 현재 페이지 크기를 ExecutionContext에 저장하여 Job 실패 시 복구할 수 있도록 합니다.
+     * 미리 조회만 되고 아직 처리되지 않은 페이지의 키는 저장하지 않으므로, prefetch 모드에서도 재시작 지점이 앞서가지 않습니다.
+     * 청크의 쓰기가 끝난 뒤에 호출되므로, 이 시점에 읽은 엔티티를 영속성 컨텍스트에서 제거합니다.
      *
      * @param executionContext Job 실행 컨텍스트
      * @throws ItemStreamException
      */
     @Override
     public void update(ExecutionContext executionContext) throws ItemStreamException {
-        executionContext.putLong("firstId", this.firstId);
+        storeCheckpoint();
+        if (checkpoint.isPresent(0)) {
+            checkpoint.save(0, executionContext, getExecutionContextKey());
+        }
+        pageSize.save(executionContext, getPageSizeKey());
+        releaseReadItems();
+    }
+
+    /**
+     * 마지막 청크 경계 이후 read()에서 반환한 엔티티를 영속성 컨텍스트에서 제거합니다.
+     * 현재 페이지를 모두 읽었으면 영속성 컨텍스트 전체를 비우고, 아직 읽지 않은 행이 남아 있으면 다음 청크에서 사용할 엔티티는 남겨두고 읽은 엔티티만 detach 합니다.
+     */
+    private void releaseReadItems() {
+        if (!releaseAtChunkBoundary || page == null) {
+            return;
+        }
+        if (cursor >= page.size()) {
+            session.clear();
+        } else {
+            consumedPages.forEach(consumed -> consumed.forEach(session::detach));
+            page.subList(releasedCursor, cursor).forEach(session::detach);
+        }
+        consumedPages.clear();
+        releasedCursor = cursor;
+    }
+
+    /**
+     * 현재 페이지에서 마지막으로 read()에서 반환한 아이템의 키를 체크포인트 슬롯에 저장합니다.
+     */
+    private void storeCheckpoint() {
+        if (page != null && cursor > 0) {
+            checkpoint.store(0, page.get(cursor - 1));
+        }
+    }
+
+    private String getExecutionContextKey() {
+        return name + ".seekKey.";
+    }
+
+    private String getPageSizeKey() {
+        return name + ".pageSize";
     }
 
     /**
      * ItemStream을 닫습니다. Job 실행 완료 또는 실패 시 호출됩니다.
-     * 사용된 EntityManager를 닫습니다.
+     * prefetch 스레드를 중단하고, 사용된 세션을 닫습니다.
      *
      * @throws ItemStreamException
      */
     @Override
     public void close() throws ItemStreamException {
-        if (entityManager != null) {
-            entityManager.close();
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+            prefetchExecutor = null;
+            prefetchedPages = null;
+        }
+        if (session != null) {
+            session.close();
+            session = null;
         }
     }
 
+    /**
+     * prefetch 스레드가 조회한 페이지 또는 조회 중 발생한 예외를 Step 스레드로 전달하기 위한 객체입니다.
+     */
+    private record PrefetchedPage<T>(List<T> items, RuntimeException failure) {
+    }
+
 }
\ No newline at end of file
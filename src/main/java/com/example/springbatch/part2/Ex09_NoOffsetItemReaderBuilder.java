@@ -3,9 +3,10 @@ package com.example.springbatch.part2;
 import jakarta.persistence.EntityManagerFactory;
 import org.springframework.util.Assert;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 /**
  * {@link Ex09_NoOffsetItemReader}를 생성하는 빌더 클래스입니다.
@@ -19,9 +20,17 @@ public class Ex09_NoOffsetItemReaderBuilder<T> {
     private int chunkSize;
     private String queryString;
     private Map<String, Object> parameterValues = new HashMap<>();
-    private Function<T, Long> idExtractor;
+    private ToLongFunction<T> idExtractor;
+    private Ex09_KeysetDescriptor<T> keyset;
     private String name;
     private Class<T> targetType;
+    private int prefetchPages = 0;
+    private Ex09_NoOffsetReadMode readMode = Ex09_NoOffsetReadMode.MANAGED;
+    private Object keyRangeFrom;
+    private Object keyRangeTo;
+    private int minPageSize;
+    private int maxPageSize;
+    private Duration targetLatency;
 
     /**
      * ItemReader의 이름을 설정합니다. Spring Batch 메타데이터에 저장될 이름입니다.
@@ -80,16 +89,30 @@ public class Ex09_NoOffsetItemReaderBuilder<T> {
 
     /**
      * 아이템에서 ID를 추출하는 함수를 설정합니다.
-     * 이 ID는 다음 페이지 조회를 위한 'seek' 조건으로 사용됩니다.
+     * 이 ID는 다음 페이지 조회를 위한 'seek' 조건으로 사용됩니다. (id 내림차순)
+     * 쿼리에 `ORDER BY ps.id DESC`처럼 id 정렬을 직접 적었다면 그 경로로 seek 합니다.
      *
      * @param idExtractor ID 추출 함수
      * @return 빌더 인스턴스
      */
-    public Ex09_NoOffsetItemReaderBuilder<T> idExtractor(Function<T, Long> idExtractor) {
+    public Ex09_NoOffsetItemReaderBuilder<T> idExtractor(ToLongFunction<T> idExtractor) {
         this.idExtractor = idExtractor;
         return this;
     }
 
+    /**
+     * seek 조건과 정렬에 사용할 (복합) 키를 설정합니다.
+     * (payment_date_time, id)처럼 유일하지 않은 정렬 컬럼으로 seek 해야 할 때 사용하며, 설정 시 idExtractor 대신 사용됩니다.
+     * 쿼리에 ORDER BY 절이 없으면 키 정의에 맞는 ORDER BY 절이 자동으로 추가되며, 직접 작성한 ORDER BY 절은 키 정의와 같은 정렬이어야 합니다.
+     *
+     * @param keyset 키 정의
+     * @return 빌더 인스턴스
+     */
+    public Ex09_NoOffsetItemReaderBuilder<T> keyset(Ex09_KeysetDescriptor<T> keyset) {
+        this.keyset = keyset;
+        return this;
+    }
+
     /**
      * 조회할 대상 엔티티의 클래스 타입을 설정합니다.
      *
@@ -101,6 +124,81 @@ public class Ex09_NoOffsetItemReaderBuilder<T> {
         return this;
     }
 
+    /**
+     * 미리 조회해 둘 최대 페이지 수를 설정합니다. (기본값 0: 동기 조회)
+     * 1 이상으로 설정하면 현재 페이지가 처리되는 동안 별도의 스레드와 EntityManager로 다음 페이지를 조회합니다.
+     * 미리 조회된 페이지는 메모리에 보관되므로 (prefetchPages + 1) * chunkSize 만큼의 엔티티가 동시에 메모리에 올라갈 수 있습니다.
+     * <p>
+     * MANAGED 모드로 엔티티를 조회하면 Step 스레드가 처리 중인 엔티티가 prefetch 스레드의 EntityManager에 속하게 되어,
+     * 다음 페이지를 조회하기 전의 clear가 처리 중인 엔티티를 준영속으로 만들고 지연 로딩이 다른 스레드의 세션을 사용하게 됩니다.
+     * 그래서 prefetch는 STATELESS 모드이거나 생성자 프로젝션을 조회할 때만 사용할 수 있습니다.
+     *
+     * @param prefetchPages 미리 조회할 페이지 수
+     * @return 빌더 인스턴스
+     */
+    public Ex09_NoOffsetItemReaderBuilder<T> prefetchPages(int prefetchPages) {
+        this.prefetchPages = prefetchPages;
+        return this;
+    }
+
+    /**
+     * 페이지 조회 방식을 설정합니다. (기본값 MANAGED: 페이지마다 영속성 컨텍스트를 비우는 EntityManager 조회)
+     * 조회한 엔티티를 수정할 필요가 없다면 STATELESS를 사용하여 영속성 컨텍스트와 dirty checking 비용을 없앨 수 있습니다.
+     *
+     * @param readMode 페이지 조회 방식
+     * @return 빌더 인스턴스
+     */
+    public Ex09_NoOffsetItemReaderBuilder<T> readMode(Ex09_NoOffsetReadMode readMode) {
+        this.readMode = readMode;
+        return this;
+    }
+
+    /**
+     * 선두 키 컬럼을 [from, to) 범위로 제한합니다.
+     * {@link Ex09_IdRangePartitioner}가 StepExecutionContext에 담아준 minId, maxId를 그대로 넘기면 파티션별로 범위가 나뉜 리더가 됩니다.
+     *
+     * @param from 하한 (포함)
+     * @param to   상한 (미포함)
+     * @return 빌더 인스턴스
+     */
+    public Ex09_NoOffsetItemReaderBuilder<T> keyRange(Object from, Object to) {
+        this.keyRangeFrom = from;
+        this.keyRangeTo = to;
+        return this;
+    }
+
+    /**
+     * 페이지 크기를 조회 시간에 따라 조정하는 적응 모드를 사용합니다.
+     * chunkSize를 첫 페이지 크기로 사용하고, 이후에는 페이지 조회 시간이 targetLatency에 가까워지도록
+     * [minPageSize, maxPageSize] 범위 안에서 페이지 크기를 늘리거나 줄입니다.
+     * 선택된 페이지 크기는 ExecutionContext에 저장되어 재시작 시 그대로 이어서 사용됩니다.
+     *
+     * @param minPageSize   최소 페이지 크기
+     * @param maxPageSize   최대 페이지 크기
+     * @param targetLatency 목표 페이지 조회 시간
+     * @return 빌더 인스턴스
+     */
+    public Ex09_NoOffsetItemReaderBuilder<T> adaptivePageSize(int minPageSize, int maxPageSize, Duration targetLatency) {
+        this.minPageSize = minPageSize;
+        this.maxPageSize = maxPageSize;
+        this.targetLatency = targetLatency;
+        return this;
+    }
+
+    /**
+     * idExtractor만 설정했을 때 seek 할 id의 JPQL 경로를 정합니다.
+     * 기존 쿼리처럼 `ORDER BY ps.id DESC`로 정렬 컬럼 하나를 직접 적었다면 그 경로를 그대로 사용하고, ORDER BY가 없으면 `id`를 사용합니다.
+     *
+     * @param orderBy 쿼리의 ORDER BY 이후 내용 (없으면 null)
+     * @return id의 JPQL 경로
+     */
+    private static String legacyIdPath(String orderBy) {
+        if (orderBy == null || orderBy.contains(",")) {
+            return "id";
+        }
+        return orderBy.trim().split("\\s+")[0];
+    }
+
     /**
      * 설정된 값들을 기반으로 {@link Ex09_NoOffsetItemReader} 인스턴스를 생성합니다.
      * 필수 값이 설정되었는지 검증합니다.
@@ -110,19 +208,39 @@ public class Ex09_NoOffsetItemReaderBuilder<T> {
     public Ex09_NoOffsetItemReader<T> build() {
         Assert.notNull(entityManagerFactory, "EntityManagerFactory is required.");
         Assert.notNull(queryString, "Query string is required.");
-        Assert.notNull(idExtractor, "ID extractor function is required.");
+        Assert.state(idExtractor != null || keyset != null, "ID extractor function or keyset is required.");
         Assert.notNull(targetType, "Target type is required.");
         Assert.notNull(name, "name is required.");
         Assert.state(chunkSize > 0, "chunkSize must be greater than 0.");
+        Assert.state(prefetchPages >= 0, "prefetchPages must not be negative.");
+        Assert.notNull(readMode, "readMode is required.");
+        Assert.state(prefetchPages == 0 || readMode == Ex09_NoOffsetReadMode.STATELESS
+                        || !Ex09_NoOffsetReadMode.isEntity(entityManagerFactory, targetType),
+                "prefetchPages requires STATELESS readMode or a projection target type; MANAGED entities cannot be shared across threads.");
+        Assert.state((keyRangeFrom == null) == (keyRangeTo == null), "keyRange requires both from and to.");
+        String orderBy = Ex09_NoOffsetItemReader.orderByOf(queryString);
+        Ex09_KeysetDescriptor<T> keyset = this.keyset != null ? this.keyset : Ex09_KeysetDescriptor.descending(legacyIdPath(orderBy), this.idExtractor);
+        Assert.state(orderBy == null || keyset.matchesOrderBy(orderBy),
+                () -> "ORDER BY (" + orderBy + ") must match the keyset (" + keyset.orderByClause() + ") or be omitted.");
+        if (targetLatency != null) {
+            Assert.state(minPageSize > 0 && minPageSize <= maxPageSize, "minPageSize must be greater than 0 and not greater than maxPageSize.");
+            Assert.state(!targetLatency.isNegative() && !targetLatency.isZero(), "targetLatency must be positive.");
+        }
 
         return new Ex09_NoOffsetItemReader<>(
                 this.entityManagerFactory,
                 this.queryString,
                 this.parameterValues,
-                this.chunkSize,
-                this.idExtractor,
+                this.targetLatency != null
+                        ? Ex09_AdaptivePageSize.adaptive(this.chunkSize, this.minPageSize, this.maxPageSize, this.targetLatency)
+                        : Ex09_AdaptivePageSize.fixed(this.chunkSize),
+                keyset,
                 this.targetType,
-                this.name
+                this.name,
+                this.prefetchPages,
+                this.readMode,
+                this.keyRangeFrom,
+                this.keyRangeTo
         );
     }
 
@@ -0,0 +1,116 @@
+package com.example.springbatch.part2;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+/**
+ * {@link Ex09_NoOffsetItemReader}가 페이지를 조회할 때 사용할 세션 방식입니다.
+ * <p>
+ * 조회 쿼리를 `SELECT new ...Record(...)` 형태의 생성자 프로젝션으로 작성하면 어떤 모드에서도 결과가 영속성 컨텍스트에 포함되지 않습니다.
+ */
+public enum Ex09_NoOffsetReadMode {
+
+    /**
+     * EntityManager로 관리되는(managed) 엔티티를 조회합니다.
+     * 영속성 컨텍스트가 읽은 행 수만큼 계속 커지지 않도록 청크가 끝날 때(update) 이미 처리된 엔티티를 비웁니다.
+     * 처리가 끝난 청크의 엔티티는 준영속(detached) 상태가 되므로, 다음 청크에서 지연 로딩이 필요한 연관관계는 fetch join으로 함께 조회해야 합니다.
+     */
+    MANAGED {
+        @Override
+        Session open(EntityManagerFactory entityManagerFactory) {
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            return new Session() {
+                @Override
+                public <T> TypedQuery<T> createQuery(String queryString, Class<T> targetType) {
+                    return entityManager.createQuery(queryString, targetType);
+                }
+
+                @Override
+                public void clear() {
+                    entityManager.clear();
+                }
+
+                @Override
+                public void detach(Object entity) {
+                    entityManager.detach(entity);
+                }
+
+                @Override
+                public void close() {
+                    entityManager.close();
+                }
+            };
+        }
+    },
+
+    /**
+     * Hibernate StatelessSession으로 조회합니다.
+     * 영속성 컨텍스트(1차 캐시)와 dirty checking 없이 조회하므로 읽은 행 수와 관계없이 힙 사용량이 일정합니다.
+     * 조회된 엔티티는 처음부터 준영속 상태이며, 지연 로딩 연관관계는 사용할 수 없습니다.
+     */
+    STATELESS {
+        @Override
+        Session open(EntityManagerFactory entityManagerFactory) {
+            StatelessSession statelessSession = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession();
+            return new Session() {
+                @Override
+                public <T> TypedQuery<T> createQuery(String queryString, Class<T> targetType) {
+                    return statelessSession.createQuery(queryString, targetType);
+                }
+
+                @Override
+                public void clear() {
+                    // StatelessSession은 영속성 컨텍스트가 없으므로 비울 것이 없습니다.
+                }
+
+                @Override
+                public void detach(Object entity) {
+                    // StatelessSession이 조회한 엔티티는 처음부터 준영속 상태입니다.
+                }
+
+                @Override
+                public void close() {
+                    statelessSession.close();
+                }
+            };
+        }
+    };
+
+    /**
+     * 페이지 조회에 사용할 세션을 엽니다. 세션은 하나의 스레드에서만 사용해야 합니다.
+     *
+     * @param entityManagerFactory JPA EntityManagerFactory
+     * @return 세션
+     */
+    abstract Session open(EntityManagerFactory entityManagerFactory);
+
+    /**
+     * 조회 대상 타입이 엔티티인지 여부를 반환합니다. 생성자 프로젝션(레코드, DTO)이면 false입니다.
+     *
+     * @param entityManagerFactory JPA EntityManagerFactory
+     * @param targetType           조회 대상 타입
+     * @return 엔티티이면 true
+     */
+    static boolean isEntity(EntityManagerFactory entityManagerFactory, Class<?> targetType) {
+        return entityManagerFactory.getMetamodel().getEntities().stream()
+                .anyMatch(entityType -> entityType.getJavaType() == targetType);
+    }
+
+    /**
+     * 읽기 모드에 관계없이 동일한 방식으로 페이지를 조회하기 위한 세션 추상화입니다.
+     */
+    interface Session {
+
+        <T> TypedQuery<T> createQuery(String queryString, Class<T> targetType);
+
+        void clear();
+
+        void detach(Object entity);
+
+        void close();
+    }
+
+}
@@ -108,6 +108,106 @@ public class Ex09_PaymentReportConfig {
 //                .build();
 //    }
 //
+//    /**
+//     * 복합 키 (payment_date_time, id) 기준으로 seek 하는 No Offset ItemReader 예시입니다.
+//     * payment_date_time 인덱스(InnoDB 보조 인덱스는 PK를 포함)를 그대로 range scan 하므로 PK 인덱스 풀 스캔이나 offset 페이징이 필요 없습니다.
+//     */
+//    @Bean
+//    @StepScope
+//    public Ex09_NoOffsetItemReader<PaymentSourceV2> compositeKeyNoOffsetItemReader(
+//            @Value("#{jobParameters['paymentDate']}") LocalDate paymentDate
+//    ) {
+//        return new Ex09_NoOffsetItemReaderBuilder<PaymentSourceV2>()
+//                .entityManagerFactory(entityManagerFactory)
+//                .queryString("SELECT ps FROM PaymentSourceV2 ps WHERE ps.paymentDateTime >= :from AND ps.paymentDateTime < :to")
+//                .parameterValues(Map.of("from", paymentDate.atStartOfDay(), "to", paymentDate.plusDays(1).atStartOfDay()))
+//                .chunkSize(chunkSize)
+//                .name("compositeKeyNoOffsetItemReader")
+//                .keyset(Ex09_KeysetDescriptor.<PaymentSourceV2>builder()
+//                        .descending("ps.paymentDateTime", LocalDateTime.class, PaymentSourceV2::getPaymentDateTime)
+//                        .descending("ps.id", PaymentSourceV2::getId)
+//                        .build())
+//                .targetType(PaymentSourceV2.class)
+//                .build();
+//    }
+//
+//    /**
+//     * 엔티티 대신 레코드로 프로젝션하여 조회하는 No Offset ItemReader 예시입니다.
+//     * StatelessSession으로 조회하고 결과도 레코드이므로, 읽은 행이 영속성 컨텍스트에 쌓이지 않아 힙 사용량이 일정하게 유지됩니다.
+//     */
+//    @Bean
+//    @StepScope
+//    public Ex09_NoOffsetItemReader<Ex09_PaymentSourceRow> projectionNoOffsetItemReader(
+//            @Value("#{jobParameters['paymentDate']}") LocalDate paymentDate
+//    ) {
+//        return new Ex09_NoOffsetItemReaderBuilder<Ex09_PaymentSourceRow>()
+//                .entityManagerFactory(entityManagerFactory)
+//                .queryString("SELECT new com.example.springbatch.part2.Ex09_PaymentSourceRow(ps.id, ps.finalAmount, ps.paymentDate) " +
+//                        "FROM PaymentSource ps WHERE ps.paymentDate = :paymentDate")
+//                .parameterValues(Collections.singletonMap("paymentDate", paymentDate))
+//                .chunkSize(chunkSize)
+//                .name("projectionNoOffsetItemReader")
+//                .keyset(Ex09_KeysetDescriptor.descending("ps.id", Ex09_PaymentSourceRow::id))
+//                .readMode(Ex09_NoOffsetReadMode.STATELESS)
+//                .targetType(Ex09_PaymentSourceRow.class)
+//                .build();
+//    }
+//
+//    /**
+//     * id 범위로 나눈 파티션을 병렬로 읽는 매니저 스텝 예시입니다.
+//     * 날짜별 데이터 편차와 관계없이 파티션마다 비슷한 행 수를 읽도록 equalCount로 구간을 나눕니다.
+//     */
+//    @Bean
+//    @JobScope
+//    public Step idRangeManagerStep(
+//            @Value("#{jobParameters['paymentDate']}") LocalDate paymentDate,
+//            Step idRangeWorkerStep
+//    ) {
+//        return new StepBuilder("idRangeManagerStep", jobRepository)
+//                .partitioner("idRangeWorkerStep", new Ex09_IdRangePartitioner(
+//                        entityManagerFactory,
+//                        "FROM PaymentSource ps WHERE ps.paymentDate = :paymentDate",
+//                        "ps.id",
+//                        Collections.singletonMap("paymentDate", paymentDate),
+//                        true
+//                ))
+//                .step(idRangeWorkerStep)
+//                .gridSize(Runtime.getRuntime().availableProcessors())
+//                .taskExecutor(new SimpleAsyncTaskExecutor("id-range-"))
+//                .build();
+//    }
+//
+//    @Bean
+//    public Step idRangeWorkerStep(
+//            Ex09_NoOffsetItemReader<PaymentSource> idRangeNoOffsetItemReader
+//    ) {
+//        return new StepBuilder("idRangeWorkerStep", jobRepository)
+//                .<PaymentSource, Payment>chunk(chunkSize, transactionManager)
+//                .reader(idRangeNoOffsetItemReader)
+//                .processor(paymentReportProcessor())
+//                .writer(paymentReportWriter())
+//                .build();
+//    }
+//
+//    @Bean
+//    @StepScope
+//    public Ex09_NoOffsetItemReader<PaymentSource> idRangeNoOffsetItemReader(
+//            @Value("#{jobParameters['paymentDate']}") LocalDate paymentDate,
+//            @Value("#{stepExecutionContext['minId']}") Long minId,
+//            @Value("#{stepExecutionContext['maxId']}") Long maxId
+//    ) {
+//        return new Ex09_NoOffsetItemReaderBuilder<PaymentSource>()
+//                .entityManagerFactory(entityManagerFactory)
+//                .queryString("SELECT ps FROM PaymentSource ps WHERE ps.paymentDate = :paymentDate ORDER BY ps.id DESC")
+//                .parameterValues(Collections.singletonMap("paymentDate", paymentDate))
+//                .chunkSize(chunkSize)
+//                .name("idRangeNoOffsetItemReader")
+//                .idExtractor(PaymentSource::getId)
+//                .keyRange(minId, maxId)
+//                .targetType(PaymentSource.class)
+//                .build();
+//    }
+//
 //
 //    private ItemProcessor<PaymentSource, Payment> paymentReportProcessor() {
 //        return paymentSource -> {
@@ -0,0 +1,20 @@
+package com.example.springbatch.part2;
+
+import com.example.springbatch.common.Money;
+
+import java.time.LocalDate;
+
+/**
+ * PaymentSource 중 리포트 생성에 필요한 컬럼만 담는 조회 전용 레코드입니다.
+ * JPQL 생성자 프로젝션(`SELECT new ...`)으로 조회하므로 영속성 컨텍스트에 포함되지 않습니다.
+ *
+ * @param id          결제 원천 ID (seek 키)
+ * @param finalAmount 최종 금액 (PaymentSource.finalAmount와 같은 Money 타입이어야 생성자 프로젝션이 일치합니다.)
+ * @param paymentDate 결제 일자
+ */
+public record Ex09_PaymentSourceRow(
+        Long id,
+        Money finalAmount,
+        LocalDate paymentDate
+) {
+}
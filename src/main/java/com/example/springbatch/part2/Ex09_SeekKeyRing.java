@@ -0,0 +1,136 @@
+package com.example.springbatch.part2;
+
+import jakarta.persistence.TypedQuery;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+/**
+ * {@link Ex09_NoOffsetItemReader}의 페이지 경계 seek 키를 보관하는 고정 크기 링 버퍼입니다.
+ * <p>
+ * 키 컬럼 중 long으로 표현 가능한 컬럼(Long, Integer, LocalDate, LocalDateTime)은 {@code long[]}에 그대로 저장하여
+ * 키를 저장하거나 슬롯 사이에 복사할 때 Long/Object[] 객체를 새로 만들지 않습니다. 문자열처럼 long으로 표현할 수 없는 컬럼만 참조로 저장합니다.
+ * 쿼리 파라미터로 바인딩할 때({@link #bind})와 체크포인트 문자열을 만들 때는 값 객체를 만듭니다.
+ * 슬롯 번호는 페이지 순번을 용량으로 나눈 나머지이며, 한 슬롯은 하나의 스레드만 쓰도록 호출하는 쪽에서 보장해야 합니다.
+ *
+ * @param <T> 조회할 엔티티 타입
+ */
+final class Ex09_SeekKeyRing<T> {
+
+    private final List<Ex09_KeysetDescriptor.Column<T, ?>> columns;
+    private final int width;
+    private final int capacity;
+    private final long[] encodedKeys;
+    private final Object[] referenceKeys;
+    private final boolean[] present;
+
+    Ex09_SeekKeyRing(Ex09_KeysetDescriptor<T> keyset, int capacity) {
+        this.columns = keyset.getColumns();
+        this.width = columns.size();
+        this.capacity = capacity;
+        this.encodedKeys = new long[capacity * width];
+        this.referenceKeys = new Object[capacity * width];
+        this.present = new boolean[capacity];
+    }
+
+    /**
+     * 페이지 순번에 해당하는 슬롯 번호를 반환합니다.
+     */
+    int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    boolean isPresent(int slot) {
+        return present[slot];
+    }
+
+    /**
+     * 아이템의 키를 슬롯에 저장합니다.
+     */
+    void store(int slot, T item) {
+        int offset = slot * width;
+        for (int i = 0; i < width; i++) {
+            Ex09_KeysetDescriptor.Column<T, ?> column = columns.get(i);
+            if (column.isLongEncodable()) {
+                encodedKeys[offset + i] = column.encode(item);
+            } else {
+                referenceKeys[offset + i] = column.extract(item);
+            }
+        }
+        present[slot] = true;
+    }
+
+    /**
+     * long으로 인코딩된 단일 컬럼 키를 슬롯에 저장합니다. (이전 버전 체크포인트 복원용)
+     */
+    void storeLong(int slot, long value) {
+        Assert.state(width == 1 && columns.get(0).isLongEncodable(), "storeLong requires a single long encodable column.");
+        encodedKeys[slot] = value;
+        present[slot] = true;
+    }
+
+    /**
+     * 다른 링의 슬롯에 저장된 키를 이 링의 슬롯으로 복사합니다.
+     */
+    void copy(Ex09_SeekKeyRing<T> source, int sourceSlot, int slot) {
+        System.arraycopy(source.encodedKeys, sourceSlot * width, encodedKeys, slot * width, width);
+        System.arraycopy(source.referenceKeys, sourceSlot * width, referenceKeys, slot * width, width);
+        present[slot] = source.present[sourceSlot];
+    }
+
+    void clear(int slot) {
+        present[slot] = false;
+    }
+
+    /**
+     * 슬롯에 저장된 키를 seek 조건의 파라미터로 바인딩합니다.
+     */
+    void bind(int slot, TypedQuery<?> query) {
+        int offset = slot * width;
+        for (int i = 0; i < width; i++) {
+            Ex09_KeysetDescriptor.Column<T, ?> column = columns.get(i);
+            Object value = column.isLongEncodable() ? column.decode(encodedKeys[offset + i]) : referenceKeys[offset + i];
+            query.setParameter(Ex09_KeysetDescriptor.parameterName(i), value);
+        }
+    }
+
+    /**
+     * 슬롯에 저장된 키를 ExecutionContext에 저장합니다.
+     */
+    void save(int slot, ExecutionContext executionContext, String prefix) {
+        int offset = slot * width;
+        for (int i = 0; i < width; i++) {
+            Ex09_KeysetDescriptor.Column<T, ?> column = columns.get(i);
+            String value = column.isLongEncodable()
+                    ? column.formatEncoded(encodedKeys[offset + i])
+                    : referenceKeys[offset + i].toString();
+            executionContext.putString(prefix + i, value);
+        }
+    }
+
+    /**
+     * ExecutionContext에 저장된 키를 슬롯으로 복원합니다.
+     *
+     * @return 저장된 키가 있으면 true
+     */
+    boolean restore(int slot, ExecutionContext executionContext, String prefix) {
+        if (!executionContext.containsKey(prefix + 0)) {
+            present[slot] = false;
+            return false;
+        }
+        int offset = slot * width;
+        for (int i = 0; i < width; i++) {
+            Ex09_KeysetDescriptor.Column<T, ?> column = columns.get(i);
+            String value = executionContext.getString(prefix + i);
+            if (column.isLongEncodable()) {
+                encodedKeys[offset + i] = column.parseEncoded(value);
+            } else {
+                referenceKeys[offset + i] = column.parse(value);
+            }
+        }
+        present[slot] = true;
+        return true;
+    }
+
+}
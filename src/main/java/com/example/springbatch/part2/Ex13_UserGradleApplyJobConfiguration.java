@@ -2,6 +2,7 @@ package com.example.springbatch.part2;
 
 import com.example.springbatch.common.OrderClient;
 import com.example.springbatch.common.UserRepository;
+import com.example.springbatch.common.VirtualThreadTaskExecutors;
 import com.example.springbatch.common.entity.User;
 import com.example.springbatch.common.listener.ChunkDurationTrackerListener;
 import com.example.springbatch.common.listener.StepDurationTrackerListener;
@@ -20,6 +21,7 @@ import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JpaCursorItemReader;
 import org.springframework.batch.item.database.builder.JpaCursorItemReaderBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -35,6 +37,9 @@ import java.util.stream.Collectors;
        - 회원 수마다 UPDATE 쿼리가 나가면, Chunk Size만큼 DB I/O가 발생한다.
        - 이는 성능적인 부분도 이슈이지만, DB에 좋지 못한 영향을 줄 수 있다.
        - 때문에 등급별로 그룹지어 한 번의 UPDATE를 수행하게 성능개선을 할 수 있다.
+       - Schedulers.io()는 플랫폼 스레드를 캐싱해 사용하므로, 호출 하나에 150ms씩 대기하는 등급 조회를 많이 동시에 보내면 그만큼 플랫폼 스레드가 늘어난다.
+         Java 21 이상이라면 threadMode=virtual로 실행하여 호출마다 가상 스레드를 사용하고, 동시 호출 수는 concurrencyLimit으로 제한할 수 있다.
+         (--job.name=userGradleApplyJob threadMode=virtual)
  */
 @Slf4j
 @Configuration
@@ -83,11 +88,19 @@ public class Ex13_UserGradleApplyJobConfiguration {
 //    }
 //
 //    @Bean
-//    public ItemWriter<User> writer() {
+//    @StepScope
+//    public ItemWriter<User> writer(
+//            @Value("#{jobParameters['threadMode'] ?: 'platform'}") String threadMode
+//    ) {
+//        // threadMode=virtual이면 등급 조회를 가상 스레드에서 동시에 최대 200건까지만 호출합니다. (가상 스레드는 스레드 수로 동시성이 제한되지 않으므로 반드시 제한을 둡니다)
+//        final var scheduler = "virtual".equals(threadMode)
+//                ? Schedulers.from(VirtualThreadTaskExecutors.create("grade-vthread-", 200))
+//                : Schedulers.io();
+//        final var parallelism = "virtual".equals(threadMode) ? 200 : Runtime.getRuntime().availableProcessors();
 //        return users -> {
 //            var appliedGradeUsers = Flowable.fromIterable(users.getItems())
-//                    .parallel()
-//                    .runOn(Schedulers.io())
+//                    .parallel(parallelism)
+//                    .runOn(scheduler)
 //                    .map(user -> {
 //                        final var grade = orderClient.getGrade(user.getId());
 //                        user.setGrade(grade);
@@ -107,4 +120,4 @@ public class Ex13_UserGradleApplyJobConfiguration {
 //        };
 //    }
 
-}
\ No newline at end of file
+}
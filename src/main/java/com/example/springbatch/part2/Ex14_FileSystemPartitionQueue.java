@@ -0,0 +1,267 @@
+package com.example.springbatch.part2;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 디렉터리를 큐로 사용하는 {@link Ex14_PartitionQueue} 구현체입니다. 같은 장비에서 실행한 여러 JVM이 하나의 디렉터리를 공유하여 파티션을 나누어 가집니다.
+ * <p>
+ * 요청 하나는 `pending` 디렉터리의 파일 하나입니다. 매니저는 임시 파일에 쓴 뒤 이름을 바꾸어(atomic move) 요청을 게시하므로
+ * 워커가 절반만 쓰인 파일을 읽는 일은 없습니다. 워커는 파일을 `claimed` 디렉터리로 옮기는 데 성공한 경우에만 요청을 가져가며,
+ * 같은 파일시스템 안의 이름 변경은 원자적이므로 여러 워커가 동시에 시도해도 한 워커만 성공합니다.
+ * <p>
+ * 파일 이름은 게시 순서를 담고 있어, 워커는 매니저가 게시한 순서대로(예: 큰 파티션부터) 요청을 가져갑니다.
+ * <p>
+ * claimed 파일은 {@link #acknowledge}가 호출될 때(파티션 실행 결과가 JobRepository에 기록된 뒤) 삭제됩니다.
+ * 요청을 가진 프로세스는 lease의 1/3마다 claimed 파일의 수정 시각을 갱신하며, 수정 시각이 lease보다 오래된 claimed 파일은
+ * 요청을 가져간 워커가 종료된 것으로 보고 다른 워커가 pending으로 되돌려 다시 가져갑니다.
+ * 따라서 lease는 워커 프로세스가 멈춘 것(GC, 장애)을 판단할 시간이며, 파티션 실행 시간보다 짧아도 됩니다.
+ */
+@Slf4j
+public class Ex14_FileSystemPartitionQueue implements Ex14_PartitionQueue, AutoCloseable {
+
+    private static final String REQUEST_FILE_SUFFIX = ".partition";
+    private static final Duration SCAN_INTERVAL = Duration.ofMillis(200);
+    private static final Duration DEFAULT_LEASE = Duration.ofSeconds(60);
+
+    private final Path pendingDirectory;
+    private final Path claimedDirectory;
+    private final Duration lease;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // 이 프로세스가 가져가서 처리 중인 요청의 claimed 파일 (StepExecution id - 파일)
+    private final Map<Long, Path> heldClaims = new ConcurrentHashMap<>();
+
+    // heldClaims의 수정 시각을 갱신하는 스레드
+    private final ScheduledExecutorService leaseRenewer;
+
+    /**
+     * @param directory 매니저와 워커가 공유할 큐 디렉터리 (없으면 생성합니다)
+     */
+    public Ex14_FileSystemPartitionQueue(Path directory) {
+        this(directory, DEFAULT_LEASE);
+    }
+
+    /**
+     * @param directory 매니저와 워커가 공유할 큐 디렉터리 (없으면 생성합니다)
+     * @param lease     갱신되지 않은 claimed 요청을 다른 워커가 되가져가기까지의 시간
+     */
+    public Ex14_FileSystemPartitionQueue(Path directory, Duration lease) {
+        this.pendingDirectory = directory.resolve("pending");
+        this.claimedDirectory = directory.resolve("claimed");
+        this.lease = lease;
+        try {
+            Files.createDirectories(pendingDirectory);
+            Files.createDirectories(claimedDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create partition queue directory " + directory, e);
+        }
+        long renewIntervalMillis = Math.max(1, lease.toMillis() / 3);
+        this.leaseRenewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partition-queue-lease-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        leaseRenewer.scheduleWithFixedDelay(this::renewLeases, renewIntervalMillis, renewIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(Ex14_PartitionRequest request) {
+        // 게시 시각과 순번을 앞에 붙여 이름순 정렬이 게시 순서가 되도록 합니다.
+        String fileName = String.format("%019d-%06d-%019d%s",
+                System.currentTimeMillis(), sequence.getAndIncrement() % 1_000_000, request.stepExecutionId(), REQUEST_FILE_SUFFIX);
+        String body = request.jobExecutionId() + "\n" + request.stepExecutionId() + "\n" + request.stepName();
+        try {
+            Path tempFile = Files.createTempFile(pendingDirectory, ".", ".tmp");
+            Files.writeString(tempFile, body, StandardCharsets.UTF_8);
+            Files.move(tempFile, pendingDirectory.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot publish partition request " + request, e);
+        }
+    }
+
+    @Override
+    public Ex14_PartitionRequest poll(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            Ex14_PartitionRequest request = claimNext();
+            if (request != null) {
+                return request;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            Thread.sleep(Math.min(SCAN_INTERVAL.toMillis(), Math.max(1, remaining / 1_000_000)));
+        }
+    }
+
+    /**
+     * claimed 파일을 삭제하여 요청을 큐에서 완전히 제거합니다.
+     */
+    @Override
+    public void acknowledge(Ex14_PartitionRequest request) {
+        Path claimed = heldClaims.remove(request.stepExecutionId());
+        if (claimed == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(claimed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot acknowledge partition request " + claimed, e);
+        }
+    }
+
+    /**
+     * claimed 파일을 pending으로 되돌려 다시 가져갈 수 있도록 합니다. 파일 이름이 그대로이므로 게시 순서도 유지됩니다.
+     */
+    @Override
+    public void release(Ex14_PartitionRequest request) {
+        Path claimed = heldClaims.remove(request.stepExecutionId());
+        if (claimed != null) {
+            moveBackToPending(claimed);
+        }
+    }
+
+    /**
+     * pending 디렉터리에서 JobExecution의 요청 파일을 삭제합니다. 삭제하기 전에 워커가 가져간 요청은 그대로 둡니다.
+     */
+    @Override
+    public int withdraw(long jobExecutionId) {
+        int withdrawn = 0;
+        for (Path pending : listRequests(pendingDirectory)) {
+            try {
+                Ex14_PartitionRequest request = parse(Files.readAllLines(pending, StandardCharsets.UTF_8));
+                if (request.jobExecutionId() == jobExecutionId && Files.deleteIfExists(pending)) {
+                    withdrawn++;
+                }
+            } catch (NoSuchFileException e) {
+                // 워커가 먼저 가져갔습니다.
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot withdraw partition request " + pending, e);
+            }
+        }
+        return withdrawn;
+    }
+
+    @Override
+    public void close() {
+        leaseRenewer.shutdownNow();
+    }
+
+    /**
+     * 만료된 claimed 요청을 되돌린 뒤, 가장 먼저 게시된 요청부터 claimed 디렉터리로 옮기기를 시도하고 처음으로 성공한 요청을 반환합니다.
+     * 이름 변경은 수정 시각을 유지하므로, 옮기기 전에 수정 시각을 먼저 갱신하여 옮긴 직후의 요청이 만료된 것으로 보이지 않도록 합니다.
+     */
+    private Ex14_PartitionRequest claimNext() {
+        reclaimExpired();
+        for (Path pending : listRequests(pendingDirectory)) {
+            Path claimed = claimedDirectory.resolve(pending.getFileName());
+            try {
+                Files.setLastModifiedTime(pending, FileTime.from(Instant.now()));
+                Files.move(pending, claimed, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException | FileAlreadyExistsException e) {
+                // 다른 워커가 먼저 가져갔습니다.
+                continue;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot claim partition request " + pending, e);
+            }
+            Ex14_PartitionRequest request = read(claimed);
+            heldClaims.put(request.stepExecutionId(), claimed);
+            return request;
+        }
+        return null;
+    }
+
+    /**
+     * lease 동안 수정 시각이 갱신되지 않은 claimed 요청을 pending으로 되돌립니다.
+     */
+    private void reclaimExpired() {
+        Instant expiredBefore = Instant.now().minus(lease);
+        for (Path claimed : listRequests(claimedDirectory)) {
+            if (heldClaims.containsValue(claimed)) {
+                continue;
+            }
+            try {
+                if (Files.getLastModifiedTime(claimed).toInstant().isBefore(expiredBefore)) {
+                    log.warn("Partition request {} was not renewed for {}, returning it to the queue", claimed.getFileName(), lease);
+                    moveBackToPending(claimed);
+                }
+            } catch (NoSuchFileException e) {
+                // 처리를 마쳤거나 다른 워커가 먼저 되돌렸습니다.
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot inspect partition request " + claimed, e);
+            }
+        }
+    }
+
+    private void moveBackToPending(Path claimed) {
+        try {
+            Files.move(claimed, pendingDirectory.resolve(claimed.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException | FileAlreadyExistsException e) {
+            // 다른 워커가 먼저 되돌렸습니다.
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot release partition request " + claimed, e);
+        }
+    }
+
+    /**
+     * 이 프로세스가 처리 중인 요청의 수정 시각을 갱신합니다. 파일이 없으면 lease가 만료되어 다른 워커가 가져간 것입니다.
+     */
+    private void renewLeases() {
+        FileTime now = FileTime.from(Instant.now());
+        heldClaims.forEach((stepExecutionId, claimed) -> {
+            try {
+                Files.setLastModifiedTime(claimed, now);
+            } catch (NoSuchFileException e) {
+                log.warn("Lease of partition request {} expired and was taken over by another worker", claimed.getFileName());
+                heldClaims.remove(stepExecutionId, claimed);
+            } catch (IOException e) {
+                log.warn("Cannot renew lease of partition request {}", claimed.getFileName(), e);
+            }
+        });
+    }
+
+    private List<Path> listRequests(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(REQUEST_FILE_SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list partition queue " + directory, e);
+        }
+    }
+
+    private Ex14_PartitionRequest read(Path claimed) {
+        try {
+            return parse(Files.readAllLines(claimed, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read partition request " + claimed, e);
+        }
+    }
+
+    private static Ex14_PartitionRequest parse(List<String> lines) {
+        return new Ex14_PartitionRequest(Long.parseLong(lines.get(0)), Long.parseLong(lines.get(1)), lines.get(2));
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.example.springbatch.part2;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 JVM 안의 매니저와 워커가 공유하는 메모리 기반 {@link Ex14_PartitionQueue} 구현체입니다.
+ * 원격 파티셔닝 흐름을 브로커 없이 확인하기 위한 용도로, 프로세스가 종료되면 큐에 남은 요청은 사라집니다.
+ * 매니저와 워커가 같은 프로세스이므로 워커만 종료되어 요청이 유실되는 경우는 없으며, acknowledge는 할 일이 없습니다.
+ */
+public class Ex14_InMemoryPartitionQueue implements Ex14_PartitionQueue {
+
+    private final BlockingQueue<Ex14_PartitionRequest> queue = new LinkedBlockingQueue<>();
+
+    @Override
+    public void publish(Ex14_PartitionRequest request) {
+        queue.add(request);
+    }
+
+    @Override
+    public Ex14_PartitionRequest poll(Duration timeout) throws InterruptedException {
+        return queue.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void acknowledge(Ex14_PartitionRequest request) {
+    }
+
+    @Override
+    public void release(Ex14_PartitionRequest request) {
+        queue.add(request);
+    }
+
+    @Override
+    public int withdraw(long jobExecutionId) {
+        int before = queue.size();
+        queue.removeIf(request -> request.jobExecutionId() == jobExecutionId);
+        return before - queue.size();
+    }
+
+}
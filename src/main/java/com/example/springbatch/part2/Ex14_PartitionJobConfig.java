@@ -1,5 +1,7 @@
 package com.example.springbatch.part2;
 
+import com.example.springbatch.common.ConnectionPoolGovernor;
+import com.example.springbatch.common.VirtualThreadTaskExecutors;
 import com.example.springbatch.common.entity.Payment;
 import com.example.springbatch.common.entity.PaymentSource;
 import com.example.springbatch.common.listener.ChunkDurationTrackerListener;
@@ -9,8 +11,11 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
@@ -19,20 +24,36 @@ import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JpaCursorItemReader;
 import org.springframework.batch.item.database.builder.JpaCursorItemReaderBuilder;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /*
     - 실행방법
       - Program arguments에 아래 옵션 추가 후 Run
       - --job.name=partitionerJob startDate=2025-05-01 endDate=2025-05-31
+      - 날짜별 건수 기준으로 파티션 크기를 맞추려면 partitionStrategy=weighted 옵션을 추가
+      - 큰 파티션부터 고정된 수의 워커로 실행하려면
+        --job.name=sharedQueuePartitionerJob startDate=2025-05-01 endDate=2025-05-31 partitionStrategy=weighted
+      - 파티션을 가상 스레드(Java 21+)에서 실행하려면 threadMode=virtual 옵션을 추가
+      - 원격 파티셔닝 (같은 장비의 여러 프로세스, 기본 큐 디렉터리는 ${java.io.tmpdir}/spring-batch-partition-queue)
+        - 워커: --batch.partition.worker.enabled=true (워커 수만큼 프로세스를 실행, 60초 동안 요청이 없으면 종료)
+        - 매니저: --job.name=remotePartitionerJob startDate=2025-05-01 endDate=2025-05-31
+        - 한 프로세스에서 확인하려면 두 옵션을 함께 주고 --batch.partition.queue=memory 옵션을 추가
+        - 매니저는 --batch.partition.manager.timeout(기본 2h) 안에 파티션이 모두 끝나지 않으면 남은 요청을 큐에서 제거하고,
+          끝나지 않은 파티션을 FAILED로 기록한 뒤 실패합니다.
 
     - 강의정리
        - 한 달치 데이터를 일별로 파티셔닝하여 병렬 처리하는 배치 구성 예제이다.
@@ -40,6 +61,21 @@ import java.util.Collections;
        - managerStep은 파티션을 생성하고, 각 날짜별 데이터를 처리할 workerStep을 실행한다.
        - workerStep은 JpaCursorItemReader를 통해 특정 날짜의 데이터를 읽고, ItemProcessor를 통해 가공한 후 ItemWriter로 기록한다.
        - TaskExecutor를 이용해 파티션별 Step이 동시에 실행되도록 하여 전체 처리 시간을 단축할 수 있다.
+       - 날짜별 데이터 편차가 크면 가장 큰 날의 파티션이 전체 수행 시간을 결정한다.
+         WeightedDatePartitioner는 큰 날은 id 구간으로 쪼개고 작은 날은 묶어서 파티션별 건수를 비슷하게 맞춘다.
+       - 파티션 수만큼 스레드를 띄우면 커넥션 풀(기본 10개)보다 많은 스레드가 커넥션을 기다리게 된다.
+         SharedQueuePartitionHandler는 파티션을 잘게 나눈 뒤 큰 파티션부터 코어 수와 커넥션 풀 크기에 맞춘 워커들이 하나씩 가져가 실행한다.
+         큐가 빈 워커는 실행 중인 파티션 중 남은 id 구간이 가장 넓은 파티션의 뒤쪽 절반을 떼어 와 실행하므로(work stealing), 느린 파티션 하나가 끝까지 남지 않는다.
+         리더는 id 오름차순으로 읽으며 StealableIdRange로 구간을 차지하고, 떼어 간 구간에 도달하면 읽기를 멈춘다.
+       - 파티션 하나는 리더의 커서 커넥션과 chunk 트랜잭션 커넥션을 함께 사용하고, JobRepository도 메타데이터 갱신에 커넥션을 쓴다.
+         ConnectionPoolGovernor는 (최대 커넥션 수 - 여유분) / 2 만큼만 파티션을 동시에 실행하도록 TaskDecorator로 제한하고,
+         대기 시간과 커넥션 풀 상태를 Micrometer 지표로 남긴다. 파티션 스레드 풀의 크기도 이 허용치로 맞춘다.
+       - threadMode=virtual이면 파티션마다 가상 스레드를 생성하고, 동시 실행 수는 스레드 풀 크기 대신 ConnectionPoolGovernor의 허용치로 제한한다.
+         Java 21 미만에서는 같은 제한을 가진 플랫폼 스레드로 대체된다.
+       - 한 대의 CPU와 커넥션 풀로 감당할 수 없는 양(예: 1년치 재처리)은 원격 파티셔닝으로 여러 프로세스에 나눈다.
+         매니저는 파티션 ExecutionContext를 JobRepository에 저장하고 StepExecution id만 큐에 게시하며,
+         워커는 같은 JobRepository에서 StepExecution을 조회해 workerStep을 실행하고 결과도 JobRepository에 기록한다.
+         매니저는 JobExplorer로 파티션 상태를 조회하여 모두 끝날 때까지 기다린다.
  */
 @Slf4j
 @Configuration
@@ -49,6 +85,7 @@ public class Ex14_PartitionJobConfig {
     private final EntityManagerFactory entityManagerFactory;
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
+    private final ConnectionPoolGovernor connectionPoolGovernor;
     private final int chunkSize = 1_000;
 
     /**
@@ -75,44 +112,214 @@ public class Ex14_PartitionJobConfig {
     public Step managerStep(Step workerStep) {
         return new StepBuilder("managerStep", jobRepository)
                 // "workerStep"이라는 이름으로 파티셔너를 설정합니다.
-                .partitioner("workerStep", partitioner(null, null))
+                .partitioner("workerStep", partitioner(null, null, null))
                 // 각 파티션에서 실행될 스텝을 지정합니다.
                 .step(workerStep)
                 // 동시에 실행할 파티션의 수를 설정합니다.
                 .gridSize(31)
-                // 파티션을 병렬로 처리하기 위한 TaskExecutor를 설정합니다.
-                .taskExecutor(taskExecutor())
+                // 파티션을 병렬로 처리하기 위한 TaskExecutor를 설정합니다. (threadMode JobParameter에 따라 선택)
+                .taskExecutor(partitionTaskExecutor(null))
                 .build();
     }
 
     /**
-     * JobParameter로 받은 시작일과 종료일을 사용하여 LocalDatePartitioner를 생성합니다.
+     * 큰 파티션부터 고정된 수의 워커로 실행하는 Job을 생성합니다.
      *
-     * @param startDate JobParameter로 전달되는 시작일 문자열 (yyyy-MM-dd 형식)
-     * @param endDate   JobParameter로 전달되는 종료일 문자열 (yyyy-MM-dd 형식)
-     * @return LocalDatePartitioner
+     * @param sharedQueueManagerStep 파티션을 관리하는 매니저 스텝
+     * @return Job
+     */
+    @Bean
+    public Job sharedQueuePartitionerJob(Step sharedQueueManagerStep) {
+        return new JobBuilder("sharedQueuePartitionerJob", jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .start(sharedQueueManagerStep)
+                .build();
+    }
+
+    /**
+     * 파티션을 워커 수보다 잘게 나누고, SharedQueuePartitionHandler로 큰 파티션부터 실행하는 매니저 스텝을 생성합니다.
+     * 워커 수는 CPU 코어 수와 ConnectionPoolGovernor가 허용하는 동시 실행 수 중 작은 값으로 정합니다.
+     *
+     * @param workerStep 각 파티션에서 실행될 워커 스텝
+     * @return Step
+     */
+    @Bean
+    public Step sharedQueueManagerStep(Step workerStep) {
+        int workerCount = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), connectionPoolGovernor.getMaxConcurrency()));
+
+        Ex14_SharedQueuePartitionHandler partitionHandler = new Ex14_SharedQueuePartitionHandler();
+        partitionHandler.setStep(workerStep);
+        partitionHandler.setWorkerCount(workerCount);
+        // 워커 수보다 많은 파티션으로 나누어 마지막 파티션이 늦게 끝나는 시간을 줄입니다.
+        partitionHandler.setGridSize(workerCount * 4);
+        // 큐가 빈 워커가 실행 중인 파티션의 남은 id 구간을 떼어 와 실행하도록 합니다. (minId, maxId가 있는 파티션만 해당)
+        partitionHandler.setJobRepository(jobRepository);
+        partitionHandler.setStealableIdRanges(stealableIdRanges());
+        partitionHandler.setMinStealableIds(chunkSize * 10L);
+
+        return new StepBuilder("sharedQueueManagerStep", jobRepository)
+                .partitioner("workerStep", partitioner(null, null, null))
+                .partitionHandler(partitionHandler)
+                .build();
+    }
+
+    /**
+     * 실행 중인 파티션의 id 구간을 SharedQueuePartitionHandler와 워커 스텝의 리더가 공유하는 레지스트리를 생성합니다.
+     *
+     * @return Ex14_StealableIdRange.Registry
+     */
+    @Bean
+    public Ex14_StealableIdRange.Registry stealableIdRanges() {
+        return new Ex14_StealableIdRange.Registry();
+    }
+
+    /**
+     * 파티션을 다른 프로세스의 워커에서 실행하는 Job을 생성합니다.
+     *
+     * @param remoteManagerStep 파티션 실행 요청을 게시하는 매니저 스텝
+     * @return Job
+     */
+    @Bean
+    public Job remotePartitionerJob(Step remoteManagerStep) {
+        return new JobBuilder("remotePartitionerJob", jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .start(remoteManagerStep)
+                .build();
+    }
+
+    /**
+     * 파티션을 생성한 뒤 실행 요청을 큐에 게시하고, 워커들이 모두 끝낼 때까지 기다리는 매니저 스텝을 생성합니다.
+     * 파티션 수는 워커 프로세스 수와 관계없이 partitioner가 정하며, 워커들은 남은 요청을 하나씩 가져갑니다.
+     * 워커가 하나도 실행되지 않았거나 모두 종료된 경우에도 매니저가 끝나도록, timeout이 지나면 매니저 스텝을 실패시킵니다.
+     *
+     * @param partitionQueue 파티션 실행 요청을 게시할 큐
+     * @param jobExplorer    파티션의 실행 상태를 조회할 JobExplorer
+     * @param timeout        모든 파티션이 끝나기를 기다릴 최대 시간
+     * @return Step
+     */
+    @Bean
+    public Step remoteManagerStep(
+            Ex14_PartitionQueue partitionQueue,
+            JobExplorer jobExplorer,
+            @Value("${batch.partition.manager.timeout:2h}") Duration timeout
+    ) {
+        Ex14_RemotePartitionHandler partitionHandler = new Ex14_RemotePartitionHandler(partitionQueue, jobExplorer, jobRepository, "workerStep");
+        partitionHandler.setGridSize(31);
+        partitionHandler.setPollInterval(Duration.ofSeconds(2));
+        partitionHandler.setTimeout(timeout);
+
+        return new StepBuilder("remoteManagerStep", jobRepository)
+                .partitioner("workerStep", partitioner(null, null, null))
+                .partitionHandler(partitionHandler)
+                .build();
+    }
+
+    /**
+     * 원격 파티셔닝에서 매니저와 워커가 공유하는 큐를 생성합니다.
+     * 기본은 같은 장비의 여러 프로세스가 공유할 수 있는 디렉터리 기반 큐이며, memory이면 같은 JVM 안에서만 공유되는 큐를 사용합니다.
+     *
+     * @param queueType      큐 종류 (file, memory)
+     * @param queueDirectory 디렉터리 기반 큐의 경로
+     * @param queueLease     디렉터리 기반 큐에서 멈춘 워커의 요청을 다른 워커가 되가져가기까지의 시간
+     * @return Ex14_PartitionQueue
+     */
+    @Bean
+    public Ex14_PartitionQueue partitionQueue(
+            @Value("${batch.partition.queue:file}") String queueType,
+            @Value("${batch.partition.queue-dir:${java.io.tmpdir}/spring-batch-partition-queue}") String queueDirectory,
+            @Value("${batch.partition.queue-lease:60s}") Duration queueLease
+    ) {
+        if ("memory".equals(queueType)) {
+            return new Ex14_InMemoryPartitionQueue();
+        }
+        return new Ex14_FileSystemPartitionQueue(Path.of(queueDirectory), queueLease);
+    }
+
+    /**
+     * batch.partition.worker.enabled=true로 실행한 프로세스에서 큐의 파티션 실행 요청을 가져와 workerStep을 실행하는 워커를 생성합니다.
+     * 프로세스 하나가 동시에 실행하는 파티션 수는 ConnectionPoolGovernor가 허용하는 수로 제한합니다.
+     *
+     * @param workerStep     각 파티션에서 실행될 워커 스텝
+     * @param partitionQueue 파티션 실행 요청을 가져올 큐
+     * @param jobExplorer    StepExecution을 조회할 JobExplorer
+     * @param idleTimeout    새 요청이 없을 때 워커가 종료하기까지 기다릴 시간
+     * @return Ex14_RemotePartitionWorker
+     */
+    @Bean
+    @ConditionalOnProperty(name = "batch.partition.worker.enabled", havingValue = "true")
+    public Ex14_RemotePartitionWorker remotePartitionWorker(
+            Step workerStep,
+            Ex14_PartitionQueue partitionQueue,
+            JobExplorer jobExplorer,
+            @Value("${batch.partition.worker.idle-timeout:60s}") Duration idleTimeout
+    ) {
+        return new Ex14_RemotePartitionWorker(
+                partitionQueue,
+                jobExplorer,
+                jobRepository,
+                Map.of("workerStep", workerStep),
+                connectionPoolGovernor.getMaxConcurrency(),
+                idleTimeout
+        );
+    }
+
+    /**
+     * JobParameter로 받은 시작일과 종료일을 사용하여 Partitioner를 생성합니다.
+     * partitionStrategy가 weighted이면 날짜별 건수 기준의 WeightedDatePartitioner를, 그 외에는 날짜별 LocalDatePartitioner를 사용합니다.
+     *
+     * @param startDate         JobParameter로 전달되는 시작일 문자열 (yyyy-MM-dd 형식)
+     * @param endDate           JobParameter로 전달되는 종료일 문자열 (yyyy-MM-dd 형식)
+     * @param partitionStrategy JobParameter로 전달되는 파티셔닝 방식 (date, weighted)
+     * @return Partitioner
      */
     @Bean
     @StepScope
-    public Ex14_LocalDatePartitioner partitioner(
+    public Partitioner partitioner(
             @Value("#{jobParameters['startDate']}") LocalDate startDate,
-            @Value("#{jobParameters['endDate']}") LocalDate endDate
+            @Value("#{jobParameters['endDate']}") LocalDate endDate,
+            @Value("#{jobParameters['partitionStrategy'] ?: 'date'}") String partitionStrategy
     ) {
+        if ("weighted".equals(partitionStrategy)) {
+            return new Ex14_WeightedDatePartitioner(entityManagerFactory, startDate, endDate);
+        }
         return new Ex14_LocalDatePartitioner(startDate, endDate);
     }
 
+    /**
+     * JobParameter로 받은 threadMode에 따라 파티션을 실행할 TaskExecutor를 선택합니다.
+     * virtual이면 파티션마다 가상 스레드를 생성하고 ConnectionPoolGovernor가 허용하는 수만큼만 동시에 실행하며, 그 외에는 {@link #taskExecutor()}의 스레드 풀을 사용합니다.
+     * JobScope로 선언하여 같은 매니저 스텝을 Job 실행마다 다른 모드로 실행할 수 있습니다.
+     *
+     * @param threadMode JobParameter로 전달되는 스레드 모드 (platform, virtual)
+     * @return TaskExecutor
+     */
+    @Bean
+    @JobScope
+    public TaskExecutor partitionTaskExecutor(
+            @Value("#{jobParameters['threadMode'] ?: 'platform'}") String threadMode
+    ) {
+        if ("virtual".equals(threadMode)) {
+            return VirtualThreadTaskExecutors.create("partition-vthread-", connectionPoolGovernor.getMaxConcurrency(), connectionPoolGovernor);
+        }
+        return taskExecutor();
+    }
+
     /**
      * 파티션 처리를 위한 스레드 풀을 생성합니다.
+     * 스레드 수는 ConnectionPoolGovernor가 커넥션 풀이 감당할 수 있다고 계산한 동시 실행 수와 같게 맞추고, 나머지 파티션은 큐에서 기다리게 합니다.
+     * 스레드를 더 띄워도 허가를 기다리며 멈춰 있을 뿐이므로 스레드만 낭비됩니다.
+     * TaskDecorator는 다른 TaskExecutor와 허가를 공유하기 위해 그대로 등록합니다.
      *
      * @return TaskExecutor
      */
     @Bean
     public TaskExecutor taskExecutor() {
         ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
-        taskExecutor.setCorePoolSize(31); // 기본 스레드 수
-        taskExecutor.setMaxPoolSize(50);  // 최대 스레드 수
+        taskExecutor.setCorePoolSize(connectionPoolGovernor.getMaxConcurrency()); // 커넥션 풀이 감당할 수 있는 동시 실행 수
+        taskExecutor.setMaxPoolSize(connectionPoolGovernor.getMaxConcurrency());  // 큐가 가득 차지 않으므로 core와 같게 둔다
         taskExecutor.setThreadNamePrefix("partition-thread-"); // 스레드 이름 접두사
         taskExecutor.setWaitForTasksToCompleteOnShutdown(true); // 종료 시 모든 태스크가 완료될 때까지 대기
+        taskExecutor.setTaskDecorator(connectionPoolGovernor); // 커넥션 풀 크기에 맞춰 동시 실행 수 제한
         taskExecutor.initialize();
         return taskExecutor;
     }
@@ -120,17 +327,17 @@ public class Ex14_PartitionJobConfig {
     /**
      * 각 파티션에서 실제 데이터 처리를 수행하는 워커 스텝을 생성합니다.
      *
-     * @param cursorItemReader 각 파티션의 데이터를 읽는 JpaCursorItemReader
+     * @param stealableItemReader 각 파티션의 데이터를 읽는 리더 (다른 워커가 떼어 간 구간은 읽지 않음)
      * @return Step
      */
     @Bean
     public Step workerStep(
-            JpaCursorItemReader<PaymentSource> cursorItemReader
+            Ex14_StealableIdRangeItemReader<PaymentSource> stealableItemReader
     ) {
         return new StepBuilder("workerStep", jobRepository)
                 .<PaymentSource, Payment>chunk(chunkSize, transactionManager)
                 .listener(new StepDurationTrackerListener())
-                .reader(cursorItemReader)
+                .reader(stealableItemReader)
                 .processor(paymentReportProcessor())
                 .writer(paymentReportWriter())
                 .listener(new ChunkDurationTrackerListener())
@@ -138,22 +345,58 @@ public class Ex14_PartitionJobConfig {
     }
 
     /**
-     * StepExecutionContext로부터 `paymentDate`를 주입받아 특정 날짜의 결제 원천 데이터를 조회하는 JpaCursorItemReader를 생성합니다.
+     * cursorItemReader를 감싸, SharedQueuePartitionHandler에서 다른 워커가 떼어 간 id 구간의 아이템은 읽지 않는 리더를 생성합니다.
+     * 구간이 등록되지 않은 파티션(다른 매니저 스텝, 원격 워커)에서는 cursorItemReader를 그대로 읽습니다.
      *
-     * @param paymentDateStr StepExecutionContext에서 전달되는 결제일 문자열 (yyyy-MM-dd 형식)
+     * @param cursorItemReader 각 파티션의 데이터를 읽는 JpaCursorItemReader
+     * @param stepExecutionId  파티션의 StepExecution id
+     * @return Ex14_StealableIdRangeItemReader<PaymentSource>
+     */
+    @Bean
+    @StepScope
+    public Ex14_StealableIdRangeItemReader<PaymentSource> stealableItemReader(
+            JpaCursorItemReader<PaymentSource> cursorItemReader,
+            @Value("#{stepExecution.id}") Long stepExecutionId
+    ) {
+        return new Ex14_StealableIdRangeItemReader<>(cursorItemReader, PaymentSource::getId, stealableIdRanges(), stepExecutionId);
+    }
+
+    /**
+     * StepExecutionContext로부터 파티션 정보를 주입받아 결제 원천 데이터를 조회하는 JpaCursorItemReader를 생성합니다.
+     * LocalDatePartitioner의 파티션은 `paymentDate` 하루를, WeightedDatePartitioner의 파티션은 `paymentDates`의 여러 날짜를 조회하며,
+     * `minId`, `maxId`가 있으면 해당 id 구간만 id 오름차순으로 조회합니다. (다른 워커가 구간의 뒤쪽을 떼어 갈 수 있도록)
+     *
+     * @param paymentDateStr  StepExecutionContext에서 전달되는 결제일 문자열 (yyyy-MM-dd 형식)
+     * @param paymentDatesStr StepExecutionContext에서 전달되는 콤마로 구분된 결제일 목록
+     * @param minId           StepExecutionContext에서 전달되는 id 구간 하한 (포함)
+     * @param maxId           StepExecutionContext에서 전달되는 id 구간 상한 (미포함)
      * @return JpaCursorItemReader<PaymentSource>
      */
     @Bean
     @StepScope
     public JpaCursorItemReader<PaymentSource> cursorItemReader(
-            @Value("#{stepExecutionContext['paymentDate']}") String paymentDateStr
+            @Value("#{stepExecutionContext['paymentDate']}") String paymentDateStr,
+            @Value("#{stepExecutionContext['paymentDates']}") String paymentDatesStr,
+            @Value("#{stepExecutionContext['minId']}") Long minId,
+            @Value("#{stepExecutionContext['maxId']}") Long maxId
     ) {
-        LocalDate paymentDate = LocalDate.parse(paymentDateStr, DateTimeFormatter.ISO_LOCAL_DATE);
+        List<LocalDate> paymentDates = Arrays.stream((paymentDatesStr != null ? paymentDatesStr : paymentDateStr).split(","))
+                .map(date -> LocalDate.parse(date, DateTimeFormatter.ISO_LOCAL_DATE))
+                .toList();
+
+        String queryString = "SELECT ps FROM PaymentSource ps WHERE ps.paymentDate IN :paymentDates";
+        Map<String, Object> parameterValues = new HashMap<>();
+        parameterValues.put("paymentDates", paymentDates);
+        if (minId != null) {
+            queryString += " AND ps.id >= :minId AND ps.id < :maxId ORDER BY ps.id";
+            parameterValues.put("minId", minId);
+            parameterValues.put("maxId", maxId);
+        }
         return new JpaCursorItemReaderBuilder<PaymentSource>()
                 .name("cursorItemReader")
                 .entityManagerFactory(entityManagerFactory)
-                .queryString("SELECT ps FROM PaymentSource ps WHERE ps.paymentDate = :paymentDate")
-                .parameterValues(Collections.singletonMap("paymentDate", paymentDate))
+                .queryString(queryString)
+                .parameterValues(parameterValues)
                 .build();
     }
 
@@ -165,7 +408,7 @@ public class Ex14_PartitionJobConfig {
     private ItemProcessor<PaymentSource, Payment> paymentReportProcessor() {
         return paymentSource -> new Payment(
                 null,
-                paymentSource.getFinalAmount(),
+                paymentSource.getFinalAmount().toBigDecimal(),
                 paymentSource.getPaymentDate(),
                 "partnerCorpName",
                 "PAYMENT"
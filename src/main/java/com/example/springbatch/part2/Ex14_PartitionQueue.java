@@ -0,0 +1,50 @@
+package com.example.springbatch.part2;
+
+import java.time.Duration;
+
+/**
+ * 원격 파티셔닝에서 매니저와 워커 사이에 파티션 실행 요청을 전달하는 큐입니다.
+ * <p>
+ * 실제 운영에서는 Kafka, RabbitMQ 같은 메시지 브로커가 이 역할을 맡으며, 이 예제에서는 한 대의 장비에서 실행해 볼 수 있도록
+ * {@link Ex14_InMemoryPartitionQueue}(같은 JVM)와 {@link Ex14_FileSystemPartitionQueue}(같은 장비의 여러 JVM) 구현체를 제공합니다.
+ * 하나의 요청은 반드시 하나의 워커에게만 전달되어야 합니다.
+ * <p>
+ * 워커는 요청을 꺼낸 뒤 파티션 실행 결과를 JobRepository에 기록하고 나서 {@link #acknowledge}를 호출합니다.
+ * 그 전에 워커가 종료되면 요청이 다시 전달될 수 있어야(at-least-once) 매니저가 끝나지 않는 파티션을 기다리지 않습니다.
+ */
+public interface Ex14_PartitionQueue {
+
+    /**
+     * 파티션 실행 요청을 큐에 넣습니다.
+     */
+    void publish(Ex14_PartitionRequest request);
+
+    /**
+     * 큐에서 파티션 실행 요청 하나를 꺼냅니다.
+     *
+     * @param timeout 요청이 없을 때 기다릴 최대 시간
+     * @return 파티션 실행 요청. timeout 동안 요청이 없으면 null
+     */
+    Ex14_PartitionRequest poll(Duration timeout) throws InterruptedException;
+
+    /**
+     * 꺼낸 요청의 처리를 마쳤음을 알립니다. 이후 이 요청은 다시 전달되지 않습니다.
+     */
+    void acknowledge(Ex14_PartitionRequest request);
+
+    /**
+     * 꺼낸 요청을 처리하지 못하고 돌려놓습니다. 요청은 다른 워커(또는 같은 워커)에게 다시 전달됩니다.
+     */
+    void release(Ex14_PartitionRequest request);
+
+    /**
+     * 아직 워커가 가져가지 않은 JobExecution의 요청을 큐에서 모두 제거합니다.
+     * 매니저가 기다리기를 포기한 뒤(timeout) 남은 요청이 나중에 실행되어, 재시작한 실행의 파티션과 함께 실행되지 않도록 합니다.
+     * 이미 가져간 요청은 제거하지 않으며, 워커는 StepExecution이 실행 중이 아니면 실행하지 않고 완료 처리합니다.
+     *
+     * @param jobExecutionId 요청을 제거할 JobExecution의 id
+     * @return 제거한 요청 수
+     */
+    int withdraw(long jobExecutionId);
+
+}
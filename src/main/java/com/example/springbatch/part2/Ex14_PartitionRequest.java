@@ -0,0 +1,18 @@
+package com.example.springbatch.part2;
+
+/**
+ * 매니저가 워커에게 전달하는 파티션 실행 요청입니다.
+ * <p>
+ * 파티션의 ExecutionContext(paymentDate, minId 등)는 매니저가 파티션을 생성할 때 이미 JobRepository에 저장되므로,
+ * 요청에는 워커가 StepExecution을 다시 조회하는 데 필요한 식별자만 담습니다.
+ *
+ * @param jobExecutionId  파티션이 속한 JobExecution의 id
+ * @param stepExecutionId 실행할 파티션의 StepExecution id
+ * @param stepName        워커가 실행할 Step의 이름
+ */
+public record Ex14_PartitionRequest(
+        long jobExecutionId,
+        long stepExecutionId,
+        String stepName
+) {
+}
@@ -0,0 +1,167 @@
+package com.example.springbatch.part2;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.support.AbstractPartitionHandler;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * 파티션을 같은 JVM의 스레드가 아니라 다른 프로세스(워커)에서 실행하도록 위임하는 PartitionHandler 구현체입니다.
+ * <p>
+ * 매니저는 파티션마다 {@link Ex14_PartitionRequest}를 {@link Ex14_PartitionQueue}에 게시하고, 워커({@link Ex14_RemotePartitionWorker})는
+ * 요청을 하나씩 가져가 공유 JobRepository에서 StepExecution을 조회하여 실행합니다.
+ * 워커가 파티션의 실행 결과를 JobRepository에 기록하므로, 매니저는 응답 메시지를 받는 대신 pollInterval마다 {@link JobExplorer}로
+ * 파티션 StepExecution의 상태를 조회하여 모든 파티션이 끝날 때까지 기다립니다. (spring-batch-integration의 MessageChannelPartitionHandler polling 방식과 같습니다)
+ * <p>
+ * 요청은 {@link Ex14_SharedQueuePartitionHandler#executionOrder}와 같은 순서(`weight`(예상 건수) 내림차순, weight가 없으면 파티션 번호 순)로 게시하여,
+ * 워커들이 큰 파티션부터 가져가도록 합니다.
+ * <p>
+ * timeout 안에 파티션이 모두 끝나지 않으면, 아직 워커가 가져가지 않은 요청을 큐에서 제거하고 끝나지 않은 파티션을 JobRepository에 FAILED로 기록한 뒤 매니저를 실패시킵니다.
+ * 요청과 StepExecution을 그대로 두면 나중에 뜬 워커가 남은 요청을 실행하여, 재시작한 실행의 파티션과 같은 데이터를 동시에 처리하게 됩니다.
+ * ABANDONED는 재시작 시 다시 실행되지 않으므로 FAILED로 기록하여 재시작하면 끝나지 않은 파티션만 다시 실행되도록 합니다.
+ * 이미 실행 중인 워커는 다음 chunk를 기록할 때 버전이 맞지 않아 실패하며, 다시 전달된 요청은 StepExecution이 끝난 상태이므로 실행하지 않습니다.
+ */
+@Slf4j
+public class Ex14_RemotePartitionHandler extends AbstractPartitionHandler {
+
+    private final Ex14_PartitionQueue partitionQueue;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final String stepName;
+
+    // timeout 시 끝나지 않은 파티션을 FAILED로 기록하는 최대 시도 횟수 (워커와 동시에 갱신하는 경우)
+    private static final int MAX_FAIL_ATTEMPTS = 3;
+
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private Duration timeout = null;
+
+    /**
+     * RemotePartitionHandler 생성자
+     *
+     * @param partitionQueue 파티션 실행 요청을 게시할 큐
+     * @param jobExplorer    파티션의 실행 상태를 조회할 JobExplorer
+     * @param jobRepository  timeout 시 끝나지 않은 파티션을 기록할 JobRepository
+     * @param stepName       워커가 실행할 Step의 이름
+     */
+    public Ex14_RemotePartitionHandler(Ex14_PartitionQueue partitionQueue, JobExplorer jobExplorer, JobRepository jobRepository, String stepName) {
+        this.partitionQueue = partitionQueue;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.stepName = stepName;
+    }
+
+    /**
+     * 파티션 상태를 조회할 간격을 설정합니다. 조회할 때마다 JobExecution의 모든 StepExecution을 읽으므로 너무 짧게 잡지 않습니다.
+     */
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * 모든 파티션이 끝나기를 기다릴 최대 시간을 설정합니다. 설정하지 않으면 제한 없이 기다립니다.
+     */
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * 파티션 실행 요청을 큐에 게시하고, 워커들이 모든 파티션을 마칠 때까지 기다립니다.
+     *
+     * @param managerStepExecution    매니저 스텝의 StepExecution
+     * @param partitionStepExecutions 실행할 파티션들의 StepExecution
+     * @return 실행을 마친 파티션들의 StepExecution (JobRepository에서 다시 조회한 값)
+     */
+    @Override
+    protected Set<StepExecution> doHandle(StepExecution managerStepExecution, Set<StepExecution> partitionStepExecutions) throws Exception {
+        Assert.notNull(stepName, "A step name must be provided.");
+        Assert.isTrue(!pollInterval.isNegative() && !pollInterval.isZero(), "pollInterval must be positive.");
+        if (partitionStepExecutions.isEmpty()) {
+            return partitionStepExecutions;
+        }
+
+        List<StepExecution> ordered = Ex14_SharedQueuePartitionHandler.executionOrder(partitionStepExecutions);
+        for (StepExecution stepExecution : ordered) {
+            partitionQueue.publish(new Ex14_PartitionRequest(stepExecution.getJobExecutionId(), stepExecution.getId(), stepName));
+        }
+        log.info("Published {} partition requests for step {}", ordered.size(), stepName);
+
+        return pollUntilFinished(managerStepExecution, partitionStepExecutions);
+    }
+
+    /**
+     * JobRepository에서 파티션들의 상태를 조회하여 모두 실행 중이 아닌 상태가 될 때까지 기다립니다.
+     */
+    private Set<StepExecution> pollUntilFinished(StepExecution managerStepExecution, Set<StepExecution> partitionStepExecutions) throws Exception {
+        Set<Long> partitionIds = partitionStepExecutions.stream()
+                .map(StepExecution::getId)
+                .collect(Collectors.toSet());
+        long deadline = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+
+        while (true) {
+            JobExecution jobExecution = jobExplorer.getJobExecution(managerStepExecution.getJobExecutionId());
+            Assert.state(jobExecution != null, "JobExecution not found: " + managerStepExecution.getJobExecutionId());
+
+            Set<StepExecution> finished = new HashSet<>();
+            for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+                if (partitionIds.contains(stepExecution.getId()) && !stepExecution.getStatus().isRunning()) {
+                    finished.add(stepExecution);
+                }
+            }
+            if (finished.size() == partitionIds.size()) {
+                log.info("All {} partitions of step {} finished", finished.size(), stepName);
+                return finished;
+            }
+            if (System.nanoTime() >= deadline) {
+                abandonUnfinished(managerStepExecution.getJobExecutionId(), partitionIds);
+                throw new TimeoutException("Timed out waiting for partitions of step " + stepName
+                        + ": " + finished.size() + "/" + partitionIds.size() + " finished");
+            }
+            log.debug("{}/{} partitions of step {} finished", finished.size(), partitionIds.size(), stepName);
+            Thread.sleep(pollInterval.toMillis());
+        }
+    }
+
+    /**
+     * 기다리기를 포기한 파티션을 정리합니다. 워커가 가져가지 않은 요청을 큐에서 제거한 뒤, 아직 실행 중인 파티션을 FAILED로 기록합니다.
+     * 워커가 같은 StepExecution을 동시에 갱신하면 버전이 맞지 않아 실패하므로, 다시 조회하여 여전히 실행 중이면 다시 기록합니다.
+     */
+    private void abandonUnfinished(long jobExecutionId, Set<Long> partitionIds) {
+        int withdrawn = partitionQueue.withdraw(jobExecutionId);
+        log.warn("Withdrew {} queued partition requests of step {}", withdrawn, stepName);
+
+        for (Long partitionId : partitionIds) {
+            for (int attempt = 1; attempt <= MAX_FAIL_ATTEMPTS; attempt++) {
+                StepExecution stepExecution = jobExplorer.getStepExecution(jobExecutionId, partitionId);
+                if (stepExecution == null || !stepExecution.getStatus().isRunning()) {
+                    break;
+                }
+                stepExecution.setStatus(BatchStatus.FAILED);
+                stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription("The manager step timed out waiting for this partition"));
+                stepExecution.setEndTime(LocalDateTime.now());
+                try {
+                    jobRepository.update(stepExecution);
+                    log.warn("Marked unfinished partition {} as FAILED", stepExecution.getStepName());
+                    break;
+                } catch (OptimisticLockingFailureException e) {
+                    // 워커가 방금 갱신했습니다. 다시 조회하여 끝나지 않았으면 다시 기록합니다.
+                    log.debug("Partition {} was updated concurrently, retrying", stepExecution.getStepName());
+                }
+            }
+        }
+    }
+
+}
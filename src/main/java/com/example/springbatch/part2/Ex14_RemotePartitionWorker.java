@@ -0,0 +1,148 @@
+package com.example.springbatch.part2;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 원격 파티셔닝의 워커입니다. {@link Ex14_PartitionQueue}에서 파티션 실행 요청을 가져와 공유 JobRepository의 StepExecution으로 Step을 실행합니다.
+ * <p>
+ * 워커는 매니저와 같은 JobRepository(DB)를 바라보는 별도의 프로세스로 실행되며, Step 실행 결과(상태, read/write 건수, ExecutionContext)는
+ * Step이 직접 JobRepository에 기록합니다. 매니저의 {@link Ex14_RemotePartitionHandler}는 이 기록을 조회하여 파티션의 종료를 확인합니다.
+ * <p>
+ * workerCount개의 스레드가 각자 요청을 가져와 실행하며, idleTimeout 동안 새 요청이 없으면 종료합니다.
+ * 같은 JVM에서 매니저 Job과 함께 실행할 수 있도록, Job을 실행하는 JobLauncherApplicationRunner보다 먼저 실행되어 워커 스레드만 시작하고 반환합니다.
+ * 워커 스레드는 데몬 스레드가 아니므로 프로세스는 모든 워커가 종료될 때까지 유지됩니다.
+ * Step 실행 중 발생한 예외는 해당 StepExecution의 실패로 기록하여 매니저가 무한히 기다리지 않도록 합니다.
+ * <p>
+ * 요청은 Step 실행 결과가 JobRepository에 기록된 뒤에 {@link Ex14_PartitionQueue#acknowledge}로 완료 처리합니다.
+ * 실행 도중 워커 프로세스가 종료되면 큐가 요청을 다른 워커에게 다시 전달하며, 새 워커는 JobRepository에 저장된 ExecutionContext부터 이어서 실행합니다.
+ * 이미 끝난 StepExecution의 요청이 다시 전달되면(결과 기록 후 acknowledge 전에 종료된 경우) 실행하지 않고 완료 처리합니다.
+ */
+@Slf4j
+public class Ex14_RemotePartitionWorker implements ApplicationRunner, Ordered {
+
+    private final Ex14_PartitionQueue partitionQueue;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final Map<String, Step> steps;
+    private final int workerCount;
+    private final Duration idleTimeout;
+
+    /**
+     * RemotePartitionWorker 생성자
+     *
+     * @param partitionQueue 파티션 실행 요청을 가져올 큐
+     * @param jobExplorer    StepExecution을 조회할 JobExplorer
+     * @param jobRepository  실패한 StepExecution을 기록할 JobRepository
+     * @param steps          실행할 수 있는 Step (Step 이름 - Step)
+     * @param workerCount    동시에 파티션을 실행할 스레드 수
+     * @param idleTimeout    새 요청이 없을 때 종료하기까지 기다릴 시간
+     */
+    public Ex14_RemotePartitionWorker(
+            Ex14_PartitionQueue partitionQueue,
+            JobExplorer jobExplorer,
+            JobRepository jobRepository,
+            Map<String, Step> steps,
+            int workerCount,
+            Duration idleTimeout
+    ) {
+        Assert.isTrue(workerCount > 0, "workerCount must be greater than 0.");
+        this.partitionQueue = partitionQueue;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.steps = steps;
+        this.workerCount = workerCount;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * 워커 스레드들을 시작합니다.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Starting {} partition workers for steps {}", workerCount, steps.keySet());
+        for (int i = 0; i < workerCount; i++) {
+            new Thread(this::consume, "partition-worker-" + i).start();
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private void consume() {
+        try {
+            Ex14_PartitionRequest request;
+            while ((request = partitionQueue.poll(idleTimeout)) != null) {
+                try {
+                    handle(request);
+                } catch (RuntimeException e) {
+                    // 실패를 JobRepository에 기록하지 못했으므로 요청을 돌려놓아 다시 실행되도록 합니다.
+                    log.error("Cannot record the result of {}, returning it to the queue", request, e);
+                    partitionQueue.release(request);
+                    continue;
+                }
+                partitionQueue.acknowledge(request);
+            }
+            log.info("Partition worker {} stopped after {} idle", Thread.currentThread().getName(), idleTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 요청된 파티션의 StepExecution을 JobRepository에서 조회하여 실행합니다.
+     * 매니저는 파티션 StepExecution을 JobRepository에 저장한 뒤에 요청을 게시하므로, StepExecution이 없는 요청은
+     * 이 워커와 다른 JobRepository를 쓰는 매니저(또는 삭제된 실행)의 요청입니다. 이 JobRepository의 매니저가 기다리는 파티션이 아니므로
+     * 실패로 기록할 대상도 없어, 오류로 남기고 큐에서 제거합니다.
+     */
+    private void handle(Ex14_PartitionRequest request) {
+        StepExecution stepExecution = jobExplorer.getStepExecution(request.jobExecutionId(), request.stepExecutionId());
+        if (stepExecution == null) {
+            log.error("StepExecution not found for {} in this JobRepository, discarding the request", request);
+            return;
+        }
+        if (!stepExecution.getStatus().isRunning()) {
+            log.info("Partition {} already finished with {}, discarding the redelivered request", stepExecution.getStepName(), stepExecution.getStatus());
+            return;
+        }
+        Step step = steps.get(request.stepName());
+        if (step == null) {
+            fail(stepExecution, new IllegalStateException("No step named " + request.stepName() + " on this worker"));
+            return;
+        }
+
+        log.info("Executing partition {} ({})", stepExecution.getStepName(), stepExecution.getExecutionContext());
+        try {
+            step.execute(stepExecution);
+        } catch (JobInterruptedException e) {
+            stepExecution.setStatus(BatchStatus.STOPPED);
+            jobRepository.update(stepExecution);
+        } catch (Throwable e) {
+            fail(stepExecution, e);
+        }
+    }
+
+    private void fail(StepExecution stepExecution, Throwable e) {
+        log.error("Partition {} failed", stepExecution.getStepName(), e);
+        stepExecution.addFailureException(e);
+        stepExecution.setStatus(BatchStatus.FAILED);
+        stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(e));
+        jobRepository.update(stepExecution);
+    }
+
+}
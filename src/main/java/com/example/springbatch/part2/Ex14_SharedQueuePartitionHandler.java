@@ -0,0 +1,264 @@
+package com.example.springbatch.part2;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.AbstractPartitionHandler;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 파티션을 한 번에 모두 스레드에 맡기지 않고, 고정된 수의 워커가 공유 큐에서 하나씩 가져가 실행하며
+ * 큐가 비면 실행 중인 파티션의 남은 id 구간을 떼어 와 실행하는(work stealing) PartitionHandler 구현체입니다.
+ * <p>
+ * {@link org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler}는 파티션 수만큼 작업을 한꺼번에 제출하므로,
+ * 스레드 풀이 커넥션 풀보다 크면 커넥션 대기가 몰리고 큰 파티션이 언제 시작될지 알 수 없습니다.
+ * 이 핸들러는 파티션을 `weight`(예상 건수) 내림차순으로 정렬해 큐에 넣고, workerCount개의 워커가 각자 일을 마치는 대로 다음 파티션을 가져갑니다.
+ * 가장 큰 파티션이 먼저 시작되고 작은 파티션들이 남는 시간을 채우므로(largest-first), 파티션을 잘게 나눌수록 마지막 워커가 끝나는 시점이 고르게 됩니다.
+ * 파티션에 weight가 없으면(예: 날짜별 {@link Ex14_LocalDatePartitioner}) 크기를 알 수 없으므로 파티션 번호 순서(날짜 순서)로 실행합니다.
+ * 일부 파티션에만 weight가 있으면 순서를 정할 수 없으므로 실패합니다.
+ * <p>
+ * 예상보다 느린 파티션이 마지막까지 남지 않도록, {@link #setStealableIdRanges}를 설정하면 큐가 빈 워커가 실행 중인 파티션 중
+ * 아직 읽지 않은 id 구간이 가장 넓은 파티션의 뒤쪽 절반을 떼어 와 새 파티션(`workerStep:partition3.split1`)으로 실행합니다.
+ * <ul>
+ *     <li>`minId`, `maxId` 키를 가진 파티션(예: {@link Ex14_WeightedDatePartitioner}가 쪼갠 날)만 떼어 올 수 있으며, 워커 스텝의 리더는
+ *     {@link Ex14_StealableIdRangeItemReader}로 id 오름차순으로 읽어야 합니다.</li>
+ *     <li>떼어 간 구간은 원래 파티션의 ExecutionContext의 maxId에도 반영하여, 각 StepExecution에 실제로 처리한 구간이 남도록 합니다.</li>
+ *     <li>떼어 온 파티션은 partitioner가 만든 이름이 아니므로 JobOperator.restart로 재시작하면 다시 만들어지지 않습니다.
+ *     이 핸들러를 사용하는 Job은 RunIdIncrementer로 처음부터 다시 실행합니다.</li>
+ * </ul>
+ */
+@Slf4j
+public class Ex14_SharedQueuePartitionHandler extends AbstractPartitionHandler {
+
+    // 파티션의 예상 건수가 저장된 StepExecutionContext의 키
+    private static final String EXECUTION_CONTEXT_KEY_WEIGHT = "weight";
+    // 파티션의 id 구간이 저장된 StepExecutionContext의 키
+    private static final String EXECUTION_CONTEXT_KEY_MIN_ID = "minId";
+    private static final String EXECUTION_CONTEXT_KEY_MAX_ID = "maxId";
+
+    private Step step;
+    private int workerCount = Runtime.getRuntime().availableProcessors();
+    private TaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("shared-queue-");
+    private JobRepository jobRepository;
+    private Ex14_StealableIdRange.Registry stealableIdRanges;
+    private long minStealableIds = 10_000;
+
+    public void setStep(Step step) {
+        this.step = step;
+    }
+
+    /**
+     * 동시에 파티션을 실행할 워커 수를 설정합니다. CPU 코어 수와 커넥션 풀 크기 중 작은 값을 넘지 않도록 잡습니다.
+     */
+    public void setWorkerCount(int workerCount) {
+        this.workerCount = workerCount;
+    }
+
+    public void setTaskExecutor(TaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 떼어 온 파티션의 StepExecution을 저장할 JobRepository를 설정합니다. 구간을 떼어 오려면 필수입니다.
+     */
+    public void setJobRepository(JobRepository jobRepository) {
+        this.jobRepository = jobRepository;
+    }
+
+    /**
+     * 실행 중인 파티션의 id 구간을 워커 스텝의 리더와 공유할 레지스트리를 설정합니다. 설정하지 않으면 구간을 떼어 오지 않습니다.
+     */
+    public void setStealableIdRanges(Ex14_StealableIdRange.Registry stealableIdRanges) {
+        this.stealableIdRanges = stealableIdRanges;
+    }
+
+    /**
+     * 떼어 올 최소 id 구간 폭을 설정합니다. (기본값 10,000)
+     * 남은 구간이 이 값의 두 배보다 좁으면 StepExecution을 새로 만드는 비용이 더 크므로 떼어 오지 않습니다.
+     */
+    public void setMinStealableIds(long minStealableIds) {
+        this.minStealableIds = minStealableIds;
+    }
+
+    /**
+     * 파티션을 실행 순서({@link #executionOrder})대로 큐에 넣고, 워커들이 큐가 빌 때까지 하나씩 꺼내 실행하도록 합니다.
+     * 큐가 빈 워커는 실행 중인 파티션의 남은 구간을 떼어 와 실행하며, 떼어 올 구간도 없으면 종료합니다.
+     *
+     * @param managerStepExecution    매니저 스텝의 StepExecution
+     * @param partitionStepExecutions 실행할 파티션들의 StepExecution
+     * @return 실행을 마친 파티션들의 StepExecution (떼어 온 파티션 포함)
+     */
+    @Override
+    protected Set<StepExecution> doHandle(StepExecution managerStepExecution, Set<StepExecution> partitionStepExecutions) throws Exception {
+        Assert.notNull(step, "A Step must be provided.");
+        Assert.isTrue(workerCount > 0, "workerCount must be greater than 0.");
+        Assert.state(stealableIdRanges == null || jobRepository != null, "A JobRepository must be provided to split running partitions.");
+
+        List<StepExecution> ordered = executionOrder(partitionStepExecutions);
+        Queue<StepExecution> queue = new ConcurrentLinkedQueue<>(ordered);
+        Set<StepExecution> result = ConcurrentHashMap.newKeySet();
+        Map<StepExecution, Ex14_StealableIdRange> running = new ConcurrentHashMap<>();
+        AtomicInteger splitCount = new AtomicInteger();
+
+        int workers = Math.min(workerCount, ordered.size());
+        log.info("Dispatching {} partitions to {} workers", ordered.size(), workers);
+        List<FutureTask<Void>> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            FutureTask<Void> task = new FutureTask<>(() -> {
+                StepExecution stepExecution;
+                while ((stepExecution = nextPartition(queue, running, managerStepExecution, splitCount)) != null) {
+                    execute(stepExecution, running);
+                    result.add(stepExecution);
+                }
+                return null;
+            });
+            tasks.add(task);
+            taskExecutor.execute(task);
+        }
+
+        for (FutureTask<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                log.error("Partition worker failed", e.getCause());
+            }
+        }
+        if (splitCount.get() > 0) {
+            log.info("Split {} sub-ranges off running partitions", splitCount.get());
+        }
+        return result;
+    }
+
+    /**
+     * 워커가 다음에 실행할 파티션을 정합니다. 큐에 남은 파티션이 있으면 그것을, 없으면 실행 중인 파티션에서 떼어 온 구간을 반환합니다.
+     *
+     * @return 실행할 파티션, 더 이상 실행할 것이 없으면 null
+     */
+    private StepExecution nextPartition(Queue<StepExecution> queue, Map<StepExecution, Ex14_StealableIdRange> running,
+                                        StepExecution managerStepExecution, AtomicInteger splitCount) {
+        StepExecution next = queue.poll();
+        if (next != null || stealableIdRanges == null) {
+            return next;
+        }
+        return steal(running, managerStepExecution, splitCount);
+    }
+
+    /**
+     * 실행 중인 파티션 중 남은 id 구간이 가장 넓은 파티션에서 뒤쪽 절반을 떼어 새 파티션으로 만듭니다.
+     * 새 파티션은 원래 파티션의 ExecutionContext를 복사하고 minId, maxId만 떼어 온 구간으로 바꾸며, 원래 파티션의 maxId는 줄어든 상한으로 바꿉니다.
+     *
+     * @return 떼어 온 파티션, 떼어 올 구간이 없으면 null
+     */
+    private StepExecution steal(Map<StepExecution, Ex14_StealableIdRange> running, StepExecution managerStepExecution, AtomicInteger splitCount) {
+        // 여러 워커가 동시에 같은 파티션을 고르더라도 split()이 남은 구간 기준으로 나누므로 구간이 겹치지 않습니다.
+        StepExecution victim = null;
+        Ex14_StealableIdRange stolen = null;
+        for (Map.Entry<StepExecution, Ex14_StealableIdRange> entry : running.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<StepExecution, Ex14_StealableIdRange> candidate) -> candidate.getValue().remaining()).reversed())
+                .toList()) {
+            stolen = entry.getValue().split(minStealableIds);
+            if (stolen != null) {
+                victim = entry.getKey();
+                break;
+            }
+        }
+        if (stolen == null) {
+            return null;
+        }
+        victim.getExecutionContext().putLong(EXECUTION_CONTEXT_KEY_MAX_ID, stolen.getFrom());
+
+        ExecutionContext executionContext = new ExecutionContext(victim.getExecutionContext());
+        executionContext.remove(EXECUTION_CONTEXT_KEY_WEIGHT);
+        executionContext.putLong(EXECUTION_CONTEXT_KEY_MIN_ID, stolen.getFrom());
+        executionContext.putLong(EXECUTION_CONTEXT_KEY_MAX_ID, stolen.getTo());
+
+        StepExecution stepExecution = managerStepExecution.getJobExecution()
+                .createStepExecution(victim.getStepName() + ".split" + splitCount.incrementAndGet());
+        stepExecution.setExecutionContext(executionContext);
+        jobRepository.add(stepExecution);
+        // 실행을 시작하기 전에 등록하여 다른 워커가 이 구간도 다시 나눌 수 있도록 합니다.
+        register(stepExecution, stolen, running);
+        log.info("Split ids [{}, {}) off {} into {}", stolen.getFrom(), stolen.getTo(), victim.getStepName(), stepExecution.getStepName());
+        return stepExecution;
+    }
+
+    /**
+     * 파티션 하나를 실행합니다. 실행 중 발생한 예외는 해당 파티션의 실패로 기록하고 워커는 다음 파티션을 계속 처리합니다.
+     * id 구간을 가진 파티션은 실행하는 동안 레지스트리에 등록하여 리더와 다른 워커가 구간을 공유하도록 합니다.
+     */
+    private void execute(StepExecution stepExecution, Map<StepExecution, Ex14_StealableIdRange> running) {
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        if (stealableIdRanges != null && !running.containsKey(stepExecution)
+                && executionContext.containsKey(EXECUTION_CONTEXT_KEY_MIN_ID) && executionContext.containsKey(EXECUTION_CONTEXT_KEY_MAX_ID)) {
+            register(stepExecution, new Ex14_StealableIdRange(
+                    executionContext.getLong(EXECUTION_CONTEXT_KEY_MIN_ID), executionContext.getLong(EXECUTION_CONTEXT_KEY_MAX_ID)), running);
+        }
+        try {
+            step.execute(stepExecution);
+        } catch (Throwable e) {
+            stepExecution.setStatus(BatchStatus.FAILED);
+            stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(e));
+            stepExecution.addFailureException(e);
+            log.error("Partition {} failed", stepExecution.getStepName(), e);
+        } finally {
+            if (running.remove(stepExecution) != null) {
+                stealableIdRanges.remove(stepExecution.getId());
+            }
+        }
+    }
+
+    private void register(StepExecution stepExecution, Ex14_StealableIdRange range, Map<StepExecution, Ex14_StealableIdRange> running) {
+        stealableIdRanges.register(stepExecution.getId(), range);
+        running.put(stepExecution, range);
+    }
+
+    /**
+     * 파티션의 실행 순서를 정합니다.
+     * 모든 파티션에 weight가 있으면 weight 내림차순(같으면 파티션 번호 순), 모두 없으면 파티션 번호 순입니다.
+     * 파티션 이름(`workerStep:partition10`)은 길이를 먼저 비교하여 partition10이 partition2보다 뒤에 오도록 합니다.
+     *
+     * @param partitionStepExecutions 실행할 파티션들의 StepExecution
+     * @return 실행할 순서대로 정렬된 StepExecution 목록
+     */
+    static List<StepExecution> executionOrder(Set<StepExecution> partitionStepExecutions) {
+        long weighted = partitionStepExecutions.stream()
+                .filter(stepExecution -> stepExecution.getExecutionContext().containsKey(EXECUTION_CONTEXT_KEY_WEIGHT))
+                .count();
+        Assert.state(weighted == 0 || weighted == partitionStepExecutions.size(),
+                "Either all or none of the partitions must have a '" + EXECUTION_CONTEXT_KEY_WEIGHT + "', but "
+                        + weighted + " of " + partitionStepExecutions.size() + " have one.");
+
+        Comparator<StepExecution> byPartitionNumber = Comparator.comparingInt((StepExecution stepExecution) -> stepExecution.getStepName().length())
+                .thenComparing(StepExecution::getStepName);
+        Comparator<StepExecution> order = weighted == 0
+                ? byPartitionNumber
+                : Comparator.comparingLong(Ex14_SharedQueuePartitionHandler::weightOf).reversed().thenComparing(byPartitionNumber);
+
+        List<StepExecution> ordered = new ArrayList<>(partitionStepExecutions);
+        ordered.sort(order);
+        return ordered;
+    }
+
+    private static long weightOf(StepExecution stepExecution) {
+        return stepExecution.getExecutionContext().getLong(EXECUTION_CONTEXT_KEY_WEIGHT);
+    }
+
+}
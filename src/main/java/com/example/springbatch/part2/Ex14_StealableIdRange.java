@@ -0,0 +1,107 @@
+package com.example.springbatch.part2;
+
+import org.springframework.util.Assert;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 실행 중인 파티션이 읽고 있는 [from, to) id 구간입니다. 파티션의 리더와 {@link Ex14_SharedQueuePartitionHandler}가 함께 사용합니다.
+ * <p>
+ * 리더는 id 오름차순으로 읽으면서 아이템마다 {@link #claim(long)}으로 구간의 앞쪽을 차지하고,
+ * 일이 없는 워커는 {@link #split(long)}으로 아직 읽지 않은 뒤쪽 절반을 떼어 가 별도의 파티션으로 실행합니다.
+ * 떼어 간 뒤에는 구간의 상한이 줄어들므로, 리더는 줄어든 상한 이상의 id를 만나면 읽기를 멈춥니다.
+ * 두 메서드는 같은 락을 사용하므로, 리더가 이미 차지한 id는 떼어 가는 구간에 포함되지 않습니다.
+ */
+public final class Ex14_StealableIdRange {
+
+    // 다음에 읽을 수 있는 가장 작은 id (포함)
+    private long next;
+    // 구간의 상한 (미포함, 다른 워커가 떼어 가면 줄어듭니다.)
+    private long to;
+
+    public Ex14_StealableIdRange(long from, long to) {
+        Assert.isTrue(from <= to, () -> "from must not be greater than to: [" + from + ", " + to + ")");
+        this.next = from;
+        this.to = to;
+    }
+
+    /**
+     * 리더가 읽은 아이템의 id를 이 구간의 것으로 차지합니다.
+     *
+     * @param id 읽은 아이템의 id (오름차순으로 호출해야 합니다.)
+     * @return id가 구간 안에 있으면 true, 다른 워커가 떼어 간 구간이면 false
+     */
+    public synchronized boolean claim(long id) {
+        if (id >= to) {
+            return false;
+        }
+        next = id + 1;
+        return true;
+    }
+
+    /**
+     * 리더가 끝까지 읽었거나 떼어 간 구간에 도달했을 때 호출하여 남은 구간을 비웁니다. 리더가 끝난 뒤 커밋하는 동안 다른 워커가 빈 구간을 떼어 가지 않도록 합니다.
+     */
+    public synchronized void finish() {
+        this.to = next;
+    }
+
+    /**
+     * 아직 읽지 않은 구간의 뒤쪽 절반을 떼어 냅니다. 이 구간의 상한은 떼어 낸 구간의 하한으로 줄어듭니다.
+     *
+     * @param minSize 떼어 낸 뒤 양쪽에 남아야 하는 최소 id 개수. 남은 구간이 이보다 두 배 이상 크지 않으면 나누지 않습니다.
+     * @return 떼어 낸 구간, 나눌 수 없으면 null
+     */
+    public synchronized Ex14_StealableIdRange split(long minSize) {
+        long remaining = to - next;
+        if (remaining < minSize * 2) {
+            return null;
+        }
+        long middle = next + remaining / 2;
+        Ex14_StealableIdRange stolen = new Ex14_StealableIdRange(middle, to);
+        this.to = middle;
+        return stolen;
+    }
+
+    /**
+     * 아직 읽지 않은 id 개수입니다. id가 연속적이지 않으므로 실제 남은 행 수가 아니라 구간의 폭입니다.
+     */
+    public synchronized long remaining() {
+        return to - next;
+    }
+
+    public synchronized long getFrom() {
+        return next;
+    }
+
+    public synchronized long getTo() {
+        return to;
+    }
+
+    /**
+     * 실행 중인 파티션의 구간을 StepExecution id로 보관하는 레지스트리입니다.
+     * 파티션 핸들러가 파티션을 실행하기 전에 등록하고, 같은 프로세스에서 실행되는 파티션의 리더가 open() 시 꺼내 씁니다.
+     * 등록되지 않은 파티션(다른 핸들러나 원격 워커에서 실행되는 파티션)의 리더는 구간을 나누지 않고 끝까지 읽습니다.
+     */
+    public static final class Registry {
+
+        private final Map<Long, Ex14_StealableIdRange> ranges = new ConcurrentHashMap<>();
+
+        public void register(long stepExecutionId, Ex14_StealableIdRange range) {
+            ranges.put(stepExecutionId, range);
+        }
+
+        /**
+         * @return 등록된 구간, 없으면 null
+         */
+        public Ex14_StealableIdRange find(long stepExecutionId) {
+            return ranges.get(stepExecutionId);
+        }
+
+        public void remove(long stepExecutionId) {
+            ranges.remove(stepExecutionId);
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.example.springbatch.part2;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.util.Assert;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * id 오름차순으로 읽는 리더를 감싸, 다른 워커가 떼어 간 구간의 아이템은 읽지 않도록 하는 ItemReader입니다.
+ * <p>
+ * open() 시 {@link Ex14_StealableIdRange.Registry}에서 이 파티션의 구간을 찾고, 읽은 아이템마다 {@link Ex14_StealableIdRange#claim(long)}으로 구간을 차지합니다.
+ * 구간의 상한 이상인 id를 만나면 남은 아이템은 떼어 간 파티션이 읽으므로 null을 반환하여 파티션을 끝냅니다.
+ * 등록된 구간이 없으면 감싼 리더를 그대로 읽습니다.
+ * 감싼 리더는 반드시 id 오름차순으로 읽어야 합니다. 순서가 다르면 떼어 간 구간과 겹치거나 빠지는 행이 생깁니다.
+ *
+ * @param <T> 아이템 타입
+ */
+public class Ex14_StealableIdRangeItemReader<T> implements ItemStreamReader<T> {
+
+    private final ItemStreamReader<T> delegate;
+    private final ToLongFunction<T> idExtractor;
+    private final Ex14_StealableIdRange.Registry registry;
+    private final long stepExecutionId;
+
+    private Ex14_StealableIdRange range;
+    private boolean exhausted;
+
+    /**
+     * StealableIdRangeItemReader 생성자
+     *
+     * @param delegate        id 오름차순으로 읽는 리더
+     * @param idExtractor     아이템에서 id를 꺼내는 함수
+     * @param registry        파티션 구간을 보관하는 레지스트리
+     * @param stepExecutionId 이 리더를 실행하는 파티션의 StepExecution id
+     */
+    public Ex14_StealableIdRangeItemReader(
+            ItemStreamReader<T> delegate,
+            ToLongFunction<T> idExtractor,
+            Ex14_StealableIdRange.Registry registry,
+            long stepExecutionId
+    ) {
+        Assert.notNull(delegate, "delegate is required.");
+        Assert.notNull(idExtractor, "idExtractor is required.");
+        Assert.notNull(registry, "registry is required.");
+        this.delegate = delegate;
+        this.idExtractor = idExtractor;
+        this.registry = registry;
+        this.stepExecutionId = stepExecutionId;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        range = registry.find(stepExecutionId);
+        exhausted = false;
+        delegate.open(executionContext);
+    }
+
+    @Override
+    public T read() throws Exception {
+        if (exhausted) {
+            return null;
+        }
+        T item = delegate.read();
+        if (range == null) {
+            return item;
+        }
+        if (item == null) {
+            range.finish();
+            return null;
+        }
+        if (!range.claim(idExtractor.applyAsLong(item))) {
+            // 여기부터는 다른 워커가 떼어 간 구간입니다.
+            exhausted = true;
+            range.finish();
+            return null;
+        }
+        return item;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        delegate.update(executionContext);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.example.springbatch.part2;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.util.Assert;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 날짜별 데이터 건수를 기준으로 파티션의 크기를 맞추는 Partitioner 구현체입니다.
+ * <p>
+ * {@link Ex14_LocalDatePartitioner}는 날짜마다 하나의 파티션을 만들기 때문에, 10건인 날과 천만 건인 날이 같은 비중으로 취급되어
+ * 월말이나 프로모션처럼 데이터가 몰린 날의 파티션이 전체 Job의 수행 시간을 결정합니다.
+ * 이 파티셔너는 먼저 `COUNT(*) ... GROUP BY payment_date`로 날짜별 건수를 조회하고, 전체 건수를 gridSize로 나눈 값을 파티션 목표 크기로 삼습니다.
+ * <ul>
+ *     <li>목표 크기보다 큰 날은 {@link Ex09_IdRangePartitioner}로 id 구간을 나누어 여러 파티션으로 쪼갭니다.</li>
+ *     <li>목표 크기보다 작은 날들은 건수가 큰 순서대로 목표 크기를 넘지 않는 파티션에 채워 넣어(first-fit decreasing) 하나의 파티션으로 묶습니다.</li>
+ * </ul>
+ * 생성된 각 파티션은 `paymentDates`(콤마로 구분된 날짜 목록)와 `weight`(예상 건수) 키를 가지며, 쪼개진 날의 파티션은 `minId`, `maxId` 키를 함께 가집니다.
+ * 데이터가 없는 날은 파티션을 만들지 않습니다.
+ */
+@Slf4j
+public class Ex14_WeightedDatePartitioner implements Partitioner {
+
+    // 파티션 번호를 식별하기 위한 키
+    private static final String PARTITION_KEY = "partition";
+    // StepExecutionContext에 저장될 날짜 목록의 키
+    private static final String EXECUTION_CONTEXT_KEY_PAYMENT_DATES = "paymentDates";
+    // StepExecutionContext에 저장될 예상 건수의 키 (큰 파티션부터 실행하는 데 사용)
+    private static final String EXECUTION_CONTEXT_KEY_WEIGHT = "weight";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+
+    /**
+     * WeightedDatePartitioner 생성자
+     *
+     * @param entityManagerFactory 날짜별 건수를 조회할 EntityManagerFactory
+     * @param startDate            파티션 생성 시작일
+     * @param endDate              파티션 생성 종료일
+     */
+    public Ex14_WeightedDatePartitioner(EntityManagerFactory entityManagerFactory, LocalDate startDate, LocalDate endDate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     * 건수가 비슷한 약 gridSize개의 파티션을 생성합니다.
+     *
+     * @param gridSize 목표 파티션 개수
+     * @return 각 파티션의 이름과 ExecutionContext를 담은 Map
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        List<ExecutionContext> contexts = new ArrayList<>();
+        for (DateGroup group : pack(countByDate(), gridSize)) {
+            if (group.slices() > 1) {
+                contexts.addAll(splitByIdRange(group.paymentDates().get(0), group.rows(), group.slices()));
+            } else {
+                contexts.add(group.toExecutionContext());
+            }
+        }
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        for (int i = 0; i < contexts.size(); i++) {
+            partitions.put(PARTITION_KEY + i, contexts.get(i));
+            log.info("Created partition {} with {}", PARTITION_KEY + i, contexts.get(i));
+        }
+        return partitions;
+    }
+
+    /**
+     * 날짜별 건수를 약 gridSize개의 비슷한 크기로 나누는 계획을 세웁니다. DB를 조회하지 않는 순수 함수입니다.
+     * 전체 건수를 gridSize로 나눈 값을 목표 크기로 삼고, 건수가 큰 날부터(같으면 이른 날부터) 차례로 처리합니다.
+     * <ul>
+     *     <li>목표 크기보다 큰 날은 목표 크기 단위로 나눈 조각 수(slices)를 가진 그룹 하나가 됩니다.</li>
+     *     <li>나머지 날은 목표 크기를 넘지 않는 첫 번째 그룹에 채워 넣고(first-fit decreasing), 들어갈 그룹이 없으면 새 그룹을 만듭니다.</li>
+     * </ul>
+     * 반환 순서는 쪼갤 날(큰 순서) 다음에 묶은 그룹(만든 순서)입니다. 건수가 0인 날은 포함되지 않습니다.
+     *
+     * @param countsByDate 날짜별 건수
+     * @param gridSize     목표 파티션 개수
+     * @return 파티션으로 만들 날짜 그룹 목록
+     */
+    static List<DateGroup> pack(Map<LocalDate, Long> countsByDate, int gridSize) {
+        Assert.isTrue(gridSize > 0, "gridSize must be greater than 0.");
+        long total = countsByDate.values().stream().mapToLong(Long::longValue).sum();
+        long target = Math.max(1, (total + gridSize - 1) / gridSize);
+        log.info("Partitioning {} rows over {} days with target {} rows per partition", total, countsByDate.size(), target);
+
+        List<DateGroup> splitDays = new ArrayList<>();
+        List<Bin> bins = new ArrayList<>();
+        countsByDate.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<LocalDate, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> {
+                    if (entry.getValue() > target) {
+                        // 목표 크기보다 큰 날은 id 구간으로 쪼갭니다.
+                        int slices = (int) ((entry.getValue() + target - 1) / target);
+                        splitDays.add(new DateGroup(List.of(entry.getKey()), entry.getValue(), slices));
+                    } else {
+                        // 목표 크기보다 작은 날은 남은 자리가 있는 첫 번째 파티션에 채워 넣습니다.
+                        Bin bin = bins.stream()
+                                .filter(candidate -> candidate.rows + entry.getValue() <= target)
+                                .findFirst()
+                                .orElseGet(() -> {
+                                    Bin created = new Bin();
+                                    bins.add(created);
+                                    return created;
+                                });
+                        bin.add(entry.getKey(), entry.getValue());
+                    }
+                });
+
+        List<DateGroup> groups = new ArrayList<>(splitDays);
+        bins.forEach(bin -> groups.add(new DateGroup(bin.paymentDates.stream().sorted().toList(), bin.rows, 1)));
+        return groups;
+    }
+
+    /**
+     * 기간 내 날짜별 데이터 건수를 조회합니다. payment_date 인덱스만으로 처리되는 가벼운 집계 쿼리입니다.
+     */
+    private Map<LocalDate, Long> countByDate() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery(
+                            "SELECT ps.paymentDate, COUNT(ps) FROM PaymentSource ps " +
+                                    "WHERE ps.paymentDate BETWEEN :startDate AND :endDate GROUP BY ps.paymentDate", Object[].class)
+                    .setParameter("startDate", startDate)
+                    .setParameter("endDate", endDate)
+                    .getResultList()
+                    .stream()
+                    .collect(Collectors.toMap(row -> (LocalDate) row[0], row -> ((Number) row[1]).longValue()));
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * 하루치 데이터를 행 수가 비슷한 slices개의 id 구간으로 나눕니다.
+     */
+    private List<ExecutionContext> splitByIdRange(LocalDate paymentDate, long rows, int slices) {
+        long rowsPerSlice = rows / slices;
+        Ex09_IdRangePartitioner idRangePartitioner = new Ex09_IdRangePartitioner(
+                entityManagerFactory,
+                "FROM PaymentSource ps WHERE ps.paymentDate = :paymentDate",
+                "ps.id",
+                Map.of("paymentDate", paymentDate),
+                true
+        );
+        return idRangePartitioner.partition(slices).entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparingInt(key -> Integer.parseInt(key.substring(PARTITION_KEY.length())))))
+                .map(entry -> {
+                    ExecutionContext context = entry.getValue();
+                    context.putString(EXECUTION_CONTEXT_KEY_PAYMENT_DATES, paymentDate.format(DateTimeFormatter.ISO_LOCAL_DATE));
+                    context.putLong(EXECUTION_CONTEXT_KEY_WEIGHT, rowsPerSlice);
+                    return context;
+                })
+                .toList();
+    }
+
+    /**
+     * 파티션으로 만들 날짜 그룹입니다.
+     *
+     * @param paymentDates 그룹에 포함된 날짜 (오름차순)
+     * @param rows         그룹의 예상 건수
+     * @param slices       1이면 날짜들을 하나의 파티션으로 묶고, 2 이상이면 하나뿐인 날짜를 slices개의 id 구간 파티션으로 쪼갭니다.
+     */
+    record DateGroup(List<LocalDate> paymentDates, long rows, int slices) {
+
+        private ExecutionContext toExecutionContext() {
+            ExecutionContext context = new ExecutionContext();
+            context.putString(EXECUTION_CONTEXT_KEY_PAYMENT_DATES, paymentDates.stream()
+                    .map(date -> date.format(DateTimeFormatter.ISO_LOCAL_DATE))
+                    .collect(Collectors.joining(",")));
+            context.putLong(EXECUTION_CONTEXT_KEY_WEIGHT, rows);
+            return context;
+        }
+    }
+
+    /**
+     * 날짜를 채워 넣는 중인 그룹입니다.
+     */
+    private static class Bin {
+
+        private final List<LocalDate> paymentDates = new ArrayList<>();
+        private long rows = 0;
+
+        private void add(LocalDate paymentDate, long count) {
+            paymentDates.add(paymentDate);
+            rows += count;
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.example.springbatch.part3;
+
+import com.example.springbatch.common.PaymentDailyAmountAggregator;
+import com.example.springbatch.common.PaymentDateRange;
+import com.example.springbatch.common.PaymentStatisticsDailySum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 결제 원천 데이터를 DB에서 GROUP BY 하지 않고 그대로 읽어, 배치 노드의 메모리에서 (사업자번호, 결제일자)별로 합산하는 ItemReader입니다.
+ * <p>
+ * paymentStatisticsReader는 MySQL에서 GROUP BY를 수행하고 스트리밍 커서(fetchSize = Integer.MIN_VALUE)로 결과를 읽으므로,
+ * 집계가 끝날 때까지 DB에서 정렬과 임시 테이블 작업이 이어지고 커서가 열린 채로 유지됩니다.
+ * 이 Reader는 원천 행을 (payment_date_time, id) 기준의 keyset 페이지로 나누어 짧은 쿼리로 읽고,
+ * 합산은 {@link PaymentDailyAmountAggregator}에 맡겨 DB의 CPU 부담을 배치 노드로 옮깁니다.
+ * <p>
+ * open()에서 모든 원천 행을 읽어 집계를 마친 뒤, read() 호출마다 합계를 하나씩 반환합니다.
+ * open()은 chunk 트랜잭션 밖에서 호출되므로 집계하는 동안 트랜잭션을 열어 두지 않으며, 각 페이지 쿼리는 짧은 트랜잭션으로 끝납니다.
+ * 첫 번째 read()에서 집계하면 전체 조회가 첫 chunk의 트랜잭션 안에서 실행되어, 집계가 끝날 때까지 트랜잭션과 커넥션이 열린 채로 남습니다.
+ * 집계 중간 상태는 저장하지 않으므로 재시작하면 처음부터 다시 집계하며, upsert writer와 함께 사용하면 재실행해도 결과가 같습니다.
+ */
+@Slf4j
+public class Ex15_HashAggregatingItemReader implements ItemStreamReader<PaymentStatisticsDailySum> {
+
+    private static final String SELECT_PAGE_SQL = """
+            SELECT id, corp_name, business_registration_number, payment_date_time, amount
+            FROM payment_source_v2
+            WHERE payment_date_time >= ? AND payment_date_time < ?
+              AND (payment_date_time > ? OR (payment_date_time = ? AND id > ?))
+            ORDER BY payment_date_time, id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<PaymentDateRange> ranges;
+    private final int pageSize;
+    private final long memoryBudgetBytes;
+    private final Path spillDirectory;
+
+    private PaymentDailyAmountAggregator aggregator;
+    private Iterator<PaymentStatisticsDailySum> results;
+
+    /**
+     * HashAggregatingItemReader 생성자
+     *
+     * @param jdbcTemplate      JdbcTemplate
+     * @param ranges            집계할 결제 일자 구간
+     * @param pageSize          keyset 페이지 하나로 읽을 원천 행 수
+     * @param memoryBudgetBytes 집계 해시 테이블에 사용할 최대 메모리
+     * @param spillDirectory    메모리 예산을 넘었을 때 임시 파일을 만들 디렉터리
+     */
+    public Ex15_HashAggregatingItemReader(
+            JdbcTemplate jdbcTemplate,
+            List<PaymentDateRange> ranges,
+            int pageSize,
+            long memoryBudgetBytes,
+            Path spillDirectory
+    ) {
+        Assert.isTrue(pageSize > 0, "pageSize must be greater than 0.");
+        this.jdbcTemplate = jdbcTemplate;
+        this.ranges = ranges;
+        this.pageSize = pageSize;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.spillDirectory = spillDirectory;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        aggregator = new PaymentDailyAmountAggregator(memoryBudgetBytes, spillDirectory);
+        for (PaymentDateRange range : ranges) {
+            aggregate(range);
+        }
+        results = aggregator.results();
+    }
+
+    @Override
+    public PaymentStatisticsDailySum read() {
+        return results.hasNext() ? results.next() : null;
+    }
+
+    @Override
+    public void close() {
+        if (aggregator != null) {
+            aggregator.close();
+            aggregator = null;
+        }
+    }
+
+    /**
+     * 구간 하나의 원천 행을 keyset 페이지 단위로 읽어 집계기에 넣습니다.
+     * 각 페이지는 payment_date_time 인덱스의 범위 스캔으로 pageSize건만 읽는 짧은 쿼리입니다.
+     */
+    private void aggregate(PaymentDateRange range) {
+        Timestamp start = Timestamp.valueOf(range.startDateTime());
+        Timestamp end = Timestamp.valueOf(range.endDateTimeExclusive());
+        // 구간 시작 시각과 같은 행도 포함되도록 (시작 시각, id 0)부터 읽습니다.
+        KeysetPosition position = new KeysetPosition(range.startDateTime(), 0L);
+        int pages = 0;
+        while (true) {
+            int fetched = readPage(start, end, position);
+            pages++;
+            if (fetched < pageSize) {
+                break;
+            }
+        }
+        log.info("Aggregated payment sources of {} in {} pages", range, pages);
+    }
+
+    private int readPage(Timestamp start, Timestamp end, KeysetPosition position) {
+        Timestamp lastDateTime = Timestamp.valueOf(position.dateTime);
+        int[] fetched = {0};
+        jdbcTemplate.query(SELECT_PAGE_SQL, rs -> {
+                    LocalDateTime paymentDateTime = rs.getTimestamp("payment_date_time").toLocalDateTime();
+                    aggregator.add(
+                            rs.getString("corp_name"),
+                            rs.getString("business_registration_number"),
+                            paymentDateTime.toLocalDate(),
+                            rs.getBigDecimal("amount")
+                    );
+                    position.dateTime = paymentDateTime;
+                    position.id = rs.getLong("id");
+                    fetched[0]++;
+                },
+                start, end, lastDateTime, lastDateTime, position.id, pageSize);
+        return fetched[0];
+    }
+
+    /**
+     * 마지막으로 읽은 행의 (payment_date_time, id)
+     */
+    private static class KeysetPosition {
+
+        private LocalDateTime dateTime;
+        private long id;
+
+        private KeysetPosition(LocalDateTime dateTime, long id) {
+            this.dateTime = dateTime;
+            this.id = id;
+        }
+    }
+
+}
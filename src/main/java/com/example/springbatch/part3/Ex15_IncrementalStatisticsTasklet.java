@@ -0,0 +1,316 @@
+package com.example.springbatch.part3;
+
+import com.example.springbatch.common.Money;
+import com.example.springbatch.common.PaymentDailyStatisticsUniqueKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * payment_source_v2에서 마지막 실행 이후 변경된 행만 읽어 일일 결제 통계에 증감분을 더하는 Tasklet입니다.
+ * <p>
+ * 기존 paymentStatisticsJob은 오늘 변경된 행이 하나라도 있는 날짜의 모든 결제 데이터를 다시 SUM 하므로, 늦게 들어온 1건 때문에 그 날짜 전체를 다시 읽습니다.
+ * 이 Tasklet은 마지막으로 반영한 (updated_at, id) 위치를 워터마크(payment_statistics_watermark)로 저장해 두고, 그 이후의 행만 읽습니다.
+ * <ul>
+ *     <li>원천 행 한 건이 통계에 반영한 값은 원장(payment_statistics_ledger)에 기록합니다.</li>
+ *     <li>이미 반영된 행의 금액이나 결제일이 정정되면 원장의 이전 값을 빼고 새 값을 더합니다.</li>
+ *     <li>증감분은 (사업자번호, 결제일자)별로 모은 뒤 `amount = amount + 증감분` 한 문장으로 반영하고, 원장과 워터마크도 같은 트랜잭션에서 갱신합니다.</li>
+ *     <li>금액은 읽을 때 {@link Money#toMinorUnits}로 최소 단위 long으로 바꾸어 증감분을 long 연산으로 모으고, 저장할 때만 BigDecimal로 바꿉니다.</li>
+ * </ul>
+ * 실행할 때마다 batchSize건씩 반복하며(RepeatStatus.CONTINUABLE), 반복마다 별도의 트랜잭션으로 커밋되므로 중간에 실패해도 마지막 커밋 지점부터 이어서 처리합니다.
+ * 아직 커밋되지 않은 트랜잭션이 더 이른 updated_at으로 나중에 커밋될 수 있으므로, 현재 시각에서 safetyLag만큼 이전까지만 읽습니다.
+ * <p>
+ * 워터마크가 없는 첫 실행에서는 현재 원천 데이터 전체로 원장을 만들고 통계를 다시 계산한 뒤 워터마크를 기록합니다. (최초 1회 전체 조회)
+ * 원장에 없는 (사업자번호, 결제일자)의 통계는 반영된 원천 행이 없다는 뜻이므로 금액을 0으로 맞춥니다.
+ * updated_at으로는 원천 행의 삭제를 알 수 없으므로, 삭제가 발생하는 경우에는 워터마크를 지워 다시 초기화해야 합니다.
+ * <p>
+ * paymentStatisticsJob, partitionedPaymentStatisticsJob, hashAggregatedPaymentStatisticsJob은 날짜의 합계를 원천 데이터로 다시 계산하여 덮어씁니다.
+ * 덮어쓴 합계에는 워터마크 이후의 변경분이 이미 들어 있으므로, 이 Tasklet이 그 변경분을 다시 더하면 두 번 집계됩니다.
+ * 그래서 같은 통계 테이블에는 합계를 덮어쓰는 Job과 이 Tasklet 중 한 방식만 사용합니다.
+ * 마지막 증분 반영 이후 다른 Job이 수정한 통계가 있으면 증감분을 더하지 않고 실패하며,
+ * 이때는 워터마크를 지워(`DELETE FROM payment_statistics_watermark`) 원장과 통계를 다시 만든 뒤 증분 집계로 전환합니다.
+ */
+@Slf4j
+public class Ex15_IncrementalStatisticsTasklet implements Tasklet {
+
+    private static final String WATERMARK_NAME = "payment_daily_statistics";
+
+    private static final String SELECT_CHANGED_ROWS_SQL = """
+            SELECT s.id, s.corp_name, s.business_registration_number, DATE(s.payment_date_time) AS payment_date, s.amount, s.updated_at,
+                   l.corp_name AS ledger_corp_name, l.business_registration_number AS ledger_business_registration_number,
+                   l.payment_date AS ledger_payment_date, l.amount AS ledger_amount
+            FROM payment_source_v2 s
+            LEFT JOIN payment_statistics_ledger l ON l.source_id = s.id
+            WHERE (s.updated_at > ? OR (s.updated_at = ? AND s.id > ?))
+              AND s.updated_at < ?
+            ORDER BY s.updated_at, s.id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Duration safetyLag;
+
+    private LocalDateTime upperBound;
+    private boolean verified = false;
+
+    /**
+     * IncrementalStatisticsTasklet 생성자
+     *
+     * @param jdbcTemplate JdbcTemplate
+     * @param batchSize    반복 한 번(트랜잭션 하나)에 반영할 원천 행 수
+     * @param safetyLag    아직 커밋되지 않았을 수 있는 최근 변경분을 건너뛸 시간
+     */
+    public Ex15_IncrementalStatisticsTasklet(JdbcTemplate jdbcTemplate, int batchSize, Duration safetyLag) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0.");
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.safetyLag = safetyLag;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        if (upperBound == null) {
+            // Step 실행 동안 같은 상한을 사용합니다. DB 시각 기준으로 계산하여 애플리케이션 서버와의 시차를 피합니다.
+            upperBound = jdbcTemplate.queryForObject("SELECT NOW(6) - INTERVAL ? MICROSECOND", LocalDateTime.class, safetyLag.toNanos() / 1_000);
+        }
+
+        // 동시에 실행된 다른 Job과 같은 변경분을 두 번 반영하지 않도록 워터마크 행을 잠급니다.
+        List<Watermark> watermarks = jdbcTemplate.query(
+                "SELECT last_updated_at, last_id, updated_at FROM payment_statistics_watermark WHERE name = ? FOR UPDATE",
+                (rs, rowNum) -> new Watermark(
+                        rs.getTimestamp("last_updated_at").toLocalDateTime(),
+                        rs.getLong("last_id"),
+                        rs.getTimestamp("updated_at").toLocalDateTime()
+                ),
+                WATERMARK_NAME
+        );
+        if (watermarks.isEmpty()) {
+            bootstrap(contribution);
+            return RepeatStatus.FINISHED;
+        }
+
+        Watermark watermark = watermarks.get(0);
+        if (!verified) {
+            verifyNoForeignRewrite(watermark);
+            verified = true;
+        }
+        List<ChangedRow> rows = jdbcTemplate.query(SELECT_CHANGED_ROWS_SQL, (rs, rowNum) -> new ChangedRow(
+                        rs.getLong("id"),
+                        rs.getString("corp_name"),
+                        rs.getString("business_registration_number"),
+                        rs.getObject("payment_date", LocalDate.class),
+                        Money.toMinorUnits(rs.getBigDecimal("amount")),
+                        rs.getTimestamp("updated_at").toLocalDateTime(),
+                        rs.getString("ledger_corp_name"),
+                        rs.getString("ledger_business_registration_number"),
+                        rs.getObject("ledger_payment_date", LocalDate.class),
+                        toMinorUnitsOrNull(rs.getBigDecimal("ledger_amount"))
+                ),
+                Timestamp.valueOf(watermark.updatedAt()), Timestamp.valueOf(watermark.updatedAt()), watermark.id(),
+                Timestamp.valueOf(upperBound), batchSize);
+        if (rows.isEmpty()) {
+            log.info("No payment source changes before {}", upperBound);
+            return RepeatStatus.FINISHED;
+        }
+        rows.forEach(row -> contribution.incrementReadCount());
+
+        Map<PaymentDailyStatisticsUniqueKey, Delta> deltas = new LinkedHashMap<>();
+        for (ChangedRow row : rows) {
+            if (row.ledgerAmount() != null) {
+                // 이전에 반영한 값을 빼고
+                addDelta(deltas, row.ledgerBusinessRegistrationNumber(), row.ledgerPaymentDate(), row.ledgerCorpName(), Math.negateExact(row.ledgerAmount()));
+            }
+            // 현재 값을 더합니다.
+            addDelta(deltas, row.businessRegistrationNumber(), row.paymentDate(), row.corpName(), row.amount());
+        }
+        deltas.values().removeIf(delta -> delta.amount == 0L);
+
+        applyDeltas(deltas);
+        upsertLedger(rows);
+        ChangedRow last = rows.get(rows.size() - 1);
+        saveWatermark(last.updatedAt(), last.id());
+        contribution.incrementWriteCount(deltas.size());
+        log.info("Applied {} changed payment sources as {} statistics deltas, watermark=({}, {})",
+                rows.size(), deltas.size(), last.updatedAt(), last.id());
+
+        return rows.size() < batchSize ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+    }
+
+    /**
+     * 마지막 증분 반영 이후 다른 Job이 통계를 수정했는지 확인합니다.
+     * 증분 반영은 통계를 수정한 뒤 같은 트랜잭션에서 워터마크의 updated_at을 기록하므로, 그보다 나중에 수정된 통계는 다른 Job이 덮어쓴 것입니다.
+     */
+    private void verifyNoForeignRewrite(Watermark watermark) {
+        Boolean rewritten = jdbcTemplate.queryForObject(
+                "SELECT EXISTS(SELECT 1 FROM payment_daily_statistics WHERE updated_at > ?)",
+                Boolean.class, Timestamp.valueOf(watermark.savedAt()));
+        Assert.state(!Boolean.TRUE.equals(rewritten),
+                "payment_daily_statistics was rewritten after the last incremental run at " + watermark.savedAt()
+                        + ". Delete the '" + WATERMARK_NAME + "' row of payment_statistics_watermark to rebuild the ledger before running incrementally.");
+    }
+
+    /**
+     * 첫 실행에서 현재 원천 데이터 전체로 원장을 만들고, 원장 기준으로 통계를 다시 계산한 뒤 워터마크를 기록합니다.
+     * 원장에 키가 없는 통계(원천 행이 삭제되었거나 결제일이 옮겨진 날짜)는 금액을 0으로 맞춥니다.
+     */
+    private void bootstrap(StepContribution contribution) {
+        log.info("No watermark found, building the ledger from payment sources updated before {}", upperBound);
+        jdbcTemplate.update("DELETE FROM payment_statistics_ledger");
+        int sources = jdbcTemplate.update("""
+                INSERT INTO payment_statistics_ledger (source_id, corp_name, business_registration_number, payment_date, amount)
+                SELECT id, corp_name, business_registration_number, DATE(payment_date_time), amount
+                FROM payment_source_v2
+                WHERE updated_at < ?
+                """, Timestamp.valueOf(upperBound));
+        int statistics = jdbcTemplate.update("""
+                INSERT INTO payment_daily_statistics (corp_name, business_registration_number, amount, payment_date, created_at, updated_at)
+                SELECT MAX(corp_name), business_registration_number, SUM(amount), payment_date, NOW(), NOW()
+                FROM payment_statistics_ledger
+                GROUP BY business_registration_number, payment_date
+                ON DUPLICATE KEY UPDATE
+                    updated_at = IF(amount <=> VALUES(amount), updated_at, NOW()),
+                    amount = VALUES(amount)
+                """);
+        int orphaned = jdbcTemplate.update("""
+                UPDATE payment_daily_statistics s
+                LEFT JOIN (SELECT DISTINCT business_registration_number, payment_date FROM payment_statistics_ledger) l
+                    ON l.business_registration_number = s.business_registration_number AND l.payment_date = s.payment_date
+                SET s.updated_at = NOW(),
+                    s.amount = 0
+                WHERE l.business_registration_number IS NULL
+                  AND s.amount <> 0
+                """);
+        jdbcTemplate.update(
+                "INSERT INTO payment_statistics_watermark (name, last_updated_at, last_id, updated_at) VALUES (?, ?, 0, NOW(6))",
+                WATERMARK_NAME, Timestamp.valueOf(upperBound));
+        contribution.incrementWriteCount(statistics + orphaned);
+        log.info("Ledger built from {} payment sources, {} statistics without sources reset to 0, watermark=({}, 0)", sources, orphaned, upperBound);
+    }
+
+    private void addDelta(
+            Map<PaymentDailyStatisticsUniqueKey, Delta> deltas,
+            String businessRegistrationNumber,
+            LocalDate paymentDate,
+            String corpName,
+            long amount
+    ) {
+        Delta delta = deltas.computeIfAbsent(new PaymentDailyStatisticsUniqueKey(businessRegistrationNumber, paymentDate), key -> new Delta(corpName));
+        delta.amount = Math.addExact(delta.amount, amount);
+    }
+
+    private static Long toMinorUnitsOrNull(BigDecimal amount) {
+        return amount == null ? null : Money.toMinorUnits(amount);
+    }
+
+    /**
+     * (사업자번호, 결제일자)별 증감분을 한 문장으로 반영합니다. 통계가 없던 키는 증감분을 금액으로 새로 저장합니다.
+     */
+    private void applyDeltas(Map<PaymentDailyStatisticsUniqueKey, Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object> parameters = new ArrayList<>();
+        deltas.forEach((key, delta) -> {
+            parameters.add(delta.corpName);
+            parameters.add(key.getBusinessRegistrationNumber());
+            parameters.add(Money.ofMinorUnits(delta.amount).toBigDecimal());
+            parameters.add(Date.valueOf(key.getPaymentDate()));
+        });
+        jdbcTemplate.update("""
+                INSERT INTO payment_daily_statistics (corp_name, business_registration_number, amount, payment_date, created_at, updated_at)
+                VALUES
+                """ + String.join(",\n", Collections.nCopies(deltas.size(), "(?, ?, ?, ?, NOW(), NOW())")) + """
+
+                ON DUPLICATE KEY UPDATE
+                    amount = amount + VALUES(amount),
+                    updated_at = NOW()
+                """, parameters.toArray());
+    }
+
+    /**
+     * 이번에 반영한 원천 행들의 현재 값을 원장에 기록합니다.
+     */
+    private void upsertLedger(List<ChangedRow> rows) {
+        List<Object> parameters = new ArrayList<>();
+        rows.forEach(row -> {
+            parameters.add(row.id());
+            parameters.add(row.corpName());
+            parameters.add(row.businessRegistrationNumber());
+            parameters.add(Date.valueOf(row.paymentDate()));
+            parameters.add(Money.ofMinorUnits(row.amount()).toBigDecimal());
+        });
+        jdbcTemplate.update("""
+                INSERT INTO payment_statistics_ledger (source_id, corp_name, business_registration_number, payment_date, amount)
+                VALUES
+                """ + String.join(",\n", Collections.nCopies(rows.size(), "(?, ?, ?, ?, ?)")) + """
+
+                ON DUPLICATE KEY UPDATE
+                    corp_name = VALUES(corp_name),
+                    business_registration_number = VALUES(business_registration_number),
+                    payment_date = VALUES(payment_date),
+                    amount = VALUES(amount)
+                """, parameters.toArray());
+    }
+
+    private void saveWatermark(LocalDateTime updatedAt, long id) {
+        jdbcTemplate.update(
+                "UPDATE payment_statistics_watermark SET last_updated_at = ?, last_id = ?, updated_at = NOW(6) WHERE name = ?",
+                Timestamp.valueOf(updatedAt), id, WATERMARK_NAME);
+    }
+
+    /**
+     * @param updatedAt 마지막으로 반영한 원천 행의 updated_at
+     * @param id        마지막으로 반영한 원천 행의 id
+     * @param savedAt   워터마크를 기록한 시각
+     */
+    private record Watermark(LocalDateTime updatedAt, long id, LocalDateTime savedAt) {
+    }
+
+    /**
+     * 변경된 원천 행과 원장에 기록된 이전 값입니다. 금액은 최소 단위이며, 원장에 없는 행이면 ledger 값은 null입니다.
+     */
+    private record ChangedRow(
+            long id,
+            String corpName,
+            String businessRegistrationNumber,
+            LocalDate paymentDate,
+            long amount,
+            LocalDateTime updatedAt,
+            String ledgerCorpName,
+            String ledgerBusinessRegistrationNumber,
+            LocalDate ledgerPaymentDate,
+            Long ledgerAmount
+    ) {
+    }
+
+    /**
+     * (사업자번호, 결제일자) 하나에 더할 금액 (최소 단위)
+     */
+    private static class Delta {
+
+        private final String corpName;
+        private long amount = 0L;
+
+        private Delta(String corpName) {
+            this.corpName = corpName;
+        }
+    }
+
+}
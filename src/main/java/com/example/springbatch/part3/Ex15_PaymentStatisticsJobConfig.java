@@ -1,7 +1,10 @@
 package com.example.springbatch.part3;
 
 import com.example.springbatch.common.ArgumentProperties;
+import com.example.springbatch.common.ConnectionPoolGovernor;
 import com.example.springbatch.common.PaymentDailyStatisticsRecoveryService;
+import com.example.springbatch.common.PaymentDailyStatisticsUpsertService;
+import com.example.springbatch.common.PaymentDateRange;
 import com.example.springbatch.common.PaymentStatisticsDailySum;
 import com.example.springbatch.common.listener.ChunkDurationTrackerListener;
 import com.example.springbatch.common.listener.PrepareTargetDatesJobListener;
@@ -13,20 +16,31 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JdbcCursorItemReader;
 import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.Assert;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /*
@@ -67,6 +81,38 @@ import java.util.stream.Collectors;
            - 만약 누락된 데이터 100원이 1/3일에 들어왔다고 가정. 하지만 이 값이 잘못된 값이라 1/4일에 200원으로 변경이 됨.
              createAt을 기준으로 한다면, 재변경이 일어난 100 -> 200원 수정을 알아챌 수 없음. 따라서 최종변경사항을 알 수 있는 updatedAt을 기준으로 하는게 현재의 비즈니스에는 적당하다.
        - 실행 : Program arguments에 옵션 추가 후 Run >>> --job.name=paymentStatisticsJob
+     - 다섯번째 커밋
+       - 네번째 커밋 방식의 문제점
+         - RecoveryService는 변경된 엔티티마다 UPDATE, 신규 엔티티마다 INSERT를 실행하므로 chunk 하나에 최대 2N개의 쿼리가 실행된다.
+           (IDENTITY 전략이라 INSERT를 배치로 묶을 수도 없다)
+       - 기존 값을 조회하지 않고 chunk의 모든 대상을 multi-row INSERT ... ON DUPLICATE KEY UPDATE 한 문장으로 저장하는 UpsertService를 추가한다.
+         금액이 바뀐 행은 영향받은 행 수가 2, 신규와 변경 없는 행은 1이므로 (영향받은 행 수 - 대상 건수)가 변경 건수가 된다.
+       - 실행 : Program arguments에 옵션 추가 후 Run >>> --job.name=paymentStatisticsJob --args.statistics-write-mode=upsert
+       - 재처리 대상 날짜가 많을 때 날짜마다 OR 조건을 만들고 값을 SQL에 직접 넣으면 전체 스캔이 되고 PreparedStatement도 재사용되지 않는다.
+         이웃한 날짜를 구간으로 합쳐 파라미터로 바인딩하고, --args.statistics-range-scan=union이면 구간마다 범위 스캔한 결과를 UNION ALL로 잇는다.
+     - 증분 집계 (incrementalPaymentStatisticsJob)
+       - paymentStatisticsJob은 늦게 들어온 1건 때문에 해당 날짜의 모든 결제 데이터를 다시 SUM 한다. 정정 대상 날짜가 수백 일이면 수백 일을 전부 다시 읽는다.
+       - 마지막으로 반영한 payment_source_v2의 (updated_at, id)를 워터마크로 저장하고, 그 이후에 변경된 행만 읽어 통계에 증감분을 더한다.
+       - 원천 행마다 통계에 반영한 값을 원장에 남겨 두고, 정정된 행은 이전 값을 빼고 새 값을 더한다.
+       - 첫 실행은 원장을 만들면서 통계를 전체 재계산한다. (setup.sql의 '일일 결제 통계 증분 집계' 테이블 필요)
+       - 날짜의 합계를 다시 계산해 덮어쓰는 Job(paymentStatisticsJob, 파티셔닝, 해시 집계)은 워터마크 이후 변경분까지 이미 반영하므로,
+         같은 통계 테이블에는 덮어쓰는 Job과 증분 집계 중 한 방식만 사용한다.
+         마지막 증분 반영 이후 다른 Job이 통계를 수정했으면 증분 집계는 실패하고, 워터마크 행을 지우면 원장부터 다시 만든 뒤 증분 집계로 전환한다.
+       - 실행 : Program arguments에 옵션 추가 후 Run >>> --job.name=incrementalPaymentStatisticsJob
+     - 날짜별 파티셔닝 (partitionedPaymentStatisticsJob)
+       - 재처리 대상 날짜가 수십 개여도 paymentStatisticsJob은 하나의 Step에서 하나의 GROUP BY 쿼리로 순서대로 처리한다.
+       - 대상 날짜마다 파티션을 만들어, 각 파티션이 자신의 날짜만 집계하는 쿼리와 upsert writer로 병렬 처리한다.
+       - 동시에 실행하는 파티션 수는 ConnectionPoolGovernor가 커넥션 풀 크기에 맞춰 제한한다.
+       - 파티션 이름이 날짜이므로, 실패한 JobExecution을 JobOperator.restart(executionId)로 재시작하면 완료된 날짜는 건너뛰고 실패한 날짜만 다시 실행한다.
+         --job.name으로 다시 실행하면 RunIdIncrementer가 새 JobInstance를 만들므로 모든 날짜를 처음부터 다시 실행한다.
+         재시작할 때도 대상 날짜는 그날의 변경분으로 다시 조회하므로, 실패한 날과 같은 날에 재시작해야 같은 날짜 목록이 만들어진다.
+       - 실행 : Program arguments에 옵션 추가 후 Run >>> --job.name=partitionedPaymentStatisticsJob
+     - JVM 내 해시 집계 (hashAggregatedPaymentStatisticsJob)
+       - GROUP BY를 DB에서 수행하면 집계가 끝날 때까지 스트리밍 커서가 열려 있고, 정렬과 임시 테이블 부담이 모두 DB(primary)에 걸린다.
+       - 원천 행을 (payment_date_time, id) keyset 페이지로 짧게 나누어 읽고, 배치 노드의 open addressing 해시 테이블에서 합산한다.
+         키는 (사업자 id << 32 | epoch day) long 하나, 금액은 long 최소 단위로 누적하여 객체 생성 없이 집계한다.
+       - 메모리 예산을 넘으면 정렬된 임시 파일로 내보내고 마지막에 병합한다.
+       - 실행 : Program arguments에 옵션 추가 후 Run >>> --job.name=hashAggregatedPaymentStatisticsJob
  */
 @Slf4j
 @Configuration
@@ -76,12 +122,27 @@ public class Ex15_PaymentStatisticsJobConfig {
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
     private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
     private final ArgumentProperties properties;
     private final PrepareTargetDatesJobListener prepareTargetDatesJobListener;
     private final PaymentDailyStatisticsRecoveryService paymentDailyStatisticsRecoveryService;
+    private final PaymentDailyStatisticsUpsertService paymentDailyStatisticsUpsertService;
+    private final ConnectionPoolGovernor connectionPoolGovernor;
 
     private final int chunkSize = 100;
 
+    private static final String PAYMENT_STATISTICS_SQL = """
+            SELECT
+                SUM(amount) as totalAmount,
+                corp_name as corpName,
+                business_registration_number as businessRegistrationNumber,
+                DATE(payment_date_time) as paymentDate
+            FROM payment_source_v2
+            WHERE %s
+            GROUP BY business_registration_number, corp_name, DATE(payment_date_time)
+            """;
+    private static final String RANGE_CONDITION = "(payment_date_time >= ? AND payment_date_time < ?)";
+
     /**
      * 일일 결제 통계 데이터를 생성하는 Spring Batch Job을 정의합니다.
      */
@@ -114,32 +175,42 @@ public class Ex15_PaymentStatisticsJobConfig {
 
     /**
      * [Reader]
-     * 특정 날짜의 결제 데이터를 사업자 번호 기준으로 합산하여 읽어옵니다.
+     * 대상 날짜들의 결제 데이터를 사업자 번호 기준으로 합산하여 읽어옵니다.
+     * 이웃한 날짜는 하나의 구간으로 합치고, 구간 경계는 SQL에 직접 넣지 않고 파라미터로 바인딩하여 payment_date_time 인덱스의 범위 스캔을 유지합니다.
+     * args.statistics-range-scan이 union이면 구간마다 별도의 SELECT를 UNION ALL로 이어, 구간 하나씩 차례로 범위 스캔하도록 합니다.
      */
     @Bean
     @StepScope
     public JdbcCursorItemReader<PaymentStatisticsDailySum> paymentStatisticsReader() {
-        final Set<LocalDate> targetPaymentDates = properties.getTargetPaymentDates();
-        String whereConditions = targetPaymentDates.stream()
-                .map(date -> String.format("(payment_date_time >= '%s 00:00:00' AND payment_date_time < '%s 00:00:00')", date, date.plusDays(1)))
-                .collect(Collectors.joining(" OR "));
+        final List<PaymentDateRange> ranges = PaymentDateRange.coalesce(properties.getTargetPaymentDates());
+        // 구간이 없으면 union은 빈 SQL이, or는 조건 없는 WHERE가 만들어지므로 조회하기 전에 실패시킵니다.
+        Assert.state(!ranges.isEmpty(), "targetPaymentDates must not be empty.");
+        log.info("재처리 대상 날짜 {}개를 {}개 구간으로 조회합니다: {}", properties.getTargetPaymentDates().size(), ranges.size(), ranges);
 
         // MySQL 기준 SQL 쿼리
-        String sql = String.format("""
-                SELECT
-                    SUM(amount) as totalAmount,
-                    corp_name as corpName,
-                    business_registration_number as businessRegistrationNumber,
-                    DATE(payment_date_time) as paymentDate
-                FROM payment_source_v2
-                WHERE %s
-                GROUP BY business_registration_number, corp_name, DATE(payment_date_time)
-                """, whereConditions);
+        final String sql;
+        if ("union".equals(properties.getStatisticsRangeScan())) {
+            // 구간은 서로 겹치지 않고 DATE(payment_date_time)가 GROUP BY에 포함되므로 구간별 합계를 그대로 이어 붙여도 결과가 같습니다.
+            sql = ranges.stream()
+                    .map(range -> String.format(PAYMENT_STATISTICS_SQL, RANGE_CONDITION))
+                    .collect(Collectors.joining("UNION ALL\n"));
+        } else {
+            sql = String.format(PAYMENT_STATISTICS_SQL, ranges.stream()
+                    .map(range -> RANGE_CONDITION)
+                    .collect(Collectors.joining(" OR ")));
+        }
 
         return new JdbcCursorItemReaderBuilder<PaymentStatisticsDailySum>()
                 .name("paymentStatisticsReader")
                 .dataSource(dataSource)
                 .sql(sql)
+                .preparedStatementSetter(ps -> {
+                    int index = 1;
+                    for (PaymentDateRange range : ranges) {
+                        ps.setObject(index++, range.startDateTime());
+                        ps.setObject(index++, range.endDateTimeExclusive());
+                    }
+                })
                 .rowMapper(new BeanPropertyRowMapper<>(PaymentStatisticsDailySum.class))
                 .fetchSize(Integer.MIN_VALUE)
                 .verifyCursorPosition(false)
@@ -150,13 +221,194 @@ public class Ex15_PaymentStatisticsJobConfig {
      * [Writer]
      * Processor가 전달한 PaymentDailyStatistics 엔티티를 DB에 저장합니다.
      * JpaItemWriter는 엔티티의 상태에 따라 자동으로 INSERT 또는 UPDATE를 수행합니다.
+     * args.statistics-write-mode가 upsert이면 chunk를 INSERT ... ON DUPLICATE KEY UPDATE 한 문장으로 저장합니다.
      */
     @Bean
     public ItemWriter<PaymentStatisticsDailySum> writer() {
+        final boolean upsert = "upsert".equals(properties.getStatisticsWriteMode());
+        return chunk -> {
+            @SuppressWarnings("unchecked") final List<PaymentStatisticsDailySum> items = (List<PaymentStatisticsDailySum>) chunk.getItems();
+            if (upsert) {
+                paymentDailyStatisticsUpsertService.upsert(items);
+            } else {
+                paymentDailyStatisticsRecoveryService.recovery(items);
+            }
+        };
+    }
+
+    /**
+     * 마지막 실행 이후 변경된 결제 데이터만 일일 결제 통계에 반영하는 Job을 정의합니다.
+     */
+    @Bean
+    public Job incrementalPaymentStatisticsJob(Step incrementalPaymentStatisticsStep) {
+        return new JobBuilder("incrementalPaymentStatisticsJob", jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .start(incrementalPaymentStatisticsStep)
+                .build();
+    }
+
+    /**
+     * 변경분을 1,000건씩 반복해서 반영하는 Step을 정의합니다. 반복마다 통계, 원장, 워터마크가 하나의 트랜잭션으로 커밋됩니다.
+     */
+    @Bean
+    public Step incrementalPaymentStatisticsStep(Tasklet incrementalStatisticsTasklet) {
+        return new StepBuilder("incrementalPaymentStatisticsStep", jobRepository)
+                .tasklet(incrementalStatisticsTasklet, transactionManager)
+                .listener(new StepDurationTrackerListener()) // Step 소요 시간 측정 리스너
+                .build();
+    }
+
+    /**
+     * [Tasklet]
+     * 워터마크 이후 변경된 결제 데이터의 증감분을 통계에 더합니다. 실행마다 상한 시각을 새로 잡도록 StepScope로 생성합니다.
+     */
+    @Bean
+    @StepScope
+    public Tasklet incrementalStatisticsTasklet() {
+        return new Ex15_IncrementalStatisticsTasklet(jdbcTemplate, 1_000, Duration.ofSeconds(5));
+    }
+
+    /**
+     * 재처리 대상 날짜별로 파티션을 나누어 일일 결제 통계를 병렬로 생성하는 Job을 정의합니다.
+     */
+    @Bean
+    public Job partitionedPaymentStatisticsJob(Step paymentStatisticsManagerStep) {
+        return new JobBuilder("partitionedPaymentStatisticsJob", jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .listener(prepareTargetDatesJobListener)
+                .start(paymentStatisticsManagerStep)
+                .build();
+    }
+
+    /**
+     * 재처리 대상 날짜마다 파티션을 만들고, 커넥션 풀이 감당할 수 있는 수만큼 워커 스텝을 동시에 실행하는 매니저 스텝을 정의합니다.
+     */
+    @Bean
+    public Step paymentStatisticsManagerStep(Step paymentStatisticsWorkerStep) {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("statistics-partition-");
+        taskExecutor.setConcurrencyLimit(connectionPoolGovernor.getMaxConcurrency()); // 동시 실행 파티션 수 제한
+        taskExecutor.setTaskDecorator(connectionPoolGovernor); // 커넥션 대기 시간 지표 기록
+
+        return new StepBuilder("paymentStatisticsManagerStep", jobRepository)
+                .partitioner("paymentStatisticsWorkerStep", targetDatePartitioner())
+                .step(paymentStatisticsWorkerStep)
+                .taskExecutor(taskExecutor)
+                .build();
+    }
+
+    /**
+     * 파티션 하나(결제일 하루)를 집계하여 upsert 하는 워커 스텝을 정의합니다.
+     */
+    @Bean
+    public Step paymentStatisticsWorkerStep(JdbcCursorItemReader<PaymentStatisticsDailySum> paymentStatisticsPartitionReader) {
+        return new StepBuilder("paymentStatisticsWorkerStep", jobRepository)
+                .<PaymentStatisticsDailySum, PaymentStatisticsDailySum>chunk(chunkSize, transactionManager)
+                .listener(new StepDurationTrackerListener()) // Step 소요 시간 측정 리스너
+                .reader(paymentStatisticsPartitionReader)
+                .writer(paymentStatisticsUpsertWriter())
+                .listener(new ChunkDurationTrackerListener()) // Chunk 소요 시간 측정 리스너
+                .build();
+    }
+
+    /**
+     * [Reader]
+     * StepExecutionContext로 전달받은 결제일 하루의 결제 데이터를 사업자 번호 기준으로 합산하여 읽어옵니다.
+     */
+    @Bean
+    @StepScope
+    public JdbcCursorItemReader<PaymentStatisticsDailySum> paymentStatisticsPartitionReader(
+            @Value("#{stepExecutionContext['paymentDate']}") String paymentDateStr
+    ) {
+        final LocalDate paymentDate = LocalDate.parse(paymentDateStr, DateTimeFormatter.ISO_LOCAL_DATE);
+        final PaymentDateRange range = new PaymentDateRange(paymentDate, paymentDate);
+
+        return new JdbcCursorItemReaderBuilder<PaymentStatisticsDailySum>()
+                .name("paymentStatisticsPartitionReader")
+                .dataSource(dataSource)
+                .sql(String.format(PAYMENT_STATISTICS_SQL, RANGE_CONDITION))
+                .preparedStatementSetter(ps -> {
+                    ps.setObject(1, range.startDateTime());
+                    ps.setObject(2, range.endDateTimeExclusive());
+                })
+                .rowMapper(new BeanPropertyRowMapper<>(PaymentStatisticsDailySum.class))
+                .fetchSize(Integer.MIN_VALUE)
+                .verifyCursorPosition(false)
+                .build();
+    }
+
+    /**
+     * 재처리 대상 날짜마다 `paymentDate` 키를 가진 파티션을 생성합니다.
+     * 파티션 이름을 날짜로 두어, JobOperator.restart로 같은 JobInstance를 재시작할 때 같은 날짜의 이전 실행 상태(완료 여부, ExecutionContext)를 이어받도록 합니다.
+     */
+    private Partitioner targetDatePartitioner() {
+        return gridSize -> {
+            Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+            properties.getTargetPaymentDates().stream()
+                    .sorted()
+                    .map(date -> date.format(DateTimeFormatter.ISO_LOCAL_DATE))
+                    .forEach(date -> {
+                        ExecutionContext context = new ExecutionContext();
+                        context.putString("paymentDate", date);
+                        partitions.put(date, context);
+                    });
+            log.info("재처리 대상 날짜 {}개를 파티션으로 실행합니다.", partitions.size());
+            return partitions;
+        };
+    }
+
+    /**
+     * [Writer]
+     * chunk를 INSERT ... ON DUPLICATE KEY UPDATE로 저장합니다.
+     */
+    private ItemWriter<PaymentStatisticsDailySum> paymentStatisticsUpsertWriter() {
         return chunk -> {
             @SuppressWarnings("unchecked") final List<PaymentStatisticsDailySum> items = (List<PaymentStatisticsDailySum>) chunk.getItems();
-            paymentDailyStatisticsRecoveryService.recovery(items);
+            paymentDailyStatisticsUpsertService.upsert(items);
         };
     }
 
+    /**
+     * 결제 원천 데이터를 배치 노드의 메모리에서 집계하여 일일 결제 통계를 생성하는 Job을 정의합니다.
+     */
+    @Bean
+    public Job hashAggregatedPaymentStatisticsJob(Step hashAggregatedPaymentStatisticsStep) {
+        return new JobBuilder("hashAggregatedPaymentStatisticsJob", jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .listener(prepareTargetDatesJobListener)
+                .start(hashAggregatedPaymentStatisticsStep)
+                .build();
+    }
+
+    /**
+     * 해시 집계 Reader가 만든 합계를 upsert 하는 Step을 정의합니다.
+     */
+    @Bean
+    public Step hashAggregatedPaymentStatisticsStep(Ex15_HashAggregatingItemReader hashAggregatingStatisticsReader) {
+        return new StepBuilder("hashAggregatedPaymentStatisticsStep", jobRepository)
+                .<PaymentStatisticsDailySum, PaymentStatisticsDailySum>chunk(chunkSize, transactionManager)
+                .listener(new StepDurationTrackerListener()) // Step 소요 시간 측정 리스너
+                .reader(hashAggregatingStatisticsReader)
+                .writer(paymentStatisticsUpsertWriter())
+                .listener(new ChunkDurationTrackerListener()) // Chunk 소요 시간 측정 리스너
+                .build();
+    }
+
+    /**
+     * [Reader]
+     * 재처리 대상 날짜 구간의 원천 행을 5,000건씩 keyset 페이지로 읽어 64MB 해시 테이블에서 합산합니다.
+     */
+    @Bean
+    @StepScope
+    public Ex15_HashAggregatingItemReader hashAggregatingStatisticsReader(
+            @Value("${batch.statistics.hash-aggregation.spill-dir:${java.io.tmpdir}}") String spillDirectory
+    ) {
+        return new Ex15_HashAggregatingItemReader(
+                jdbcTemplate,
+                PaymentDateRange.coalesce(properties.getTargetPaymentDates()),
+                5_000,
+                64L * 1024 * 1024,
+                Path.of(spillDirectory)
+        );
+    }
+
 }
@@ -38,6 +38,7 @@ import java.time.LocalDate;
           이 때, 장애가 발생한 chunk만 skip할 것인지 이후 작업을 모두 중지할 것인지 비즈니스 요구사항에 따라서 전략을 달리할 수 있다.
           만약 skip해도 문제가 되지 않는다면, 장애발생 지점부터 이후 모든 chunk를 다시 시작하는 것보다 skip후 장애 발생 데이터만 매뉴얼로 처리하는 것이 좋은 전략이 될 수도 있다.
           (장시간 실행되는 배치의 경우, 처음부터 다시 시작하는 것보다 실패한 부분을 재처리할 수 있는 로직이 운영 효율성을 높일 수 있음)
+        - 건너뛴 페이지 번호는 dead letter로 남으며, replayPages로 그 페이지만 다시 요청하는 리더를 만들 수 있다. (replayCouponReader 참고)
  */
 @Slf4j
 @Configuration
@@ -96,6 +97,92 @@ public class Ex16_CouponConfig {
                 .build();
     }
 
+//    /**
+//     * 이전 실행에서 건너뛴 dead letter 페이지만 다시 요청하는 리더 예시입니다.
+//     * Step 종료 로그나 ExecutionContext의 `HttpPageItemReader.dead.letter.pages` 값을 replayPages 잡 파라미터로 넘깁니다. (예: replayPages=3,7,12)
+//     */
+//    @Bean
+//    @StepScope
+//    public ItemReader<MemberResponse> replayCouponReader(
+//            RestTemplate restTemplate,
+//            @Value("#{jobParameters['replayPages']}") String replayPages
+//    ) {
+//        return new HttpPageItemReaderBuilder<MemberResponse>()
+//                .baseUrl("http://localhost:8081/api/v1/members")
+//                .size(chunkSize)
+//                .restTemplate(restTemplate)
+//                .responseType(new ParameterizedTypeReference<>() {
+//                })
+//                .replayPages(Arrays.stream(StringUtils.commaDelimitedListToStringArray(replayPages)).map(Integer::valueOf).toList())
+//                .ignoreErrors(true)
+//                .build();
+//    }
+//
+//    /**
+//     * 커서 기반 API를 따라가며 읽는 리더 예시입니다.
+//     * 페이지 번호(offset) 대신 응답의 nextCursor로 다음 페이지를 요청하므로 뒤쪽 페이지도 응답 시간이 일정합니다.
+//     * 커서는 ExecutionContext에 저장되어 재시작 시 중단된 페이지부터 이어서 읽습니다.
+//     */
+//    @Bean
+//    public ItemReader<MemberResponse> cursorCouponReader(RestTemplate restTemplate) {
+//        return new HttpPageItemReaderBuilder<MemberResponse>()
+//                .baseUrl("http://localhost:8081/api/v1/members/cursor")
+//                .size(chunkSize)
+//                .restTemplate(restTemplate)
+//                .responseType(new ParameterizedTypeReference<>() {
+//                })
+//                .cursorPaging(true)
+//                .build();
+//    }
+//
+//    /**
+//     * 페이지 구간을 나누어 여러 워커 스텝이 병렬로 API를 호출하는 예시입니다.
+//     * 첫 페이지로 전체 페이지 수를 알아낸 뒤 구간을 나누며, 호스트별 동시 요청 수는 모든 파티션이 공유하는 제한을 따릅니다.
+//     */
+//    @Bean
+//    public Step partitionedCouponStep(
+//            RestTemplate restTemplate,
+//            Step partitionedCouponWorkerStep
+//    ) {
+//        return new StepBuilder("partitionedCouponStep", jobRepository)
+//                .partitioner("partitionedCouponWorkerStep", new HttpPageRangePartitioner(restTemplate, "http://localhost:8081/api/v1/members", chunkSize))
+//                .step(partitionedCouponWorkerStep)
+//                .gridSize(4)
+//                .taskExecutor(new SimpleAsyncTaskExecutor("coupon-partition-"))
+//                .build();
+//    }
+//
+//    @Bean
+//    public Step partitionedCouponWorkerStep(
+//            ItemReader<MemberResponse> pageRangeCouponReader
+//    ) {
+//        return new StepBuilder("partitionedCouponWorkerStep", jobRepository)
+//                .<MemberResponse, Coupon>chunk(chunkSize, transactionManager)
+//                .reader(pageRangeCouponReader)
+//                .processor(couponProcessor())
+//                .writer(couponWriter())
+//                .build();
+//    }
+//
+//    @Bean
+//    @StepScope
+//    public HttpPageItemReader<MemberResponse> pageRangeCouponReader(
+//            RestTemplate restTemplate,
+//            @Value("#{stepExecutionContext['startPage']}") Integer startPage,
+//            @Value("#{stepExecutionContext['endPage']}") Integer endPage
+//    ) {
+//        return new HttpPageItemReaderBuilder<MemberResponse>()
+//                .baseUrl("http://localhost:8081/api/v1/members")
+//                .size(chunkSize)
+//                .restTemplate(restTemplate)
+//                .responseType(new ParameterizedTypeReference<>() {
+//                })
+//                .pageRange(startPage, endPage)
+//                .maxConcurrentRequestsPerHost(4)
+//                .retry(3, Duration.ofMillis(200), Duration.ofSeconds(2))
+//                .build();
+//    }
+
     private ItemProcessor<MemberResponse, Coupon> couponProcessor() {
         return member -> new Coupon(
                 "회원가입 쿠폰",
@@ -0,0 +1,58 @@
+package com.example.springbatch.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class HttpHostConcurrencyLimiterTest {
+
+    @Test
+    void forUrl_포트를_생략한_URL은_기본_포트와_같은_리미터를_공유한다() {
+        HttpHostConcurrencyLimiter.Registry registry = new HttpHostConcurrencyLimiter.Registry();
+
+        HttpHostConcurrencyLimiter implicitPort = registry.forUrl("http://api.example.com/members", 4);
+        HttpHostConcurrencyLimiter explicitPort = registry.forUrl("http://API.example.com:80/orders", 4);
+
+        then(explicitPort).isSameAs(implicitPort);
+        then(implicitPort.getHost()).isEqualTo("api.example.com:80");
+    }
+
+    @Test
+    void forUrl_https의_기본_포트는_443이다() {
+        HttpHostConcurrencyLimiter.Registry registry = new HttpHostConcurrencyLimiter.Registry();
+
+        then(registry.forUrl("https://api.example.com/members", 4).getHost()).isEqualTo("api.example.com:443");
+        then(registry.forUrl("https://api.example.com:443/members", 4)).isSameAs(registry.forUrl("https://api.example.com", 4));
+    }
+
+    @Test
+    void forUrl_같은_호스트에_다른_제한_값을_요청하면_예외가_발생한다() {
+        HttpHostConcurrencyLimiter.Registry registry = new HttpHostConcurrencyLimiter.Registry();
+        registry.forUrl("http://localhost:8081/api/v1/members", 4);
+
+        thenThrownBy(() -> registry.forUrl("http://localhost:8081/api/v1/orders", 8))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("localhost:8081");
+    }
+
+    @Test
+    void forUrl_레지스트리가_다르면_리미터를_공유하지_않는다() {
+        HttpHostConcurrencyLimiter first = new HttpHostConcurrencyLimiter.Registry().forUrl("http://localhost:8081", 4);
+        HttpHostConcurrencyLimiter second = new HttpHostConcurrencyLimiter.Registry().forUrl("http://localhost:8081", 8);
+
+        then(second).isNotSameAs(first);
+        then(second.getMaxConcurrentRequests()).isEqualTo(8);
+    }
+
+    @Test
+    void tryAcquire_허가를_모두_사용하면_false를_반환하고_반납하면_다시_얻는다() {
+        HttpHostConcurrencyLimiter limiter = new HttpHostConcurrencyLimiter.Registry().forUrl("http://localhost:8081", 1);
+
+        then(limiter.tryAcquire()).isTrue();
+        then(limiter.tryAcquire()).isFalse();
+        limiter.release();
+        then(limiter.tryAcquire()).isTrue();
+    }
+
+}
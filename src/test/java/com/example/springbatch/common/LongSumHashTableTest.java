@@ -0,0 +1,128 @@
+package com.example.springbatch.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class LongSumHashTableTest {
+
+    @Test
+    void 같은_키의_금액을_누적하고_없는_키는_0을_반환한다() {
+        LongSumHashTable table = new LongSumHashTable(16);
+
+        table.add(7L, 100L);
+        table.add(7L, -30L);
+        table.add(9L, 5L);
+
+        then(table.get(7L)).isEqualTo(70L);
+        then(table.get(9L)).isEqualTo(5L);
+        then(table.get(11L)).isZero();
+        then(table.size()).isEqualTo(2);
+        then(table.sortedKeys()).containsExactly(7L, 9L);
+    }
+
+    @Test
+    void 마지막_슬롯에서_충돌하면_첫_슬롯으로_이어서_탐사한다() {
+        LongSumHashTable table = new LongSumHashTable(4);
+        int lastSlot = 3;
+        List<Long> lastSlotKeys = keysWithSlot(table, lastSlot, 2);
+        long firstSlotKey = keysWithSlot(table, 0, 1).get(0);
+
+        // 두 번째 키는 마지막 슬롯에서 0번 슬롯으로, 0번 슬롯의 키는 1번 슬롯으로 밀려납니다.
+        table.add(lastSlotKeys.get(0), 1L);
+        table.add(lastSlotKeys.get(1), 2L);
+        table.add(lastSlotKeys.get(1), 10L);
+
+        then(table.get(lastSlotKeys.get(0))).isEqualTo(1L);
+        then(table.get(lastSlotKeys.get(1))).isEqualTo(12L);
+        then(table.get(firstSlotKey)).isZero();
+        then(table.size()).isEqualTo(2);
+        then(table.isFull()).isTrue();
+
+        table.clear();
+        table.add(firstSlotKey, 3L);
+        table.add(lastSlotKeys.get(0), 4L);
+        then(table.get(firstSlotKey)).isEqualTo(3L);
+        then(table.get(lastSlotKeys.get(0))).isEqualTo(4L);
+    }
+
+    @Test
+    void 슬롯의_절반이_차면_가득_찬_것으로_보고_새_키를_거부한다() {
+        // capacity 5는 8개 슬롯으로 올림되며, 4개 항목부터 가득 찬 것으로 봅니다.
+        LongSumHashTable table = new LongSumHashTable(5);
+        for (long key = 1; key <= 3; key++) {
+            table.add(key, key);
+        }
+        then(table.isFull()).isFalse();
+
+        table.add(4L, 4L);
+        then(table.isFull()).isTrue();
+
+        // 이미 있는 키에는 계속 더할 수 있습니다.
+        table.add(4L, 1L);
+        then(table.get(4L)).isEqualTo(5L);
+        thenThrownBy(() -> table.add(5L, 5L)).isInstanceOf(IllegalStateException.class);
+
+        table.clear();
+        then(table.isFull()).isFalse();
+        then(table.size()).isZero();
+        then(table.get(4L)).isZero();
+    }
+
+    @Test
+    void tryAdd_가득_찬_테이블에서_있는_키는_더하고_없는_키는_false를_반환한다() {
+        LongSumHashTable table = new LongSumHashTable(2);
+        then(table.tryAdd(1L, 1L)).isTrue();
+        then(table.isFull()).isTrue();
+
+        then(table.tryAdd(1L, 2L)).isTrue();
+        then(table.tryAdd(2L, 2L)).isFalse();
+        then(table.get(1L)).isEqualTo(3L);
+        then(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    void 키_0은_빈_슬롯을_나타내므로_사용할_수_없다() {
+        LongSumHashTable table = new LongSumHashTable(16);
+
+        thenThrownBy(() -> table.add(0L, 1L)).isInstanceOf(IllegalArgumentException.class);
+        then(table.get(0L)).isZero();
+        then(table.size()).isZero();
+    }
+
+    @Test
+    void 음수_키도_저장하고_정렬한다() {
+        LongSumHashTable table = new LongSumHashTable(16);
+
+        table.add(-1L, 1L);
+        table.add(Long.MIN_VALUE, 2L);
+        table.add(1L, 3L);
+
+        then(table.sortedKeys()).containsExactly(Long.MIN_VALUE, -1L, 1L);
+        then(table.get(Long.MIN_VALUE)).isEqualTo(2L);
+    }
+
+    @Test
+    void 합계가_long_범위를_넘으면_예외를_던진다() {
+        LongSumHashTable table = new LongSumHashTable(16);
+        table.add(1L, Long.MAX_VALUE);
+
+        thenThrownBy(() -> table.add(1L, 1L)).isInstanceOf(ArithmeticException.class);
+        then(table.get(1L)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    private static List<Long> keysWithSlot(LongSumHashTable table, int slot, int count) {
+        List<Long> keys = new ArrayList<>();
+        for (long key = 1; keys.size() < count; key++) {
+            if (table.slotOf(key) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.example.springbatch.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void toMinorUnits_소수점_2자리까지는_scale과_무관하게_변환한다() {
+        then(Money.toMinorUnits(new BigDecimal("400"))).isEqualTo(40_000L);
+        then(Money.toMinorUnits(new BigDecimal("400.0"))).isEqualTo(40_000L);
+        then(Money.toMinorUnits(new BigDecimal("400.000"))).isEqualTo(40_000L);
+        then(Money.toMinorUnits(new BigDecimal("-0.01"))).isEqualTo(-1L);
+    }
+
+    @Test
+    void toMinorUnits_최소_단위보다_작은_금액은_거부한다() {
+        thenThrownBy(() -> Money.toMinorUnits(new BigDecimal("0.001")))
+                .isInstanceOf(ArithmeticException.class);
+        thenThrownBy(() -> Money.valueOf(new BigDecimal("123.455")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void toMinorUnits_long_범위를_넘는_금액은_거부한다() {
+        BigDecimal max = BigDecimal.valueOf(Long.MAX_VALUE, Money.SCALE);
+        then(Money.toMinorUnits(max)).isEqualTo(Long.MAX_VALUE);
+
+        thenThrownBy(() -> Money.toMinorUnits(max.add(new BigDecimal("0.01"))))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void 연산_결과가_long_범위를_넘으면_예외를_던진다() {
+        Money max = Money.ofMinorUnits(Long.MAX_VALUE);
+        Money min = Money.ofMinorUnits(Long.MIN_VALUE);
+
+        thenThrownBy(() -> max.plus(Money.ofMinorUnits(1))).isInstanceOf(ArithmeticException.class);
+        thenThrownBy(() -> min.minus(Money.ofMinorUnits(1))).isInstanceOf(ArithmeticException.class);
+        thenThrownBy(() -> Money.of(Long.MAX_VALUE / 100 + 1)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void valueOf와_toBigDecimal은_값을_보존한다() {
+        for (String amount : new String[]{"0", "0.01", "-0.01", "400.00", "123456789.99", "92233720368547758.07"}) {
+            BigDecimal value = new BigDecimal(amount);
+            Money money = Money.valueOf(value);
+
+            then(money.toBigDecimal()).isEqualByComparingTo(value);
+            then(money.toBigDecimal().scale()).isEqualTo(Money.SCALE);
+            then(Money.valueOf(money.toBigDecimal())).isEqualTo(money);
+        }
+    }
+
+    @Test
+    void equals는_scale이_달라도_금액만_비교한다() {
+        then(Money.valueOf(new BigDecimal("400.0"))).isEqualTo(Money.valueOf(new BigDecimal("400.00")));
+        then(Money.valueOf(new BigDecimal("400.0")).hashCode()).isEqualTo(Money.of(400).hashCode());
+        then(Money.valueOf(BigDecimal.ZERO)).isSameAs(Money.ZERO);
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.example.springbatch.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class PaymentDailyAmountAggregatorTest {
+
+    // 해시 테이블을 1MB(65,536 슬롯)로 잡아 spill 없이 집계합니다.
+    private static final long IN_MEMORY_BUDGET = 1L << 20;
+    // 해시 테이블을 16 슬롯(항목 8개)으로 잡아 spill과 병합을 거치게 합니다.
+    private static final long SPILL_BUDGET = 16L * 16;
+    // 해시 테이블을 2 슬롯(항목 1개)으로 잡아 새 키마다 spill 합니다.
+    private static final long MINIMUM_BUDGET = 16L * 2;
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void 메모리_집계와_spill_병합의_결과가_같다() throws IOException {
+        List<Payment> payments = randomPayments(2_000);
+        Map<String, BigDecimal> expected = new LinkedHashMap<>();
+        payments.forEach(payment -> expected.merge(keyOf(payment.businessRegistrationNumber(), payment.paymentDate()), payment.amount(), BigDecimal::add));
+
+        List<PaymentStatisticsDailySum> inMemory = aggregate(IN_MEMORY_BUDGET, payments);
+        List<PaymentStatisticsDailySum> spilled = aggregate(SPILL_BUDGET, payments);
+
+        then(toSums(inMemory)).isEqualTo(toSums(spilled));
+        then(toSums(inMemory)).hasSize(expected.size());
+        expected.forEach((key, amount) -> then(toSums(inMemory).get(key)).isEqualTo(Money.valueOf(amount)));
+        then(inMemory).extracting(PaymentStatisticsDailySum::getCorpName)
+                .containsExactlyElementsOf(spilled.stream().map(PaymentStatisticsDailySum::getCorpName).toList());
+    }
+
+    @Test
+    void spill_파일은_close에서_삭제한다() throws IOException {
+        try (PaymentDailyAmountAggregator aggregator = new PaymentDailyAmountAggregator(SPILL_BUDGET, spillDirectory)) {
+            randomPayments(500).forEach(payment -> aggregator.add(payment.corpName(), payment.businessRegistrationNumber(), payment.paymentDate(), payment.amount()));
+            then(listSpillFiles()).isNotEmpty();
+            aggregator.results().next();
+        }
+        then(listSpillFiles()).isEmpty();
+    }
+
+    @Test
+    void 테이블이_가득_차도_이미_있는_키는_spill_하지_않고_더한다() throws IOException {
+        try (PaymentDailyAmountAggregator aggregator = new PaymentDailyAmountAggregator(MINIMUM_BUDGET, spillDirectory)) {
+            for (int i = 0; i < 100; i++) {
+                aggregator.add("삼성전자", "000-01-00001", LocalDate.EPOCH, new BigDecimal("1.00"));
+            }
+            then(listSpillFiles()).isEmpty();
+
+            aggregator.add("LG전자", "000-01-00002", LocalDate.EPOCH, new BigDecimal("1.00"));
+            then(listSpillFiles()).hasSize(1);
+        }
+    }
+
+    @Test
+    void epoch_이전의_결제일자도_키에서_복원한다() throws IOException {
+        LocalDate beforeEpoch = LocalDate.of(1969, 12, 31);
+        LocalDate epoch = LocalDate.EPOCH;
+        List<Payment> payments = List.of(
+                new Payment("삼성전자", "000-01-00001", beforeEpoch, new BigDecimal("100.10")),
+                new Payment("삼성전자", "000-01-00001", epoch, new BigDecimal("200.20")),
+                new Payment("삼성전자", "000-01-00001", beforeEpoch, new BigDecimal("0.90"))
+        );
+
+        for (long budget : new long[]{IN_MEMORY_BUDGET, MINIMUM_BUDGET}) {
+            Map<String, Money> sums = toSums(aggregate(budget, payments));
+
+            then(sums).containsOnlyKeys(keyOf("000-01-00001", beforeEpoch), keyOf("000-01-00001", epoch));
+            then(sums.get(keyOf("000-01-00001", beforeEpoch))).isEqualTo(Money.valueOf(new BigDecimal("101.00")));
+            then(sums.get(keyOf("000-01-00001", epoch))).isEqualTo(Money.valueOf(new BigDecimal("200.20")));
+        }
+    }
+
+    @Test
+    void 메모리_집계에서_합계가_long_범위를_넘으면_예외를_던진다() throws IOException {
+        try (PaymentDailyAmountAggregator aggregator = new PaymentDailyAmountAggregator(IN_MEMORY_BUDGET, spillDirectory)) {
+            aggregator.add("삼성전자", "000-01-00001", LocalDate.EPOCH, BigDecimal.valueOf(Long.MAX_VALUE, Money.SCALE));
+
+            thenThrownBy(() -> aggregator.add("삼성전자", "000-01-00001", LocalDate.EPOCH, new BigDecimal("0.01")))
+                    .isInstanceOf(ArithmeticException.class);
+        }
+    }
+
+    @Test
+    void spill_병합에서_합계가_long_범위를_넘으면_예외를_던진다() throws IOException {
+        try (PaymentDailyAmountAggregator aggregator = new PaymentDailyAmountAggregator(MINIMUM_BUDGET, spillDirectory)) {
+            // 키가 바뀔 때마다 spill 되므로 같은 키의 두 금액은 서로 다른 파일에 기록되고, 병합할 때 더해집니다.
+            aggregator.add("삼성전자", "000-01-00001", LocalDate.EPOCH, BigDecimal.valueOf(Long.MAX_VALUE, Money.SCALE));
+            aggregator.add("LG전자", "000-01-00002", LocalDate.EPOCH, new BigDecimal("1.00"));
+            aggregator.add("삼성전자", "000-01-00001", LocalDate.EPOCH, new BigDecimal("0.01"));
+            Iterator<PaymentStatisticsDailySum> results = aggregator.results();
+
+            thenThrownBy(results::next).isInstanceOf(ArithmeticException.class);
+        }
+    }
+
+    @Test
+    void 최소_단위보다_작은_금액은_거부한다() throws IOException {
+        try (PaymentDailyAmountAggregator aggregator = new PaymentDailyAmountAggregator(IN_MEMORY_BUDGET, spillDirectory)) {
+            thenThrownBy(() -> aggregator.add("삼성전자", "000-01-00001", LocalDate.EPOCH, new BigDecimal("0.001")))
+                    .isInstanceOf(ArithmeticException.class);
+        }
+    }
+
+    private List<PaymentStatisticsDailySum> aggregate(long memoryBudgetBytes, List<Payment> payments) throws IOException {
+        try (PaymentDailyAmountAggregator aggregator = new PaymentDailyAmountAggregator(memoryBudgetBytes, spillDirectory)) {
+            payments.forEach(payment -> aggregator.add(payment.corpName(), payment.businessRegistrationNumber(), payment.paymentDate(), payment.amount()));
+            List<PaymentStatisticsDailySum> results = new ArrayList<>();
+            aggregator.results().forEachRemaining(results::add);
+            return results;
+        }
+    }
+
+    private List<Path> listSpillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            return files.toList();
+        }
+    }
+
+    /**
+     * 사업자 5곳, 결제일 20일에 걸친 결제를 무작위 순서로 만듭니다. (같은 시드이므로 항상 같은 목록)
+     */
+    private static List<Payment> randomPayments(int count) {
+        Random random = new Random(42);
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int business = random.nextInt(5) + 1;
+            payments.add(new Payment(
+                    "corp-" + business,
+                    "000-01-0000" + business,
+                    LocalDate.of(2025, 5, 1).plusDays(random.nextInt(20)),
+                    BigDecimal.valueOf(random.nextInt(1_000_000) - 100_000, Money.SCALE)
+            ));
+        }
+        return payments;
+    }
+
+    private static Map<String, Money> toSums(List<PaymentStatisticsDailySum> results) {
+        Map<String, Money> sums = new LinkedHashMap<>();
+        results.forEach(result -> sums.put(keyOf(result.getBusinessRegistrationNumber(), result.getPaymentDate()), result.getTotalAmount()));
+        return sums;
+    }
+
+    private static String keyOf(String businessRegistrationNumber, LocalDate paymentDate) {
+        return businessRegistrationNumber + "|" + paymentDate;
+    }
+
+    private record Payment(String corpName, String businessRegistrationNumber, LocalDate paymentDate, BigDecimal amount) {
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.example.springbatch.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class PaymentDateRangeTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+
+    @Test
+    void coalesce_빈_목록이면_구간이_없다() {
+        then(PaymentDateRange.coalesce(List.of())).isEmpty();
+    }
+
+    @Test
+    void coalesce_중복된_날짜는_하나로_합친다() {
+        List<PaymentDateRange> ranges = PaymentDateRange.coalesce(List.of(MAY_1, MAY_1, MAY_1.plusDays(1), MAY_1.plusDays(1)));
+
+        then(ranges).containsExactly(new PaymentDateRange(MAY_1, MAY_1.plusDays(1)));
+    }
+
+    @Test
+    void coalesce_정렬되지_않은_날짜도_시작일_오름차순_구간으로_만든다() {
+        List<PaymentDateRange> ranges = PaymentDateRange.coalesce(List.of(
+                MAY_1.plusDays(10), MAY_1.plusDays(2), MAY_1, MAY_1.plusDays(1), MAY_1.plusDays(11)
+        ));
+
+        then(ranges).containsExactly(
+                new PaymentDateRange(MAY_1, MAY_1.plusDays(2)),
+                new PaymentDateRange(MAY_1.plusDays(10), MAY_1.plusDays(11))
+        );
+    }
+
+    @Test
+    void coalesce_하루_차이는_합치고_이틀_차이는_나눈다() {
+        then(PaymentDateRange.coalesce(List.of(MAY_1, MAY_1.plusDays(1))))
+                .containsExactly(new PaymentDateRange(MAY_1, MAY_1.plusDays(1)));
+
+        then(PaymentDateRange.coalesce(List.of(MAY_1, MAY_1.plusDays(2))))
+                .containsExactly(new PaymentDateRange(MAY_1, MAY_1), new PaymentDateRange(MAY_1.plusDays(2), MAY_1.plusDays(2)));
+    }
+
+    @Test
+    void coalesce_월과_연도_경계도_이어진_날짜로_합친다() {
+        LocalDate lastDayOfYear = LocalDate.of(2024, 12, 31);
+
+        then(PaymentDateRange.coalesce(List.of(lastDayOfYear, lastDayOfYear.plusDays(1))))
+                .containsExactly(new PaymentDateRange(lastDayOfYear, lastDayOfYear.plusDays(1)));
+    }
+
+    @Test
+    void 구간의_시각은_시작일_0시부터_종료일_다음날_0시_전까지다() {
+        PaymentDateRange range = new PaymentDateRange(MAY_1, MAY_1.plusDays(2));
+
+        then(range.startDateTime()).isEqualTo(LocalDateTime.of(2025, 5, 1, 0, 0));
+        then(range.endDateTimeExclusive()).isEqualTo(LocalDateTime.of(2025, 5, 4, 0, 0));
+    }
+
+}
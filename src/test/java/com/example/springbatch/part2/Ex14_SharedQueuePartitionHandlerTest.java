@@ -0,0 +1,53 @@
+package com.example.springbatch.part2;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import java.util.Set;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class Ex14_SharedQueuePartitionHandlerTest {
+
+    private final JobExecution jobExecution = new JobExecution(1L);
+
+    @Test
+    void weight가_있으면_큰_파티션부터_실행하고_같으면_파티션_번호_순으로_실행한다() {
+        StepExecution partition0 = partition(0, 10L);
+        StepExecution partition1 = partition(1, 500L);
+        StepExecution partition2 = partition(2, 10L);
+        StepExecution partition10 = partition(10, 10L);
+
+        then(Ex14_SharedQueuePartitionHandler.executionOrder(Set.of(partition10, partition2, partition1, partition0)))
+                .containsExactly(partition1, partition0, partition2, partition10);
+    }
+
+    @Test
+    void weight가_없으면_파티션_번호_순으로_실행한다() {
+        StepExecution partition0 = partition(0, null);
+        StepExecution partition2 = partition(2, null);
+        StepExecution partition10 = partition(10, null);
+
+        then(Ex14_SharedQueuePartitionHandler.executionOrder(Set.of(partition10, partition2, partition0)))
+                .containsExactly(partition0, partition2, partition10);
+    }
+
+    @Test
+    void 일부_파티션에만_weight가_있으면_실패한다() {
+        Set<StepExecution> partitions = Set.of(partition(0, 10L), partition(1, null));
+
+        thenThrownBy(() -> Ex14_SharedQueuePartitionHandler.executionOrder(partitions))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private StepExecution partition(int number, Long weight) {
+        StepExecution stepExecution = new StepExecution("workerStep:partition" + number, jobExecution);
+        if (weight != null) {
+            stepExecution.getExecutionContext().putLong("weight", weight);
+        }
+        return stepExecution;
+    }
+
+}
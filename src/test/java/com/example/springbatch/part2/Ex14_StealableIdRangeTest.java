@@ -0,0 +1,50 @@
+package com.example.springbatch.part2;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class Ex14_StealableIdRangeTest {
+
+    @Test
+    void split_읽지_않은_구간의_뒤쪽_절반을_떼어_내고_상한을_줄인다() {
+        Ex14_StealableIdRange range = new Ex14_StealableIdRange(0, 1_000);
+        range.claim(199);
+
+        Ex14_StealableIdRange stolen = range.split(100);
+
+        then(stolen.getFrom()).isEqualTo(600);
+        then(stolen.getTo()).isEqualTo(1_000);
+        then(range.getFrom()).isEqualTo(200);
+        then(range.getTo()).isEqualTo(600);
+    }
+
+    @Test
+    void claim_떼어_간_구간의_id는_차지하지_않는다() {
+        Ex14_StealableIdRange range = new Ex14_StealableIdRange(0, 1_000);
+        range.split(100);
+
+        then(range.claim(499)).isTrue();
+        then(range.claim(500)).isFalse();
+    }
+
+    @Test
+    void split_남은_구간이_최소_폭의_두_배보다_좁으면_나누지_않는다() {
+        Ex14_StealableIdRange range = new Ex14_StealableIdRange(0, 1_000);
+        range.claim(800);
+
+        then(range.split(100)).isNull();
+        then(range.getTo()).isEqualTo(1_000);
+    }
+
+    @Test
+    void finish_이후에는_남은_구간이_없어_나누지_않는다() {
+        Ex14_StealableIdRange range = new Ex14_StealableIdRange(0, 1_000);
+        range.claim(9);
+        range.finish();
+
+        then(range.remaining()).isZero();
+        then(range.split(1)).isNull();
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.example.springbatch.part2;
+
+import com.example.springbatch.part2.Ex14_WeightedDatePartitioner.DateGroup;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class Ex14_WeightedDatePartitionerTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+
+    @Test
+    void 데이터가_없는_기간은_파티션을_만들지_않는다() {
+        then(Ex14_WeightedDatePartitioner.pack(Map.of(), 4)).isEmpty();
+        then(Ex14_WeightedDatePartitioner.pack(Map.of(MAY_1, 0L), 4)).isEmpty();
+    }
+
+    @Test
+    void 건수가_몰린_날은_목표_크기로_쪼개고_나머지_날은_하나로_묶는다() {
+        Map<LocalDate, Long> counts = new LinkedHashMap<>();
+        counts.put(MAY_1, 10L);
+        counts.put(MAY_1.plusDays(1), 1_000L);
+        counts.put(MAY_1.plusDays(2), 10L);
+
+        // 전체 1,020건 / 4 = 목표 255건
+        List<DateGroup> groups = Ex14_WeightedDatePartitioner.pack(counts, 4);
+
+        then(groups).containsExactly(
+                new DateGroup(List.of(MAY_1.plusDays(1)), 1_000L, 4),
+                new DateGroup(List.of(MAY_1, MAY_1.plusDays(2)), 20L, 1)
+        );
+    }
+
+    @Test
+    void 목표_크기를_넘지_않는_첫_번째_그룹에_큰_날부터_채워_넣는다() {
+        Map<LocalDate, Long> counts = new LinkedHashMap<>();
+        counts.put(MAY_1, 10L);
+        counts.put(MAY_1.plusDays(1), 30L);
+        counts.put(MAY_1.plusDays(2), 20L);
+        counts.put(MAY_1.plusDays(3), 20L);
+
+        // 전체 80건 / 2 = 목표 40건: 30 -> A, 20 -> B, 20 -> B, 10 -> A
+        List<DateGroup> groups = Ex14_WeightedDatePartitioner.pack(counts, 2);
+
+        then(groups).containsExactly(
+                new DateGroup(List.of(MAY_1, MAY_1.plusDays(1)), 40L, 1),
+                new DateGroup(List.of(MAY_1.plusDays(2), MAY_1.plusDays(3)), 40L, 1)
+        );
+    }
+
+    @Test
+    void gridSize가_날짜_수보다_크면_날짜마다_쪼개어_gridSize에_가깝게_만든다() {
+        Map<LocalDate, Long> counts = new LinkedHashMap<>();
+        counts.put(MAY_1, 10L);
+        counts.put(MAY_1.plusDays(1), 10L);
+        counts.put(MAY_1.plusDays(2), 10L);
+
+        // 전체 30건 / 10 = 목표 3건: 날짜마다 ceil(10 / 3) = 4조각
+        List<DateGroup> groups = Ex14_WeightedDatePartitioner.pack(counts, 10);
+
+        then(groups).containsExactly(
+                new DateGroup(List.of(MAY_1), 10L, 4),
+                new DateGroup(List.of(MAY_1.plusDays(1)), 10L, 4),
+                new DateGroup(List.of(MAY_1.plusDays(2)), 10L, 4)
+        );
+        then(groups.stream().mapToInt(DateGroup::slices).sum()).isEqualTo(12);
+    }
+
+    @Test
+    void gridSize가_1이면_모든_날을_하나로_묶는다() {
+        Map<LocalDate, Long> counts = new LinkedHashMap<>();
+        counts.put(MAY_1.plusDays(1), 5L);
+        counts.put(MAY_1, 7L);
+
+        then(Ex14_WeightedDatePartitioner.pack(counts, 1))
+                .containsExactly(new DateGroup(List.of(MAY_1, MAY_1.plusDays(1)), 12L, 1));
+    }
+
+}
@@ -1,12 +1,12 @@
 package com.example.springbatch.part3;
 
+import com.example.springbatch.common.Money;
 import com.example.springbatch.common.entity.PaymentDailyStatistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlGroup;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 import static com.example.springbatch.common.entity.QPaymentDailyStatistics.paymentDailyStatistics;
@@ -54,11 +54,11 @@ class PaymentStatisticsJobConfigTest extends SpringBatchTestSupport {
             switch (dailySum.getBusinessRegistrationNumber()) {
                 case "10002000" -> {
                     then(dailySum.getCorpName()).isEqualTo("사업자1");
-                    then(dailySum.getAmount()).isEqualByComparingTo(new BigDecimal("400"));
+                    then(dailySum.getAmount()).isEqualTo(Money.of(400));
                 }
                 case "2002231" -> {
                     then(dailySum.getCorpName()).isEqualTo("사업자2");
-                    then(dailySum.getAmount()).isEqualByComparingTo(new BigDecimal("1000"));
+                    then(dailySum.getAmount()).isEqualTo(Money.of(1000));
                 }
                 default -> fail("예상치 못한 사업자 번호입니다: " + dailySum.getBusinessRegistrationNumber());
             }